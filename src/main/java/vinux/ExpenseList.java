@@ -34,7 +34,7 @@ public class ExpenseList {
      *
      * @param expense The expense to add
      */
-    public void addExpense(Expense expense) {
+    public synchronized void addExpense(Expense expense) {
         assert expense != null : "Expense to add should not be null";
         expenses.add(expense);
     }
@@ -45,7 +45,7 @@ public class ExpenseList {
      * @param index The index of the expense to delete (0-based)
      * @return The deleted expense
      */
-    public Expense deleteExpense(int index) {
+    public synchronized Expense deleteExpense(int index) {
         assert index >= 0 : "Index should not be negative: " + index;
         assert index < expenses.size() : "Index should be within list size: " + index;
         return expenses.remove(index);
@@ -73,11 +73,12 @@ public class ExpenseList {
     }
 
     /**
-     * Returns all expenses as an ArrayList.
+     * Returns a copy of all expenses as an ArrayList.
+     * Safe to call from a background saver while the list is being changed.
      *
      * @return The list of all expenses
      */
-    public ArrayList<Expense> getAllExpenses() {
+    public synchronized ArrayList<Expense> getAllExpenses() {
         return new ArrayList<>(expenses);
     }
 
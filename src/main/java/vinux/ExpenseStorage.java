@@ -1,21 +1,115 @@
 package vinux;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 import vinux.expense.Expense;
+import vinux.storage.FileBackend;
+import vinux.storage.ParallelFileLoader;
+import vinux.storage.StorageBackend;
+import vinux.storage.SyncPolicy;
+import vinux.storage.WriteBehindSaver;
 
 /**
  * Handles loading and saving of expenses to/from a file.
  * Expenses are stored in a pipe-separated format.
+ * The file is read and written through a {@link StorageBackend}, plain files by default.
  */
 public class ExpenseStorage {
-    private static final String FILE_PATH = "data/expenses.txt";
+    public static final String DEFAULT_FILE_PATH = "data/expenses.txt";
+
+    private final Path filePath;
+    private final StorageBackend backend;
+    private WriteBehindSaver saver;
+    private ExpenseList dirtyExpenses;
+    private final WriteBehindSaver.SaveAction flushAction = this::flushPending;
+    private final Object ioLock = new Object();
+
+    /**
+     * Constructs an ExpenseStorage that leaves syncing to the operating system.
+     */
+    public ExpenseStorage() {
+        this(SyncPolicy.osManaged());
+    }
+
+    /**
+     * Constructs an ExpenseStorage with the given sync policy.
+     * Saves always replace the file atomically; {@code syncPolicy} decides when
+     * they are forced to disk.
+     *
+     * @param syncPolicy When saved expenses are synced to disk
+     */
+    public ExpenseStorage(SyncPolicy syncPolicy) {
+        this(DEFAULT_FILE_PATH, new FileBackend(syncPolicy));
+    }
+
+    /**
+     * Constructs an ExpenseStorage that keeps the given file in the given backend.
+     * The backend is closed when this storage is.
+     *
+     * @param filePath The path to the expenses file
+     * @param backend Where the expenses file is kept
+     */
+    public ExpenseStorage(String filePath, StorageBackend backend) {
+        assert filePath != null : "File path should not be null";
+        assert backend != null : "Storage backend should not be null";
+        this.filePath = Paths.get(filePath);
+        this.backend = backend;
+    }
+
+    /**
+     * Moves saving onto the given background saver, so changes only mark the
+     * expenses dirty and bursts of changes are written once.
+     *
+     * @param saver The saver that runs the writes
+     */
+    public void useWriteBehind(WriteBehindSaver saver) {
+        assert saver != null : "Saver should not be null";
+        this.saver = saver;
+    }
+
+    /**
+     * Persists the expenses after a change, in the background if write-behind is on.
+     *
+     * @param expenseList The ExpenseList after the change
+     * @throws VinuxException if there is an error writing to the file
+     */
+    public void recordChange(ExpenseList expenseList) throws VinuxException {
+        if (saver == null) {
+            saveExpenses(expenseList);
+            return;
+        }
+        synchronized (this) {
+            dirtyExpenses = expenseList;
+        }
+        saver.markDirty(flushAction);
+    }
+
+    private void flushPending() throws VinuxException {
+        ExpenseList expenseList;
+        synchronized (this) {
+            expenseList = dirtyExpenses;
+            dirtyExpenses = null;
+        }
+        if (expenseList != null) {
+            saveExpenses(expenseList);
+        }
+    }
+
+    /**
+     * Syncs any saves still waiting for a group commit.
+     * Pending write-behind saves must be flushed by their saver first.
+     */
+    public void close() {
+        backend.close();
+    }
 
     /**
      * Loads expenses from the storage file.
@@ -24,31 +118,34 @@ public class ExpenseStorage {
      * @throws VinuxException if there is an error reading the file
      */
     public ArrayList<Expense> loadExpenses() throws VinuxException {
-        ArrayList<Expense> expenses = new ArrayList<>();
-        File file = new File(FILE_PATH);
-
-        if (!file.exists()) {
-            return expenses;
+        if (!backend.exists(filePath)) {
+            return new ArrayList<>();
         }
 
-        try {
-            List<String> lines = Files.readAllLines(Paths.get(FILE_PATH));
-            for (String line : lines) {
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                try {
-                    Expense expense = parseExpenseLine(line);
-                    expenses.add(expense);
-                } catch (Exception e) {
-                    throw new VinuxException("Error parsing expense: " + line);
-                }
+        return ParallelFileLoader.load(backend, filePath, this::parseExpenseChunk);
+    }
+
+    /**
+     * Parses the lines of one chunk of the expenses file, skipping blank lines.
+     * Called from several threads at once for large files.
+     *
+     * @param chunk The UTF-8 bytes of whole lines
+     * @param expenses The list the parsed expenses are appended to
+     * @throws VinuxException if a line is invalid
+     */
+    private void parseExpenseChunk(ByteBuffer chunk, List<Expense> expenses) throws VinuxException {
+        String text = new String(chunk.array(), chunk.arrayOffset(), chunk.limit(), StandardCharsets.UTF_8);
+        for (String line : text.lines().toList()) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                Expense expense = parseExpenseLine(line);
+                expenses.add(expense);
+            } catch (Exception e) {
+                throw new VinuxException("Error parsing expense: " + line);
             }
-        } catch (IOException ioException) {
-            throw new VinuxException("Error reading expenses file: " + ioException.getMessage());
         }
-
-        return expenses;
     }
 
     /**
@@ -87,15 +184,21 @@ public class ExpenseStorage {
         assert expenseList != null : "ExpenseList should not be null";
 
         try {
-            File file = new File(FILE_PATH);
-            file.getParentFile().mkdirs();
+            Path directory = filePath.toAbsolutePath().getParent();
+            if (directory != null) {
+                backend.createDirectories(directory);
+            }
 
-            FileWriter writer = new FileWriter(file);
-            for (int i = 0; i < expenseList.getSize(); i++) {
-                Expense expense = expenseList.getExpense(i);
-                writer.write(expense.toFileString() + System.lineSeparator());
+            List<Expense> snapshot = expenseList.getAllExpenses();
+            synchronized (ioLock) {
+                backend.replace(filePath, out -> {
+                    Writer fileWriter = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                    for (Expense expense : snapshot) {
+                        fileWriter.write(expense.toFileString() + System.lineSeparator());
+                    }
+                    fileWriter.flush();
+                });
             }
-            writer.close();
         } catch (IOException ioException) {
             throw new VinuxException("Error saving expenses: " + ioException.getMessage());
         }
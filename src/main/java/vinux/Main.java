@@ -34,4 +34,9 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        vinux.shutdown();
+    }
 }
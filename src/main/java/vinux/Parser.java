@@ -1,8 +1,13 @@
 package vinux;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
 
 import vinux.task.Deadline;
 import vinux.task.Event;
@@ -27,6 +32,18 @@ public class Parser {
     private static final int EXPENSE_PREFIX_LENGTH = 8;     // "expense "
     private static final int AMOUNT_KEYWORD_LENGTH = 9;     // " /amount "
 
+    /** The number of tasks on a page of the list when no size is given. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    /** The most edits per word a fuzzy find allows when no distance is given. */
+    public static final int DEFAULT_FUZZY_DISTANCE = 2;
+    /** The most edits per word a fuzzy find may allow, beyond which nearly every word matches. */
+    private static final int MAX_FUZZY_DISTANCE = 3;
+    private static final String LIMIT_OPTION = "--limit";
+    private static final String DISTANCE_OPTION = "--distance";
+    private static final List<String> FIND_OPTIONS = List.of(LIMIT_OPTION);
+    private static final List<String> FUZZY_FIND_OPTIONS = List.of(DISTANCE_OPTION, LIMIT_OPTION);
+    private static final Pattern WORD = Pattern.compile("\\S+");
+
     /**
      * Parses the user command and returns the command type.
      *
@@ -124,7 +141,7 @@ public class Parser {
      * @return A new Event task
      * @throws VinuxException if the command format is invalid
      */
-    public static Task parseEventCommand(String fullCommand) throws VinuxException {
+    public static Event parseEventCommand(String fullCommand) throws VinuxException {
         assert fullCommand != null : "Command should not be null";
         assert fullCommand.startsWith("event") : "Command should start with event";
 
@@ -189,7 +206,12 @@ public class Parser {
             throw new VinuxException("Excuse me? When does the event end?");
         }
 
-        return new Event(description, from, to);
+        Event event = new Event(description, from, to);
+        LocalDateTime start = Event.parseStart(from);
+        if (start != null && Event.parseEnd(to, start) != null && !event.hasPeriod()) {
+            throw new VinuxException("Uhm...the event must end after it starts!");
+        }
+        return event;
     }
 
     /**
@@ -214,18 +236,355 @@ public class Parser {
     }
 
     /**
-     * Parses the find command and returns the keyword.
+     * Parses a list command into the part of the list it asks for.
+     * Format: "list", "list --page <number> [--size <number>]", "list --size <number>"
+     * or "list --from <task number> [--size <number>]". A page without a size holds
+     * {@link #DEFAULT_PAGE_SIZE} tasks.
+     *
+     * @param fullCommand The full command string
+     * @return The position (0-based) of the first task to show and the number of tasks
+     *         to show, which is 0 if no limit was given
+     * @throws VinuxException if an option is unknown, repeated or not a positive number
+     */
+    public static int[] parseListCommand(String fullCommand) throws VinuxException {
+        assert fullCommand != null : "Command should not be null";
+        assert fullCommand.startsWith("list") : "Command should start with list";
+
+        String[] words = fullCommand.trim().split("\\s+");
+        int page = 0;
+        int size = 0;
+        int from = 0;
+        if (words.length % 2 == 0) {
+            throw invalidListCommand();
+        }
+        for (int i = 1; i < words.length; i += 2) {
+            int number = parseListNumber(words[i + 1]);
+            switch (words[i]) {
+            case "--page":
+                page = page == 0 && from == 0 ? number : -1;
+                break;
+            case "--size":
+                size = size == 0 ? number : -1;
+                break;
+            case "--from":
+                from = from == 0 && page == 0 ? number : -1;
+                break;
+            default:
+                throw invalidListCommand();
+            }
+            if (page < 0 || size < 0 || from < 0) {
+                throw invalidListCommand();
+            }
+        }
+
+        if (page > 0) {
+            int pageSize = size == 0 ? DEFAULT_PAGE_SIZE : size;
+            long first = (long) (page - 1) * pageSize;
+            return new int[] {(int) Math.min(first, Integer.MAX_VALUE), pageSize};
+        }
+        return new int[] {Math.max(from - 1, 0), size};
+    }
+
+    private static int parseListNumber(String text) throws VinuxException {
+        try {
+            int number = Integer.parseInt(text);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException formatException) {
+            // Reported below along with zero and negative numbers
+        }
+        throw new VinuxException("Excuse me? Pages, sizes and task numbers start at 1.");
+    }
+
+    private static VinuxException invalidListCommand() {
+        return new VinuxException(
+                "Which part of the list, exactly?",
+                "Format: list [--page <number>] [--size <number>]",
+                "    or: list --from <task number> [--size <number>]"
+        );
+    }
+
+    /**
+     * Checks whether a mark, unmark or delete command names several tasks at once,
+     * as a list, a range or by status, rather than a single task number.
+     *
+     * @param fullCommand The full command string
+     * @param commandLength The length of the command word (e.g., "mark " = 5)
+     * @return true if the command should go through {@link #parseTaskSelection}
+     */
+    public static boolean isTaskSelection(String fullCommand, int commandLength) {
+        if (fullCommand.length() <= commandLength) {
+            return false;
+        }
+        String argument = fullCommand.substring(commandLength).trim();
+        return argument.startsWith("all") || argument.contains(",") || argument.indexOf('-') > 0;
+    }
+
+    /**
+     * Parses the tasks named by a mark, unmark or delete command.
+     * Format: task numbers and ranges separated by commas (e.g., "3,7,9-20"), or
+     * "all", "all done" or "all pending".
+     *
+     * @param fullCommand The full command string
+     * @param commandLength The length of the command word (e.g., "mark " = 5)
+     * @param tasks The tasks the numbers refer to
+     * @return The positions (0-based) of the named tasks, never empty
+     * @throws VinuxException if a number is invalid or out of range, or nothing is named
+     */
+    public static BitSet parseTaskSelection(String fullCommand, int commandLength, TaskList tasks)
+            throws VinuxException {
+        assert fullCommand != null : "Command should not be null";
+        assert commandLength > 0 : "Command length should be positive";
+
+        String argument = fullCommand.length() > commandLength ? fullCommand.substring(commandLength).trim() : "";
+        int taskCount = tasks.getSize();
+        BitSet positions;
+        if (argument.startsWith("all")) {
+            positions = parseStatusSelection(argument.substring("all".length()).trim(), tasks);
+        } else {
+            positions = new BitSet(taskCount);
+            for (String part : argument.split(",")) {
+                String[] bounds = part.split("-", 2);
+                int first = parseTaskNumber(bounds[0], taskCount);
+                int last = bounds.length == 1 ? first : parseTaskNumber(bounds[1], taskCount);
+                if (last < first) {
+                    throw new VinuxException("Uhm...the range must end after it starts!");
+                }
+                positions.set(first - 1, last);
+            }
+        }
+
+        if (positions.isEmpty()) {
+            throw new VinuxException("None of your tasks fit that. Nothing to do!");
+        }
+        return positions;
+    }
+
+    private static BitSet parseStatusSelection(String status, TaskList tasks) throws VinuxException {
+        switch (status) {
+        case "":
+            BitSet positions = new BitSet();
+            positions.set(0, tasks.getSize());
+            return positions;
+        case "done":
+            return tasks.findPositionsByStatus(true);
+        case "pending":
+            return tasks.findPositionsByStatus(false);
+        default:
+            throw new VinuxException(
+                    "All what, exactly?",
+                    "Try: all, all done or all pending"
+            );
+        }
+    }
+
+    private static int parseTaskNumber(String text, int taskCount) throws VinuxException {
+        int number;
+        try {
+            number = Integer.parseInt(text.trim());
+        } catch (NumberFormatException formatException) {
+            throw new VinuxException("Excuse me? Please provide a valid task number.");
+        }
+        if (number < 1 || number > taskCount) {
+            throw new VinuxException("Sleepy, much? Task number " + number + " doesn't exist!\n"
+                    + "You only have " + taskCount + " task(s) in the list.");
+        }
+        return number;
+    }
+
+    /**
+     * Parses the find command and returns the keyword, without any options.
+     * Format: find <keyword> [--limit <count>]
+     * Only options at the end count; other words starting with "--" are part of the keyword.
      *
      * @param fullCommand The full command string
      * @return The keyword to search for
-     * @throws VinuxException if no keyword is provided
+     * @throws VinuxException if no keyword is provided or an option has no value
      */
     public static String parseFindCommand(String fullCommand) throws VinuxException {
+        return parseFindTerm(fullCommand, FIND_OPTIONS);
+    }
+
+    /**
+     * Parses a fuzzy find command and returns the term, without any options.
+     * Format: find~ <term> [--distance <edits>] [--limit <count>]
+     * As with find, only options at the end count.
+     *
+     * @param fullCommand The full command string
+     * @return The term to search for
+     * @throws VinuxException if no term is provided or an option has no value
+     */
+    public static String parseFuzzyFindCommand(String fullCommand) throws VinuxException {
+        return parseFindTerm(fullCommand, FUZZY_FIND_OPTIONS);
+    }
+
+    /**
+     * Parses how many matches a find or fuzzy find command asks for.
+     * Format: find <keyword> --limit <count>
+     *
+     * @param fullCommand The full command string
+     * @return The limit given with --limit, or {@link Integer#MAX_VALUE} if there is none
+     * @throws VinuxException if the limit is not a positive number
+     */
+    public static int parseFindLimit(String fullCommand) throws VinuxException {
+        int limit = parseFindOption(fullCommand, LIMIT_OPTION, Integer.MAX_VALUE);
+        if (limit == 0) {
+            throw new VinuxException("A limit of 0? Then why search at all?");
+        }
+        return limit;
+    }
+
+    /**
+     * Parses how many edits per word a fuzzy find command allows.
+     *
+     * @param fullCommand The full command string
+     * @return The distance given with --distance, or {@link #DEFAULT_FUZZY_DISTANCE}
+     * @throws VinuxException if the distance is not a number from 0 to 3
+     */
+    public static int parseFuzzyDistance(String fullCommand) throws VinuxException {
+        int distance = parseFindOption(fullCommand, DISTANCE_OPTION, DEFAULT_FUZZY_DISTANCE);
+        if (distance > MAX_FUZZY_DISTANCE) {
+            throw new VinuxException("Whoa, that's too fuzzy. Keep the distance from 0 to "
+                    + MAX_FUZZY_DISTANCE + ".");
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the text of a find command between the command word and the options at its end.
+     */
+    private static String parseFindTerm(String fullCommand, List<String> allowedOptions) throws VinuxException {
         String[] parts = fullCommand.split(" ", 2);
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+        String rest = parts.length < 2 ? "" : parts[1];
+        List<MatchResult> words = WORD.matcher(rest).results().toList();
+        int firstOption = findFirstOption(words, allowedOptions);
+
+        int termEnd = firstOption == words.size() ? rest.length() : words.get(firstOption).start();
+        String term = rest.substring(0, termEnd).trim();
+        if (term.isEmpty()) {
             throw new VinuxException("OOPS!!! The keyword for find cannot be empty.");
         }
-        return parts[1].trim();
+        return term;
+    }
+
+    /**
+     * Returns the position of the first word of the options at the end of a find command:
+     * pairs of an allowed option and its value, with nothing but more pairs after them.
+     * Returns the number of words if there are none.
+     */
+    private static int findFirstOption(List<MatchResult> words, List<String> allowedOptions)
+            throws VinuxException {
+        int end = words.size();
+        if (end > 0 && allowedOptions.contains(words.get(end - 1).group())) {
+            String option = words.get(end - 1).group();
+            throw new VinuxException("Excuse me? " + option + " needs a number, like " + option + " 2.");
+        }
+        while (end >= 2 && allowedOptions.contains(words.get(end - 2).group())) {
+            end -= 2;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the number given after an option at the end of a find command.
+     */
+    private static int parseFindOption(String fullCommand, String option, int defaultValue)
+            throws VinuxException {
+        String[] parts = fullCommand.split(" ", 2);
+        String rest = parts.length < 2 ? "" : parts[1];
+        List<MatchResult> words = WORD.matcher(rest).results().toList();
+        List<String> allowedOptions = parts[0].equals("find~") ? FUZZY_FIND_OPTIONS : FIND_OPTIONS;
+        for (int i = findFirstOption(words, allowedOptions); i < words.size(); i += 2) {
+            if (!words.get(i).group().equals(option)) {
+                continue;
+            }
+            try {
+                int value = Integer.parseInt(words.get(i + 1).group());
+                if (value >= 0) {
+                    return value;
+                }
+            } catch (NumberFormatException numberFormatException) {
+                // Reported below along with negative numbers
+            }
+            throw new VinuxException("Excuse me? " + option + " needs a number, like " + option + " 2.");
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Parses a busy or free command into the period it asks about.
+     * Format: "<command> <date>" for that whole day, or "<command> <start> /to <end>",
+     * with times written as for events.
+     *
+     * @param fullCommand The full command string
+     * @return The start and end of the period
+     * @throws VinuxException if the period is missing, invalid or out of order
+     */
+    public static LocalDateTime[] parsePeriodCommand(String fullCommand) throws VinuxException {
+        assert fullCommand != null : "Command should not be null";
+
+        String[] parts = fullCommand.split(" ", 2);
+        String period = parts.length < 2 ? "" : parts[1].trim();
+        int toIndex = period.indexOf(" /to ");
+        LocalDateTime start;
+        LocalDateTime end;
+        if (toIndex == -1) {
+            start = Event.parseStart(period);
+            // A lone date covers the whole day; a lone time has nothing to end at
+            end = start == null || period.length() != "yyyy-MM-dd".length() ? null : Event.parseEnd(period, start);
+        } else {
+            start = Event.parseStart(period.substring(0, toIndex));
+            end = start == null ? null : Event.parseEnd(period.substring(toIndex + TO_KEYWORD_LENGTH), start);
+        }
+
+        if (end == null) {
+            throw new VinuxException(
+                    "Which period, exactly?",
+                    "Format: " + parts[0] + " <date> or " + parts[0] + " <start> /to <end>",
+                    "Time format: yyyy-MM-dd HH:mm (e.g., 2019-12-31 18:00)"
+            );
+        }
+        if (!end.isAfter(start)) {
+            throw new VinuxException("Uhm...the period must end after it starts!");
+        }
+        return new LocalDateTime[] {start, end};
+    }
+
+    /**
+     * Parses a due command into the period it asks about, both ends included.
+     * Format: "due <date>" for everything due by that day, or "due <from> <to>".
+     *
+     * @param fullCommand The full command string
+     * @return The first and last day of the period
+     * @throws VinuxException if the dates are missing, invalid or out of order
+     */
+    public static LocalDate[] parseDueCommand(String fullCommand) throws VinuxException {
+        assert fullCommand != null : "Command should not be null";
+        assert fullCommand.startsWith("due") : "Command should start with due";
+
+        String[] dates = fullCommand.substring("due".length()).trim().split("\\s+");
+        if (dates[0].isEmpty() || dates.length > 2) {
+            throw new VinuxException(
+                    "Due when, exactly?",
+                    "Format: due <date> or due <from> <to>",
+                    "Date format: yyyy-MM-dd (e.g., 2019-12-31)"
+            );
+        }
+
+        try {
+            LocalDate from = dates.length == 1 ? LocalDate.MIN : LocalDate.parse(dates[0], INPUT_DATE_FORMAT);
+            LocalDate to = LocalDate.parse(dates[dates.length - 1], INPUT_DATE_FORMAT);
+            if (to.isBefore(from)) {
+                throw new VinuxException("Uhm...the period must end after it starts!");
+            }
+            return new LocalDate[] {from, to};
+        } catch (DateTimeParseException parseException) {
+            throw new VinuxException(
+                    "Wait!!! That does NOT look like a valid date...",
+                    "Use this format: yyyy-MM-dd (e.g., 2019-12-31)"
+            );
+        }
     }
 
     /**
@@ -1,38 +1,169 @@
 package vinux;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import vinux.task.Deadline;
-import vinux.task.Event;
+import vinux.storage.FileBackend;
+import vinux.storage.PagedTaskList;
+import vinux.storage.SlottedTaskFile;
+import vinux.storage.StorageBackend;
+import vinux.storage.SyncPolicy;
+import vinux.storage.TaskFileFormat;
+import vinux.storage.TaskFileIndex;
+import vinux.storage.TaskJournal;
+import vinux.storage.WriteBehindSaver;
 import vinux.task.Task;
-import vinux.task.Todo;
 
 /**
  * Handles loading and saving tasks to/from the file system.
  * Level-7: Automatically creates data directory and file if they don't exist.
+ * Every file is read and written through a {@link StorageBackend}, plain files by default.
+ * In journal mode each mutation is appended to a journal and the data file
+ * is only rewritten when the journal is compacted. With write-behind, mutations only
+ * mark the storage dirty and the writes happen on a background thread.
+ *
+ * <p>Compaction starts once the journal holds too many records or bytes. The list is
+ * snapshotted in memory and the journal moves to a new generation right away; the
+ * snapshot is then written on a background thread while commands carry on, and the
+ * generations it covers are deleted once it is safely on disk. If loading failed, the
+ * app carries on with an empty list, so nothing is compacted or rewritten from then on:
+ * doing so would save that empty list over the tasks that could not be read.</p>
+ *
+ * <p>Without a journal, the {@link TaskFileFormat#SLOTTED} format is updated in place
+ * instead of being rewritten: marking a task writes one status byte, adding one writes
+ * new slots at the end and deleting one leaves a tombstone. These writes are small,
+ * so they happen on the calling thread even with write-behind.</p>
  */
 public class Storage {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot.";
+    private static final String LEGACY_CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final String INDEX_SUFFIX = ".index";
+    private static final String PAGED_FILE_SUFFIX = ".paged";
+    private static final int DEFAULT_COMPACTION_RECORDS = 1000;
+    private static final long DEFAULT_COMPACTION_BYTES = 1024 * 1024;
+    private static final long COMPACTION_TIMEOUT_SECONDS = 60;
+
+    /**
+     * A snapshot of the task list waiting to be written under a journal generation.
+     */
+    private static class Compaction {
+        private final int generation;
+        private final List<Task> snapshot;
+
+        private Compaction(int generation, List<Task> snapshot) {
+            this.generation = generation;
+            this.snapshot = snapshot;
+        }
+    }
+
     private String filePath;
+    private Path dataPath;
+    private TaskJournal journal;
+    private TaskFileFormat format;
+    private StorageBackend backend;
+    private int compactionRecords = DEFAULT_COMPACTION_RECORDS;
+    private long compactionBytes = DEFAULT_COMPACTION_BYTES;
+    private int committedGeneration;
+    private boolean isCompacting;
+    private ExecutorService compactor;
+    private VinuxException compactionError;
+    /** Set when loading failed, so the files that could not be read are never written over. */
+    private volatile boolean isLoadFailed;
+
+    private WriteBehindSaver saver;
+    private final WriteBehindSaver.SaveAction flushAction = this::flushPending;
+    private final Object ioLock = new Object();
+    private Compaction pendingCompaction;
+    private TaskList dirtyTasks;
+    private PagedTaskList pagedTasks;
+    /** Whether the file the lazily loaded list reads has been moved aside to make way for a save. */
+    private boolean isPagedFileMovedAside;
+    private SlottedTaskFile slottedFile;
 
     /**
      * Constructs a Storage object with the specified file path.
+     * Every save rewrites the whole data file.
      *
      * @param filePath The path to the data file
      */
     public Storage(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a Storage object with the specified file path.
+     *
+     * @param filePath The path to the data file
+     * @param isJournaled Whether mutations are appended to a journal instead of
+     *                    rewriting the data file every time
+     */
+    public Storage(String filePath, boolean isJournaled) {
+        this(filePath, isJournaled, TaskFileFormat.TEXT);
+    }
+
+    /**
+     * Constructs a Storage object with the specified file path and file format.
+     * Existing files are always loaded in the format they were written in;
+     * {@code format} decides how the data file is written from now on.
+     *
+     * @param filePath The path to the data file
+     * @param isJournaled Whether mutations are appended to a journal instead of
+     *                    rewriting the data file every time
+     * @param format The format to write the data file in
+     */
+    public Storage(String filePath, boolean isJournaled, TaskFileFormat format) {
+        this(filePath, isJournaled, format, SyncPolicy.osManaged());
+    }
+
+    /**
+     * Constructs a Storage object with the specified file path, file format and sync policy.
+     * Saves always replace the data file atomically; {@code syncPolicy} decides when
+     * they are forced to disk.
+     *
+     * @param filePath The path to the data file
+     * @param isJournaled Whether mutations are appended to a journal instead of
+     *                    rewriting the data file every time
+     * @param format The format to write the data file in
+     * @param syncPolicy When saved data is synced to disk
+     */
+    public Storage(String filePath, boolean isJournaled, TaskFileFormat format, SyncPolicy syncPolicy) {
+        this(filePath, isJournaled, format, new FileBackend(syncPolicy));
+    }
+
+    /**
+     * Constructs a Storage object that keeps its files in the given backend.
+     * The backend is closed when this storage is.
+     *
+     * @param filePath The path to the data file
+     * @param isJournaled Whether mutations are appended to a journal instead of
+     *                    rewriting the data file every time
+     * @param format The format to write the data file in
+     * @param backend Where the data file, journal and index are kept
+     */
+    public Storage(String filePath, boolean isJournaled, TaskFileFormat format, StorageBackend backend) {
+        assert backend != null : "Storage backend should not be null";
         this.filePath = filePath;
+        this.dataPath = Paths.get(filePath);
+        this.format = format;
+        this.backend = backend;
+        if (isJournaled) {
+            this.journal = new TaskJournal(filePath + JOURNAL_SUFFIX, backend, format);
+        } else if (format == TaskFileFormat.SLOTTED) {
+            this.slottedFile = new SlottedTaskFile(dataPath, backend);
+        }
     }
 
     /**
@@ -43,152 +174,643 @@ public class Storage {
      * @throws VinuxException if there's an error loading the file
      */
     public ArrayList<Task> loadTasks() throws VinuxException {
+        try {
+            isLoadFailed = false;
+            return readTasks();
+        } catch (VinuxException vinuxException) {
+            isLoadFailed = true;
+            throw vinuxException;
+        }
+    }
+
+    private ArrayList<Task> readTasks() throws VinuxException {
+        if (slottedFile != null) {
+            return loadSlottedTasks();
+        }
+
         ArrayList<Task> tasks = new ArrayList<>();
-        File dataDir = new File("./data");
-        File dataFile = new File(filePath);
+        if (prepareDataFile()) {
+            //load tasks from file
+            tasks = TaskFileFormat.detect(backend, dataPath).read(backend, dataPath);
+        }
 
-        //create directory if it doesn't exist
-        if (!dataDir.exists()) {
-            dataDir.mkdir();
+        if (journal != null) {
+            journal.replay(tasks, committedGeneration);
         }
 
-        //create file if it doesn't exist
-        if (!dataFile.exists()) {
-            try {
-                dataFile.createNewFile();
-                return tasks; //return empty list for new file
-            } catch (IOException ioException) {
-                throw new VinuxException("Error creating data file: " + ioException.getMessage());
+        return tasks;
+    }
+
+    /**
+     * Loads tasks lazily: only the offset index of the file is read now, and tasks
+     * are decoded a page at a time when they are first used.
+     * Creates the file and directory if they don't exist.
+     *
+     * @return List of tasks backed by the file
+     * @throws VinuxException if there's an error loading the file
+     */
+    public List<Task> loadTasksLazily() throws VinuxException {
+        try {
+            isLoadFailed = false;
+            return readTasksLazily();
+        } catch (VinuxException vinuxException) {
+            isLoadFailed = true;
+            throw vinuxException;
+        }
+    }
+
+    private List<Task> readTasksLazily() throws VinuxException {
+        prepareDataFile();
+        if (slottedFile != null || TaskFileFormat.detect(backend, dataPath) == TaskFileFormat.SLOTTED) {
+            return readTasks(); // slotted files are not paged
+        }
+        TaskFileIndex index = TaskFileIndex.load(dataPath, Paths.get(filePath + INDEX_SUFFIX), backend);
+        PagedTaskList tasks = new PagedTaskList(backend, dataPath, index, PagedTaskList.DEFAULT_CACHED_PAGES);
+
+        if (journal != null) {
+            journal.replay(tasks, committedGeneration);
+        }
+
+        closePagedTasks();
+        pagedTasks = tasks;
+        return tasks;
+    }
+
+    /**
+     * Loads the slotted data file, first converting it if it is stored in another format.
+     */
+    private ArrayList<Task> loadSlottedTasks() throws VinuxException {
+        prepareDataFile();
+        TaskFileFormat existingFormat = TaskFileFormat.detect(backend, dataPath);
+        synchronized (ioLock) {
+            if (existingFormat == TaskFileFormat.SLOTTED) {
+                return slottedFile.load();
             }
+            ArrayList<Task> tasks = existingFormat.read(backend, dataPath);
+            slottedFile.rewrite(tasks);
+            return tasks;
+        }
+    }
+
+    /**
+     * Creates the directory and data file if they don't exist and, in journal mode,
+     * finishes a snapshot interrupted by a crash.
+     *
+     * @return true if the data file already existed
+     * @throws VinuxException if the data file cannot be created
+     */
+    private boolean prepareDataFile() throws VinuxException {
+        try {
+            //create directory if it doesn't exist
+            createDataDirectory();
+        } catch (IOException ioException) {
+            throw new VinuxException("Error creating data directory: " + ioException.getMessage());
+        }
+
+        restorePagedFile();
+        if (journal != null) {
+            committedGeneration = recoverSnapshot();
         }
 
-        //load tasks from file
+        //create file if it doesn't exist
+        if (backend.exists(dataPath)) {
+            return true;
+        }
         try {
-            Scanner fileScanner = new Scanner(dataFile);
-            while (fileScanner.hasNextLine()) {
-                String line = fileScanner.nextLine();
-                if (line.trim().isEmpty()) {
-                    continue;
+            backend.replace(dataPath, out -> { });
+            return false;
+        } catch (IOException ioException) {
+            throw new VinuxException("Error creating data file: " + ioException.getMessage());
+        }
+    }
+
+    private void createDataDirectory() throws IOException {
+        Path directory = dataPath.toAbsolutePath().getParent();
+        if (directory != null) {
+            backend.createDirectories(directory);
+        }
+    }
+
+    /**
+     * Saves all tasks to the file.
+     * In journal mode this compacts the journal right away, on the calling thread.
+     * The tasks are written straight from the list without copying, so this must be
+     * called on the thread that changes the list.
+     *
+     * @param tasks The TaskList to save
+     * @throws VinuxException if there's an error saving
+     */
+    public void saveTasks(TaskList tasks) throws VinuxException {
+        checkLoaded();
+        if (slottedFile != null) {
+            synchronized (ioLock) {
+                slottedFile.rewrite(tasks.getTasksView());
+            }
+            return;
+        }
+
+        synchronized (ioLock) {
+            List<Task> snapshot;
+            int generation = 0;
+            synchronized (this) {
+                snapshot = tasks.getTasksView();
+                if (journal != null) {
+                    generation = journal.rotate();
+                    if (pendingCompaction != null) {
+                        // This save supersedes the snapshot still waiting for the saver
+                        pendingCompaction = null;
+                        isCompacting = false;
+                    }
                 }
-                tasks.add(parseTaskFromFile(line));
             }
-            fileScanner.close();
+            writeSnapshot(generation, snapshot);
+        }
+    }
+
+    /**
+     * Writes a full copy of the tasks, as the snapshot for the given journal
+     * generation in journal mode. Callers must hold {@code ioLock}.
+     */
+    private void writeSnapshot(int generation, List<Task> snapshot) throws VinuxException {
+        checkLoaded();
+        try {
+            createDataDirectory();
+
+            if (journal == null) {
+                movePagedFileAside();
+                writeTasks(snapshot, dataPath);
+                return;
+            }
+            if (generation <= committedGeneration) {
+                return; // a newer snapshot has already been saved
+            }
+
+            // Installing the snapshot file is the commit point; installSnapshot() rolls it
+            // forward, so a crash at any step never replays a record twice.
+            writeTasks(snapshot, snapshotPath(generation));
+            installSnapshot(generation);
+            committedGeneration = generation;
         } catch (IOException ioException) {
-            throw new VinuxException("Error loading tasks: " + ioException.getMessage());
+            throw new VinuxException("Error saving tasks: " + ioException.getMessage());
         }
+    }
 
-        return tasks;
+    private void writeTasks(List<Task> snapshot, Path path) throws IOException {
+        try {
+            backend.replace(path, out -> format.write(snapshot, out));
+        } catch (UncheckedIOException uncheckedIoException) {
+            throw uncheckedIoException.getCause(); // a lazily read snapshot could not read the data file
+        }
+    }
+
+    private Path snapshotPath(int generation) {
+        return Paths.get(filePath + SNAPSHOT_SUFFIX + generation);
     }
 
     /**
-     * Parses a line from the file and creates the appropriate Task object.
-     * Format: "TODO ✓ description" or "DEADLINE ✗ description by 2019-12-31"
+     * Completes a committed snapshot: drops the journal generations it covers and
+     * moves it over the data file.
      *
-     * @param line The line from the file
-     * @return The Task object created from the line
-     * @throws VinuxException if the line format is invalid
+     * @throws VinuxException if the snapshot cannot be installed
      */
-    private Task parseTaskFromFile(String line) throws VinuxException {
-        String[] parts = line.split(" ", 3);
-        if (parts.length < 3) {
-            throw new VinuxException("Invalid file format: " + line);
+    private void installSnapshot(int generation) throws VinuxException {
+        try {
+            journal.deleteBefore(generation);
+            movePagedFileAside();
+            backend.move(snapshotPath(generation), dataPath);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error installing snapshot: " + ioException.getMessage());
         }
+    }
 
-        String taskType = parts[0];
-        boolean isDone = parts[1].equals("✓");
-        String details = parts[2];
+    /**
+     * Moves the data file aside while a lazily loaded list still reads it, so that the
+     * list keeps reading it after a save. Windows refuses to replace a file that is open
+     * or mapped, but lets it be renamed. The file is deleted once the list is closed.
+     */
+    private void movePagedFileAside() throws IOException {
+        if (pagedTasks == null || isPagedFileMovedAside || !backend.exists(dataPath)) {
+            return;
+        }
+        backend.move(dataPath, pagedFilePath());
+        isPagedFileMovedAside = true;
+    }
 
-        Task task;
-        switch (taskType) {
-            case "TODO":
-                task = new Todo(details);
-                break;
-            case "DEADLINE":
-                task = parseDeadline(details);
-                break;
-            case "EVENT":
-                task = parseEvent(details);
-                break;
-            default:
-                throw new VinuxException("Unknown task type: " + taskType);
+    /**
+     * Cleans up a data file moved aside before the last run ended. If the save it made
+     * way for never happened, it is still the data file and is moved back.
+     */
+    private void restorePagedFile() throws VinuxException {
+        Path pagedFile = pagedFilePath();
+        if (pagedTasks != null || !backend.exists(pagedFile)) {
+            return;
         }
+        try {
+            if (backend.exists(dataPath)) {
+                backend.delete(pagedFile);
+            } else {
+                backend.move(pagedFile, dataPath);
+            }
+        } catch (IOException ioException) {
+            throw new VinuxException("Error restoring data file: " + ioException.getMessage());
+        }
+    }
+
+    private Path pagedFilePath() {
+        return Paths.get(filePath + PAGED_FILE_SUFFIX);
+    }
 
-        if (isDone) {
-            task.markAsDone();
+    /**
+     * Finishes the newest snapshot left behind by a crash, if any.
+     *
+     * @return The generation of that snapshot, or 0 if there was none
+     * @throws VinuxException if the snapshot cannot be installed
+     */
+    private int recoverSnapshot() throws VinuxException {
+        try {
+            Path legacyCheckpoint = Paths.get(filePath + LEGACY_CHECKPOINT_SUFFIX);
+            if (backend.exists(legacyCheckpoint)) {
+                // It covers the old single journal file, which the journal reads as generation 0
+                backend.move(legacyCheckpoint, snapshotPath(1));
+            }
+
+            TreeMap<Integer, Path> snapshots = listSnapshots();
+            if (snapshots.isEmpty()) {
+                return 0;
+            }
+            int generation = snapshots.lastKey();
+            installSnapshot(generation);
+            for (Path staleSnapshot : snapshots.headMap(generation).values()) {
+                backend.delete(staleSnapshot);
+            }
+            return generation;
+        } catch (IOException ioException) {
+            throw new VinuxException("Error installing snapshot: " + ioException.getMessage());
+        }
+    }
+
+    private TreeMap<Integer, Path> listSnapshots() throws IOException {
+        TreeMap<Integer, Path> snapshots = new TreeMap<>();
+        Path directory = dataPath.toAbsolutePath().getParent();
+        String prefix = dataPath.getFileName() + SNAPSHOT_SUFFIX;
+        for (Path file : backend.list(directory, prefix)) {
+            String name = file.getFileName().toString();
+            try {
+                snapshots.put(Integer.parseInt(name.substring(prefix.length())), file);
+            } catch (NumberFormatException formatException) {
+                // An unfinished temporary file; the next save overwrites it
+            }
         }
+        return snapshots;
+    }
 
-        return task;
+    /**
+     * Sets how large the journal may grow before it is compacted.
+     * Compaction starts when either limit is reached.
+     *
+     * @param maxRecords The number of records that triggers a compaction
+     * @param maxBytes The size of the records, in characters, that triggers a compaction
+     */
+    public void setCompactionThresholds(int maxRecords, long maxBytes) {
+        assert maxRecords > 0 && maxBytes > 0 : "Compaction thresholds should be positive";
+        this.compactionRecords = maxRecords;
+        this.compactionBytes = maxBytes;
     }
 
     /**
-     * Parses deadline details from file format.
-     * Format: "description by 2019-12-31"
+     * Moves saving onto the given background saver. Each mutation then only marks
+     * this storage dirty, and bursts of mutations are written together.
      *
-     * @param details The deadline details string
-     * @return Deadline task object
-     * @throws VinuxException if format is invalid
+     * @param saver The saver that runs the writes
      */
-    private Deadline parseDeadline(String details) throws VinuxException {
-        int byIndex = details.indexOf(" by ");
-        if (byIndex == -1) {
-            throw new VinuxException("Invalid deadline format: " + details);
+    public void useWriteBehind(WriteBehindSaver saver) {
+        assert saver != null : "Saver should not be null";
+        this.saver = saver;
+        if (journal != null) {
+            journal.setBuffered(true);
         }
+    }
 
-        String description = details.substring(0, byIndex);
-        String dateString = details.substring(byIndex + 4);
+    /**
+     * Persists a task that was just added to the end of the list.
+     *
+     * @param tasks The TaskList after the task was added
+     * @param task The task that was added
+     * @throws VinuxException if there's an error saving
+     */
+    public void recordAdd(TaskList tasks, Task task) throws VinuxException {
+        if (slottedFile != null) {
+            synchronized (ioLock) {
+                slottedFile.append(task);
+            }
+            return;
+        }
+        if (journal == null) {
+            persistAll(tasks);
+            return;
+        }
+        journal.appendAdd(task);
+        afterRecord(tasks);
+    }
 
-        try {
-            LocalDate date = LocalDate.parse(dateString);
-            return new Deadline(description, date);
-        } catch (DateTimeParseException parseException) {
-            throw new VinuxException("Invalid date format: " + dateString);
+    /**
+     * Persists that the task at the given index was marked as done.
+     *
+     * @param tasks The TaskList after the task was marked
+     * @param index The index of the marked task (0-based)
+     * @throws VinuxException if there's an error saving
+     */
+    public void recordMark(TaskList tasks, int index) throws VinuxException {
+        if (slottedFile != null) {
+            synchronized (ioLock) {
+                slottedFile.writeStatus(index, true);
+            }
+            return;
+        }
+        if (journal == null) {
+            persistAll(tasks);
+            return;
         }
+        journal.appendMark(index);
+        afterRecord(tasks);
     }
 
     /**
-     * Parses event details from file format.
-     * Format: "description from start to end"
+     * Persists that the task at the given index was marked as not done.
      *
-     * @param details The event details string
-     * @return Event task object
-     * @throws VinuxException if format is invalid
+     * @param tasks The TaskList after the task was unmarked
+     * @param index The index of the unmarked task (0-based)
+     * @throws VinuxException if there's an error saving
      */
-    private Event parseEvent(String details) throws VinuxException {
-        int fromIndex = details.indexOf(" from ");
-        int toIndex = details.indexOf(" to ");
+    public void recordUnmark(TaskList tasks, int index) throws VinuxException {
+        if (slottedFile != null) {
+            synchronized (ioLock) {
+                slottedFile.writeStatus(index, false);
+            }
+            return;
+        }
+        if (journal == null) {
+            persistAll(tasks);
+            return;
+        }
+        journal.appendUnmark(index);
+        afterRecord(tasks);
+    }
 
-        if (fromIndex == -1 || toIndex == -1) {
-            throw new VinuxException("Invalid event format: " + details);
+    /**
+     * Persists that the task at the given index was deleted.
+     *
+     * @param tasks The TaskList after the task was deleted
+     * @param index The index the deleted task had (0-based)
+     * @throws VinuxException if there's an error saving
+     */
+    public void recordDelete(TaskList tasks, int index) throws VinuxException {
+        if (slottedFile != null) {
+            synchronized (ioLock) {
+                slottedFile.delete(index);
+                if (slottedFile.isRewriteDue() && !isLoadFailed) {
+                    slottedFile.rewrite(tasks.getTasksView());
+                }
+            }
+            return;
+        }
+        if (journal == null) {
+            persistAll(tasks);
+            return;
         }
+        journal.appendDelete(index);
+        afterRecord(tasks);
+    }
 
-        String description = details.substring(0, fromIndex);
-        String from = details.substring(fromIndex + 6, toIndex);
-        String to = details.substring(toIndex + 4);
+    /**
+     * Persists that the tasks at the given indexes were all marked as done or not done,
+     * with one write for the whole command.
+     *
+     * @param tasks The TaskList after the tasks were changed
+     * @param indexes The indexes of the changed tasks (0-based)
+     * @param isDone Whether the tasks were marked as done
+     * @throws VinuxException if there's an error saving
+     */
+    public void recordMarks(TaskList tasks, BitSet indexes, boolean isDone) throws VinuxException {
+        if (slottedFile != null) {
+            synchronized (ioLock) {
+                // Each status is one byte in its own slot, so this never rewrites the file
+                for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                    slottedFile.writeStatus(i, isDone);
+                }
+            }
+            return;
+        }
+        if (journal == null) {
+            persistAll(tasks);
+            return;
+        }
+        journal.appendMarks(indexes, isDone);
+        afterRecord(tasks);
+    }
 
-        return new Event(description, from, to);
+    /**
+     * Persists that the tasks at the given indexes were all deleted, with one write for
+     * the whole command. Deleting every task is recorded as a clear.
+     *
+     * @param tasks The TaskList after the tasks were deleted
+     * @param indexes The indexes the deleted tasks had before any was deleted (0-based)
+     * @throws VinuxException if there's an error saving
+     */
+    public void recordDeletes(TaskList tasks, BitSet indexes) throws VinuxException {
+        if (tasks.getSize() == 0) {
+            // Every task was deleted: one CLEAR record instead of a DELETE for each
+            recordClear(tasks);
+            return;
+        }
+        if (slottedFile != null) {
+            checkLoaded();
+            synchronized (ioLock) {
+                slottedFile.rewrite(tasks.getTasksView());
+            }
+            return;
+        }
+        if (journal == null) {
+            persistAll(tasks);
+            return;
+        }
+        journal.appendDeletes(indexes);
+        afterRecord(tasks);
     }
 
     /**
-     * Saves all tasks to the file.
+     * Persists that all tasks were cleared.
      *
-     * @param tasks The TaskList to save
+     * @param tasks The TaskList after it was cleared
      * @throws VinuxException if there's an error saving
      */
-    public void saveTasks(TaskList tasks) throws VinuxException {
+    public void recordClear(TaskList tasks) throws VinuxException {
+        if (slottedFile != null) {
+            checkLoaded();
+            synchronized (ioLock) {
+                slottedFile.rewrite(new ArrayList<>());
+            }
+            return;
+        }
+        if (journal == null) {
+            persistAll(tasks);
+            return;
+        }
+        journal.appendClear();
+        afterRecord(tasks);
+    }
+
+    /**
+     * Refuses to write over the files that failed to load.
+     *
+     * @throws VinuxException if the last load failed
+     */
+    private void checkLoaded() throws VinuxException {
+        if (isLoadFailed) {
+            throw new VinuxException("Your saved tasks couldn't be loaded, so I won't save over them.",
+                    "Fix or move " + filePath + " and restart to save again.");
+        }
+    }
+
+    private void persistAll(TaskList tasks) throws VinuxException {
+        if (saver == null) {
+            saveTasks(tasks);
+            return;
+        }
+        synchronized (this) {
+            dirtyTasks = tasks;
+        }
+        saver.markDirty(flushAction);
+    }
+
+    private void afterRecord(TaskList tasks) throws VinuxException {
+        Compaction compaction = null;
+        synchronized (this) {
+            if (!isLoadFailed && !isCompacting && (journal.getRecordCount() >= compactionRecords
+                    || journal.getByteCount() >= compactionBytes)) {
+                // Cut here: the snapshot covers every record so far, later ones go to the next generation
+                compaction = new Compaction(journal.rotate(), tasks.getSnapshot());
+                isCompacting = true;
+                if (saver != null) {
+                    pendingCompaction = compaction;
+                }
+            }
+        }
+
+        if (saver != null) {
+            saver.markDirty(flushAction);
+            return;
+        }
+        if (compaction != null) {
+            startCompaction(compaction);
+        }
+        throwCompactionError();
+    }
+
+    /**
+     * Writes the snapshot on the compactor thread, which is started on first use.
+     */
+    private synchronized void startCompaction(Compaction compaction) {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "vinux-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compactor.execute(() -> {
+            try {
+                compact(compaction);
+            } catch (VinuxException vinuxException) {
+                synchronized (this) {
+                    compactionError = vinuxException;
+                }
+            }
+        });
+    }
+
+    private void compact(Compaction compaction) throws VinuxException {
         try {
-            File directory = new File("./data");
-            if (!directory.exists()) {
-                directory.mkdir();
+            synchronized (ioLock) {
+                writeSnapshot(compaction.generation, compaction.snapshot);
+            }
+        } finally {
+            synchronized (this) {
+                isCompacting = false;
+            }
+        }
+    }
+
+    private synchronized void throwCompactionError() throws VinuxException {
+        if (compactionError != null) {
+            VinuxException error = compactionError;
+            compactionError = null;
+            throw new VinuxException("Error compacting in the background: " + error.getMessage());
+        }
+    }
+
+    /**
+     * Writes everything marked dirty since the last flush. Runs on the saver thread.
+     * A pending snapshot is written before the records that came after it.
+     */
+    private void flushPending() throws VinuxException {
+        synchronized (ioLock) {
+            Compaction compaction;
+            TaskList fullSave;
+            synchronized (this) {
+                compaction = pendingCompaction;
+                pendingCompaction = null;
+                fullSave = dirtyTasks;
+                dirtyTasks = null;
             }
 
-            FileWriter writer = new FileWriter(filePath);
-            for (Task task : tasks.getAllTasks()) {
-                writer.write(task.toFileFormat() + "\n");
+            if (fullSave != null) {
+                writeSnapshot(0, fullSave.getSnapshot());
+            }
+            if (compaction != null) {
+                compact(compaction);
+            }
+            if (journal != null) {
+                journal.flushBuffered();
+            }
+        }
+    }
+
+    /**
+     * Waits for a background compaction to finish, closes a lazily loaded task list and
+     * syncs any saves still waiting for a group commit. Pending write-behind saves must be flushed by their saver first.
+     */
+    public void close() {
+        ExecutorService runningCompactor;
+        synchronized (this) {
+            runningCompactor = compactor;
+        }
+        try {
+            if (runningCompactor != null) {
+                runningCompactor.shutdown();
+                runningCompactor.awaitTermination(COMPACTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        closePagedTasks();
+        backend.close();
+    }
+
+    private void closePagedTasks() {
+        if (pagedTasks == null) {
+            return;
+        }
+        try {
+            pagedTasks.close();
+            if (isPagedFileMovedAside) {
+                backend.delete(pagedFilePath());
             }
-            writer.close();
         } catch (IOException ioException) {
-            throw new VinuxException("Error saving tasks: " + ioException.getMessage());
+            // Nothing was written through it, so there is nothing to lose
         }
+        pagedTasks = null;
+        isPagedFileMovedAside = false;
     }
 
     /**
@@ -1,30 +1,103 @@
 package vinux;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.ObjIntConsumer;
 
+import vinux.index.ChunkedList;
+import vinux.index.ColumnarTaskList;
+import vinux.index.DeadlineIndex;
+import vinux.index.DescriptionMultiset;
+import vinux.index.IntervalTree;
+import vinux.index.InvertedIndex;
+import vinux.index.PostingList;
+import vinux.index.RankedSlots;
+import vinux.index.SnapshotList;
+import vinux.index.TaskAttributes;
+import vinux.index.TaskCounts;
+import vinux.index.TrigramIndex;
+import vinux.storage.PagedTaskList;
+import vinux.task.Deadline;
+import vinux.task.Event;
 import vinux.task.Task;
 
 /**
  * Represents a list of tasks.
  * Handles operations like adding, deleting, and retrieving tasks.
+ *
+ * <p>Searches go through a trigram index, or a word index for queries too short to have
+ * trigrams. Both are built on the first search, so a lazily loaded list is not read in
+ * full at startup, and kept up to date from then on. Deadlines are likewise sorted by
+ * due date from the first due date query on, and events with structured times go into
+ * an interval tree from the first schedule query on. Query searches keep a bitset of
+ * the tasks with each type and status from the first query on.
+ * Each indexed task has a sequence number; tasks are only ever added at the end, so
+ * the rank of a live sequence number is the task's list position, and deleting a task
+ * does not renumber the tasks after it. Deleted tasks stay in the word and trigram
+ * indexes, whose candidates are checked against the live sequence numbers, until they
+ * outnumber the live tasks and every index is rebuilt on next use.
+ * Duplicate checks likewise count descriptions from the first check on, and the summary
+ * counts tasks by type and completion from the first summary on. Marking must go through
+ * {@link #markTask(int)} and {@link #unmarkTask(int)} to keep those counts and bitsets exact.</p>
+ *
+ * <p>Tasks are kept in a {@link ChunkedList}, so adding, deleting and getting a task
+ * by position take logarithmic time however long the list is.</p>
+ *
+ * <p>One thread changes the list while others may read it. Every method that touches
+ * the list or its indexes holds the list's lock, except that readers can take an
+ * immutable {@link #getSnapshot() snapshot} without locking. Once the first snapshot
+ * is taken, each change also derives the next snapshot from the last one, sharing all
+ * but one segment with it, and publishes it through a volatile field. Tasks in a
+ * snapshot are never changed: marking replaces a task with a marked copy.</p>
  */
 public class TaskList {
-    private ArrayList<Task> tasks;
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    /** How many more deleted tasks than live ones the indexes may hold before they are rebuilt. */
+    private static final int MAX_EXTRA_REMOVED = 1024;
+
+    private List<Task> tasks;
+    private InvertedIndex wordIndex;
+    private TrigramIndex trigramIndex;
+    private DeadlineIndex deadlineIndex;
+    private IntervalTree eventIndex;
+    private TaskAttributes attributes;
+    private RankedSlots sequences;
+    private int removedSequenceCount;
+    private DescriptionMultiset descriptions;
+    private TaskCounts counts;
+    /** The tasks as of the last change, kept from the first snapshot on; null before that. */
+    private volatile SnapshotList<Task> snapshot;
+    /** Whether a bulk change is under way, which publishes one snapshot at the end instead of one per task. */
+    private boolean isBatching;
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this.tasks = new ChunkedList<>();
     }
 
     /**
      * Constructs a TaskList with the given list of tasks.
+     * A lazily loaded {@link PagedTaskList} or a compact {@link ColumnarTaskList} is
+     * used as it is; any other list is copied.
      *
      * @param tasks The list of tasks to initialize with
      */
-    public TaskList(ArrayList<Task> tasks) {
-        this.tasks = tasks;
+    public TaskList(List<Task> tasks) {
+        boolean isKept = tasks instanceof PagedTaskList || tasks instanceof ColumnarTaskList;
+        this.tasks = isKept ? tasks : new ChunkedList<>(tasks);
     }
 
     /**
@@ -32,9 +105,21 @@ public class TaskList {
      *
      * @param task The task to add
      */
-    public void addTask(Task task) {
+    public synchronized void addTask(Task task) {
         assert task != null : "Task to add should not be null";
         tasks.add(task);
+        if (snapshot != null && !isBatching) {
+            snapshot = snapshot.withAdded(task);
+        }
+        if (sequences != null) {
+            indexTask(task, sequences.add());
+        }
+        if (descriptions != null) {
+            descriptions.add(task.getDescription());
+        }
+        if (counts != null) {
+            counts.add(task);
+        }
     }
 
     /**
@@ -44,10 +129,28 @@ public class TaskList {
      * @return The deleted task
      * @throws IndexOutOfBoundsException if index is invalid
      */
-    public Task deleteTask(int index) {
+    public synchronized Task deleteTask(int index) {
         assert index >= 0 : "Index should not be negative: " + index;
         assert index < tasks.size() : "Index should be within list size: " + index;
-        return tasks.remove(index);
+        Task task = tasks.remove(index);
+        if (snapshot != null && !isBatching) {
+            snapshot = snapshot.withRemoved(index);
+        }
+        if (sequences != null) {
+            int sequence = sequences.select(index);
+            sequences.remove(sequence);
+            unindexTask(task, sequence);
+            if (++removedSequenceCount > sequences.size() + MAX_EXTRA_REMOVED) {
+                dropIndexes();
+            }
+        }
+        if (descriptions != null) {
+            descriptions.remove(task.getDescription());
+        }
+        if (counts != null) {
+            counts.remove(task);
+        }
+        return task;
     }
 
     /**
@@ -57,109 +160,831 @@ public class TaskList {
      * @return The task at the specified index
      * @throws IndexOutOfBoundsException if index is invalid
      */
-    public Task getTask(int index) {
+    public synchronized Task getTask(int index) {
         assert index >= 0 : "Index should not be negative: " + index;
         assert index < tasks.size() : "Index should be within list size: " + index;
         return tasks.get(index);
     }
 
+    /**
+     * Marks the task at the specified index as done.
+     *
+     * @param index The index of the task (0-based)
+     * @return The marked task
+     */
+    public synchronized Task markTask(int index) {
+        Task task = getTask(index).copy();
+        boolean wasDone = task.isDone();
+        task.markAsDone();
+        if (counts != null) {
+            counts.updateDone(wasDone, true);
+        }
+        replaceTask(index, task);
+        return task;
+    }
+
+    /**
+     * Marks the task at the specified index as not done.
+     *
+     * @param index The index of the task (0-based)
+     * @return The unmarked task
+     */
+    public synchronized Task unmarkTask(int index) {
+        Task task = getTask(index).copy();
+        boolean wasDone = task.isDone();
+        task.markAsNotDone();
+        if (counts != null) {
+            counts.updateDone(wasDone, false);
+        }
+        replaceTask(index, task);
+        return task;
+    }
+
+    /**
+     * Marks every task at the given positions as done, in one pass.
+     * Readers see either none of the changes or all of them.
+     *
+     * @param positions The positions of the tasks (0-based), all within the list
+     * @return The number of tasks marked
+     */
+    public synchronized int markTasks(BitSet positions) {
+        return applyToEach(positions, this::markTask);
+    }
+
+    /**
+     * Marks every task at the given positions as not done, in one pass.
+     * Readers see either none of the changes or all of them.
+     *
+     * @param positions The positions of the tasks (0-based), all within the list
+     * @return The number of tasks unmarked
+     */
+    public synchronized int unmarkTasks(BitSet positions) {
+        return applyToEach(positions, this::unmarkTask);
+    }
+
+    /**
+     * Deletes every task at the given positions, in one pass.
+     * The tasks are deleted from the last to the first, so each deletion only shifts
+     * the tasks after it within one chunk, and no position needs adjusting.
+     * Readers see either none of the deletions or all of them.
+     *
+     * @param positions The positions of the tasks (0-based) before any is deleted
+     * @return The number of tasks deleted
+     */
+    public synchronized int deleteTasks(BitSet positions) {
+        assert positions.length() <= tasks.size() : "Positions should be within list size";
+        isBatching = true;
+        int count = 0;
+        try {
+            for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+                deleteTask(i);
+                count++;
+            }
+        } finally {
+            finishBatch();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the positions of the tasks with the given status.
+     *
+     * @param isDone Whether to find the done tasks or the pending ones
+     * @return The positions (0-based) of the matching tasks
+     */
+    public synchronized BitSet findPositionsByStatus(boolean isDone) {
+        BitSet positions = new BitSet(tasks.size());
+        int index = 0;
+        for (Task task : tasks) {
+            if (task.isDone() == isDone) {
+                positions.set(index);
+            }
+            index++;
+        }
+        return positions;
+    }
+
+    private int applyToEach(BitSet positions, IntFunction<Task> change) {
+        assert positions.length() <= tasks.size() : "Positions should be within list size";
+        isBatching = true;
+        int count = 0;
+        try {
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                change.apply(i);
+                count++;
+            }
+        } finally {
+            finishBatch();
+        }
+        return count;
+    }
+
+    /**
+     * Ends a bulk change by publishing one snapshot of the result, if snapshots are kept.
+     */
+    private void finishBatch() {
+        isBatching = false;
+        if (snapshot != null) {
+            snapshot = SnapshotList.of(tasks);
+        }
+    }
+
+    /**
+     * Puts a changed copy of a task in place of the original, which snapshots may still hold.
+     * Writing the task back also lets a lazily loaded list keep the change.
+     */
+    private void replaceTask(int index, Task task) {
+        tasks.set(index, task);
+        if (snapshot != null && !isBatching) {
+            snapshot = snapshot.withSet(index, task);
+        }
+        if (attributes != null) {
+            attributes.updateDone(sequences.select(index), task.isDone());
+        }
+    }
+
     /**
      * Returns the number of tasks in the list.
      *
      * @return The size of the task list
      */
-    public int getSize() {
+    public synchronized int getSize() {
         return tasks.size();
     }
 
     /**
-     * Finds tasks whose descriptions contain the given keyword using streams.
+     * Finds tasks whose descriptions contain the given keyword, ignoring case.
+     * Only the tasks the indexes cannot rule out are checked.
      *
      * @param keyword The keyword to search for
      * @return A formatted string of matching tasks
      */
-    public String findTasks(String keyword) {
+    public synchronized String findTasks(String keyword) {
+        return findTasks(keyword, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the first tasks in list order whose descriptions contain the given keyword,
+     * ignoring case. The search stops as soon as it has enough, so with a common keyword
+     * the time taken depends on the limit rather than on the length of the list.
+     *
+     * @param keyword The keyword to search for
+     * @param limit The most matches to return
+     * @return A formatted string of matching tasks, noting if more tasks match
+     */
+    public synchronized String findTasks(String keyword, int limit) {
         assert keyword != null : "Keyword should not be null";
+        assert limit > 0 : "Limit should be positive";
 
+        String query = keyword.toLowerCase();
         StringBuilder sb = new StringBuilder();
         sb.append("Here are the matching tasks in your list:\n");
+        // One match past the limit tells whether the search really stopped early
+        List<Task> matches = findMatches(query, limit == Integer.MAX_VALUE ? limit : limit + 1);
+        int shownCount = Math.min(matches.size(), limit);
+        for (int i = 0; i < shownCount; i++) {
+            sb.append(i + 1).append(".").append(matches.get(i)).append("\n");
+        }
 
-        long matchCount = tasks.stream()
-                .filter(task -> task.getDescription().toLowerCase()
-                        .contains(keyword.toLowerCase()))
-                .count();
-
-        if (matchCount == 0) {
+        if (shownCount == 0) {
             return "No matching tasks found.";
         }
+        if (matches.size() > limit) {
+            appendMoreMatchesNote(sb, limit);
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Notes that a limited find showed only its first matches and more tasks match.
+     */
+    private static void appendMoreMatchesNote(StringBuilder sb, int shownCount) {
+        sb.append("Stopped after ").append(shownCount).append(" match(es). There are more.");
+    }
+
+    /**
+     * Finds tasks with words close to every word of the term, even if misspelt.
+     * A task's distance is the sum, over the term's words, of the fewest edits between
+     * each and the closest word of the task. The words within reach are found through
+     * the word index's {@link vinux.index.BkTree}, so only their tasks are looked at.
+     *
+     * @param term The term to search for, ignoring case
+     * @param maxDistance The most edits allowed per word of the term
+     * @return A formatted string of matching tasks, closest first and then in list order
+     */
+    public synchronized String findSimilarTasks(String term, int maxDistance) {
+        return findSimilarTasks(term, maxDistance, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the tasks closest to the term, as {@link #findSimilarTasks(String, int)} does,
+     * but keeps only the best ones in a bounded heap instead of sorting every match.
+     *
+     * @param term The term to search for, ignoring case
+     * @param maxDistance The most edits allowed per word of the term
+     * @param limit The most matches to return
+     * @return A formatted string of matching tasks, closest first and then in list order
+     */
+    public synchronized String findSimilarTasks(String term, int maxDistance, int limit) {
+        assert term != null : "Term should not be null";
+        assert maxDistance >= 0 : "Distance should not be negative";
+        assert limit > 0 : "Limit should be positive";
+        ensureTextIndexed();
+
+        Map<Integer, Integer> distances = null;
+        for (String word : InvertedIndex.tokenize(term.toLowerCase())) {
+            Map<Integer, Integer> wordDistances = new HashMap<>();
+            wordIndex.forEachSimilar(word, maxDistance, (postings, distance) -> {
+                for (int i = 0; i < postings.size(); i++) {
+                    wordDistances.merge(postings.get(i), distance, Math::min);
+                }
+            });
+            if (distances == null) {
+                distances = wordDistances;
+            } else {
+                distances.keySet().retainAll(wordDistances.keySet());
+                distances.replaceAll((sequence, distance) -> distance + wordDistances.get(sequence));
+            }
+        }
+
+        // Each match is {distance, list position}; the heap's head is the worst match kept
+        Comparator<int[]> closestFirst = Comparator.<int[]>comparingInt(match -> match[0])
+                .thenComparingInt(match -> match[1]);
+        PriorityQueue<int[]> best = new PriorityQueue<>(closestFirst.reversed());
+        if (distances != null) {
+            for (Map.Entry<Integer, Integer> entry : distances.entrySet()) {
+                if (sequences.isLive(entry.getKey())) {
+                    best.add(new int[] {entry.getValue(), sequences.rank(entry.getKey())});
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        if (best.isEmpty()) {
+            return "No tasks even close to that. Check your spelling?";
+        }
+        List<int[]> ranked = new ArrayList<>(best);
+        ranked.sort(closestFirst);
+        StringBuilder sb = new StringBuilder("Here are the closest matches in your list:\n");
+        for (int i = 0; i < ranked.size(); i++) {
+            sb.append(i + 1).append(".").append(tasks.get(ranked.get(i)[1])).append("\n");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Finds the tasks a compiled query matches, numbered as in the list.
+     * The query runs as bitset operations over the kept type and status bitsets, the
+     * deadline index and the text indexes, so no task is checked one by one unless a
+     * word in the query has to be looked for in its description.
+     *
+     * @param query The compiled query
+     * @param limit The most matches to show
+     * @return A formatted string of the first matching tasks in list order, noting if more tasks match
+     */
+    public synchronized String findTasks(TaskQuery query, int limit) {
+        assert query != null : "Query should not be null";
+        assert limit > 0 : "Limit should be positive";
+        ensureAttributesIndexed();
+
+        BitSet found = query.evaluate(new QuerySource());
+        if (found.isEmpty()) {
+            return "No tasks match that query.";
+        }
+        StringBuilder sb = new StringBuilder("Here are the tasks matching that query:\n");
+        int shownCount = 0;
+        for (int sequence = found.nextSetBit(0); sequence >= 0 && shownCount < limit;
+                sequence = found.nextSetBit(sequence + 1)) {
+            appendNumbered(sb, sequence);
+            shownCount++;
+        }
+        if (shownCount < found.cardinality()) {
+            appendMoreMatchesNote(sb, shownCount);
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Answers a query's requests for tasks from the list's indexes. Only used under the list's lock.
+     */
+    private class QuerySource implements TaskQuery.Source {
+        @Override
+        public BitSet getAll() {
+            return attributes.getAll();
+        }
+
+        @Override
+        public BitSet getType(char typeIcon) {
+            return attributes.getType(typeIcon);
+        }
+
+        @Override
+        public BitSet getDone() {
+            return attributes.getDone();
+        }
+
+        @Override
+        public BitSet findDue(LocalDate from, LocalDate to) {
+            ensureDeadlinesIndexed();
+            BitSet due = new BitSet();
+            deadlineIndex.forEachDue(from, to, due::set);
+            return due;
+        }
+
+        @Override
+        public BitSet findContaining(String text, BitSet within) {
+            ensureTextIndexed();
+            BitSet found = new BitSet();
+            // Every task in within is live, so stale index entries fall out with the rest
+            IntPredicate check = sequence -> {
+                if (within.get(sequence) && tasks.get(sequences.rank(sequence)).getDescription()
+                        .toLowerCase().contains(text)) {
+                    found.set(sequence);
+                }
+                return true;
+            };
+            if (trigramIndex.forEachCandidate(text, check)) {
+                return found;
+            }
+            PostingList candidates = wordIndex.candidates(text);
+            if (candidates != null) {
+                for (int i = 0; i < candidates.size(); i++) {
+                    check.test(candidates.get(i));
+                }
+                return found;
+            }
+            for (int sequence = within.nextSetBit(0); sequence >= 0; sequence = within.nextSetBit(sequence + 1)) {
+                check.test(sequence);
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Returns the first tasks, up to the limit, whose lowercased descriptions contain
+     * the query, in list order. Trigram candidates are produced one at a time, so the
+     * search stops once the limit is reached without intersecting the lists in full.
+     */
+    private List<Task> findMatches(String query, int limit) {
+        ensureTextIndexed();
+        List<Task> matches = new ArrayList<>();
+        IntPredicate check = sequence -> {
+            // A deleted task may still be in the indexes
+            if (sequences.isLive(sequence)) {
+                Task task = tasks.get(sequences.rank(sequence));
+                if (task.getDescription().toLowerCase().contains(query)) {
+                    matches.add(task);
+                }
+            }
+            return matches.size() < limit;
+        };
+        if (trigramIndex.forEachCandidate(query, check)) {
+            return matches;
+        }
+
+        PostingList candidates = wordIndex.candidates(query);
+        if (candidates != null) {
+            int i = 0;
+            while (i < candidates.size() && check.test(candidates.get(i))) {
+                i++;
+            }
+            return matches;
+        }
+        for (int i = 0; i < tasks.size() && matches.size() < limit; i++) {
+            Task task = tasks.get(i);
+            if (task.getDescription().toLowerCase().contains(query)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the deadlines due in the given period, both ends included.
+     * Only the matching deadlines are visited, in order of due date.
+     *
+     * @param from The first day of the period
+     * @param to The last day of the period
+     * @return A formatted string of the deadlines, numbered as in the list
+     */
+    public synchronized String findDueTasks(LocalDate from, LocalDate to) {
+        assert !to.isBefore(from) : "Period should not end before it starts";
+        String result = formatDue(from, to, false);
+        return result.isEmpty()
+                ? "Nothing is due in that period. Enjoy it while it lasts."
+                : "Here are the deadlines due in that period:\n" + result;
+    }
 
-        // Build numbered list of matching tasks using streams
-        int[] index = {1};
-        tasks.stream()
-                .filter(task -> task.getDescription().toLowerCase()
-                        .contains(keyword.toLowerCase()))
-                .forEach(task -> {
-                    sb.append(index[0]).append(".").append(task).append("\n");
-                    index[0]++;
-                });
+    /**
+     * Finds the deadlines not yet done that were due before the given day.
+     *
+     * @param today The current day
+     * @return A formatted string of the deadlines, numbered as in the list
+     */
+    public synchronized String findOverdueTasks(LocalDate today) {
+        String result = formatDue(LocalDate.MIN, today.minusDays(1), true);
+        return result.isEmpty()
+                ? "Nothing is overdue. I'm almost impressed."
+                : "These are overdue. Just saying:\n" + result;
+    }
 
+    /**
+     * Lists the deadlines due in the period, one per line with their list numbers.
+     */
+    private String formatDue(LocalDate from, LocalDate to, boolean isPendingOnly) {
+        ensureDeadlinesIndexed();
+        StringBuilder sb = new StringBuilder();
+        deadlineIndex.forEachDue(from, to, sequence -> {
+            int index = sequences.rank(sequence);
+            Task task = tasks.get(index);
+            if (!isPendingOnly || !task.isDone()) {
+                sb.append(index + 1).append(".").append(task).append("\n");
+            }
+        });
         return sb.toString().trim();
     }
 
+    /**
+     * Finds the events whose structured periods overlap the given period.
+     *
+     * @param from The start of the period
+     * @param to The end of the period, after its start
+     * @return A formatted string of the events by start time, numbered as in the list
+     */
+    public synchronized String findBusyTasks(LocalDateTime from, LocalDateTime to) {
+        assert to.isAfter(from) : "Period should end after it starts";
+        ensureEventsIndexed();
+        StringBuilder sb = new StringBuilder();
+        eventIndex.forEachOverlapping(from, to, sequence -> appendNumbered(sb, sequence));
+        if (sb.length() == 0) {
+            return "You're free the whole time. Suspicious.";
+        }
+        return ("Here are the events in that period:\n" + sb).trim();
+    }
+
+    /**
+     * Finds the parts of the given period that no structured event overlaps.
+     *
+     * @param from The start of the period
+     * @param to The end of the period, after its start
+     * @return A formatted string of the free slots in order
+     */
+    public synchronized String findFreeSlots(LocalDateTime from, LocalDateTime to) {
+        assert to.isAfter(from) : "Period should end after it starts";
+        ensureEventsIndexed();
+        StringBuilder sb = new StringBuilder();
+        // Events come by start time, so each gap lies between the furthest end so far and the next start
+        LocalDateTime[] freeFrom = {from};
+        eventIndex.forEachOverlapping(from, to, sequence -> {
+            Event event = (Event) tasks.get(sequences.rank(sequence));
+            if (event.getStart().isAfter(freeFrom[0])) {
+                appendSlot(sb, freeFrom[0], event.getStart());
+            }
+            if (event.getEnd().isAfter(freeFrom[0])) {
+                freeFrom[0] = event.getEnd();
+            }
+        });
+        if (freeFrom[0].isBefore(to)) {
+            appendSlot(sb, freeFrom[0], to);
+        }
+        if (sb.length() == 0) {
+            return "Not a single minute free then. Good luck.";
+        }
+        return ("You're free at these times:\n" + sb).stripTrailing();
+    }
+
+    /**
+     * Finds every pair of events whose structured periods overlap.
+     *
+     * @return A formatted string of the clashing pairs, numbered as in the list
+     */
+    public synchronized String findConflicts() {
+        ensureEventsIndexed();
+        StringBuilder sb = new StringBuilder();
+        eventIndex.forEachClash((first, second) -> {
+            appendNumbered(sb, first);
+            sb.append("  clashes with ");
+            appendNumbered(sb, second);
+        });
+        if (sb.length() == 0) {
+            return "No clashes. Your schedule actually makes sense.";
+        }
+        return ("These events clash:\n" + sb).trim();
+    }
+
+    /**
+     * Returns the events in the list that overlap the given event, without checking
+     * events that cannot.
+     *
+     * @param event The event to check, usually one about to be added
+     * @return The overlapping events by start time, empty if the event has no structured period
+     */
+    public synchronized List<Task> getClashes(Event event) {
+        List<Task> clashes = new ArrayList<>();
+        if (!event.hasPeriod()) {
+            return clashes;
+        }
+        ensureEventsIndexed();
+        eventIndex.forEachOverlapping(event.getStart(), event.getEnd(),
+                sequence -> clashes.add(tasks.get(sequences.rank(sequence))));
+        return clashes;
+    }
+
+    private void appendNumbered(StringBuilder sb, int sequence) {
+        int index = sequences.rank(sequence);
+        sb.append(index + 1).append(".").append(tasks.get(index)).append("\n");
+    }
+
+    private void appendSlot(StringBuilder sb, LocalDateTime from, LocalDateTime to) {
+        sb.append("  ").append(from.format(SLOT_FORMAT)).append(" to ").append(to.format(SLOT_FORMAT)).append("\n");
+    }
+
+    /**
+     * Gives every task a sequence number if that has not been done yet.
+     */
+    private void ensureSequenced() {
+        if (sequences != null) {
+            return;
+        }
+        sequences = new RankedSlots(tasks.size());
+    }
+
+    /**
+     * Builds the word and trigram indexes from the current tasks if they have not been built yet.
+     */
+    private void ensureTextIndexed() {
+        if (wordIndex != null) {
+            return;
+        }
+        ensureSequenced();
+        wordIndex = new InvertedIndex();
+        trigramIndex = new TrigramIndex();
+        int position = 0;
+        for (Task task : tasks) {
+            String description = task.getDescription().toLowerCase();
+            int sequence = sequences.select(position++);
+            wordIndex.add(sequence, description);
+            trigramIndex.add(sequence, description);
+        }
+    }
+
+    /**
+     * Builds the deadline index from the current tasks if it has not been built yet.
+     */
+    private void ensureDeadlinesIndexed() {
+        if (deadlineIndex != null) {
+            return;
+        }
+        ensureSequenced();
+        deadlineIndex = new DeadlineIndex();
+        int position = 0;
+        for (Task task : tasks) {
+            int sequence = sequences.select(position++);
+            if (task instanceof Deadline deadline) {
+                deadlineIndex.add(sequence, deadline.getBy());
+            }
+        }
+    }
+
+    /**
+     * Builds the type and status bitsets from the current tasks if they have not been built yet.
+     */
+    private void ensureAttributesIndexed() {
+        if (attributes != null) {
+            return;
+        }
+        ensureSequenced();
+        attributes = new TaskAttributes();
+        int position = 0;
+        for (Task task : tasks) {
+            attributes.add(sequences.select(position++), task);
+        }
+    }
+
+    /**
+     * Builds the event index from the current tasks if it has not been built yet.
+     */
+    private void ensureEventsIndexed() {
+        if (eventIndex != null) {
+            return;
+        }
+        ensureSequenced();
+        eventIndex = new IntervalTree();
+        int position = 0;
+        for (Task task : tasks) {
+            int sequence = sequences.select(position++);
+            if (task instanceof Event event && event.hasPeriod()) {
+                eventIndex.add(event.getStart(), event.getEnd(), sequence);
+            }
+        }
+    }
+
+    /**
+     * Adds a task to every index built so far.
+     */
+    private void indexTask(Task task, int sequence) {
+        if (wordIndex != null) {
+            String description = task.getDescription().toLowerCase();
+            wordIndex.add(sequence, description);
+            trigramIndex.add(sequence, description);
+        }
+        if (deadlineIndex != null && task instanceof Deadline deadline) {
+            deadlineIndex.add(sequence, deadline.getBy());
+        }
+        if (eventIndex != null && task instanceof Event event && event.hasPeriod()) {
+            eventIndex.add(event.getStart(), event.getEnd(), sequence);
+        }
+        if (attributes != null) {
+            attributes.add(sequence, task);
+        }
+    }
+
+    /**
+     * Removes a deleted task from the date indexes and bitsets built so far. The word and trigram
+     * indexes keep it, since removing it from a long posting list would shift the list.
+     */
+    private void unindexTask(Task task, int sequence) {
+        if (deadlineIndex != null && task instanceof Deadline deadline) {
+            deadlineIndex.remove(sequence, deadline.getBy());
+        }
+        if (eventIndex != null && task instanceof Event event && event.hasPeriod()) {
+            eventIndex.remove(event.getStart(), sequence);
+        }
+        if (attributes != null) {
+            attributes.remove(sequence);
+        }
+    }
+
+    /**
+     * Drops every index and sequence number, to be built again from the live tasks on next use.
+     */
+    private void dropIndexes() {
+        sequences = null;
+        removedSequenceCount = 0;
+        wordIndex = null;
+        trigramIndex = null;
+        deadlineIndex = null;
+        eventIndex = null;
+        attributes = null;
+    }
+
     /**
      * Clears all tasks from the list
      */
-    public void clearTasks () {
+    public synchronized void clearTasks() {
         tasks.clear();
+        if (snapshot != null) {
+            snapshot = SnapshotList.empty();
+        }
+        if (sequences != null) {
+            sequences.clear();
+            removedSequenceCount = 0;
+        }
+        if (wordIndex != null) {
+            wordIndex.clear();
+            trigramIndex.clear();
+        }
+        if (deadlineIndex != null) {
+            deadlineIndex.clear();
+        }
+        if (eventIndex != null) {
+            eventIndex.clear();
+        }
+        if (attributes != null) {
+            attributes.clear();
+        }
+        if (descriptions != null) {
+            descriptions.clear();
+        }
+        if (counts != null) {
+            counts.clear();
+        }
     }
 
 
     /**
-     * Returns all tasks as an unmodifiable list using streams.
+     * Returns a read-only view of the tasks, which follows later changes to the list.
+     * Nothing is copied, so the view must only be used on the thread that changes the list.
      *
-     * @return The list of all tasks
+     * @return The tasks, in list order
      */
-    public ArrayList<Task> getAllTasks() {
-        return tasks.stream().collect(java.util.stream.Collectors.toCollection(ArrayList::new));
+    public List<Task> getTasksView() {
+        return Collections.unmodifiableList(tasks);
     }
 
     /**
-     * Returns a summary of tasks by type using streams.
+     * Calls the action on every task in list order, with its index (0-based).
+     * The tasks come from a {@link #getSnapshot() snapshot}, so the traversal holds no
+     * lock and sees the list as it was when it started, whatever changes meanwhile.
      *
-     * @return A formatted string showing task type counts
+     * @param action The action to call for each task
      */
-    public String getTaskSummary() {
-        long todoCount = tasks.stream()
-                .filter(task -> task.getTypeIcon().equals("T"))
-                .count();
+    public void forEachTask(ObjIntConsumer<Task> action) {
+        int index = 0;
+        for (Task task : getSnapshot()) {
+            action.accept(task, index++);
+        }
+    }
+
+    /**
+     * Returns at most {@code count} tasks in list order, starting at the given position.
+     * Only those tasks are read, so a page costs the same however long the list is.
+     * Once snapshots are kept, the page comes from the latest one without locking.
+     *
+     * @param from The position (0-based) of the first task
+     * @param count The most tasks to return
+     * @return A new list of the tasks on the page, empty if the list ends before {@code from}
+     */
+    public List<Task> getPage(int from, int count) {
+        assert from >= 0 && count >= 0 : "Page should not start or end before the list";
+        SnapshotList<Task> current = snapshot;
+        if (current != null) {
+            return copyPage(current, from, count);
+        }
+        synchronized (this) {
+            return copyPage(tasks, from, count);
+        }
+    }
 
-        long deadlineCount = tasks.stream()
-                .filter(task -> task.getTypeIcon().equals("D"))
-                .count();
+    private static List<Task> copyPage(List<Task> source, int from, int count) {
+        int to = (int) Math.min(source.size(), (long) from + count);
+        return from >= to ? new ArrayList<>() : new ArrayList<>(source.subList(from, to));
+    }
 
-        long eventCount = tasks.stream()
-                .filter(task -> task.getTypeIcon().equals("E"))
-                .count();
+    /**
+     * Returns the tasks as they are now, in an immutable list that later changes do not affect.
+     * Safe to call from any thread while the list is being changed.
+     *
+     * <p>A list held in memory takes its first snapshot under the lock and, from then on,
+     * returns the latest one without locking. A lazily loaded or columnar list would be
+     * pinned in memory by a kept snapshot, so each call takes a new one under the lock
+     * instead, without building every task: a lazily loaded list
+     * {@link PagedTaskList#freeze() freezes} its changes and leaves its file tasks to be read
+     * from the file as the snapshot is read, and a columnar list
+     * {@link ColumnarTaskList#freeze() freezes} by sharing its columns.</p>
+     *
+     * @return The tasks, in list order
+     */
+    public List<Task> getSnapshot() {
+        SnapshotList<Task> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            if (tasks instanceof PagedTaskList pagedTasks) {
+                return pagedTasks.freeze();
+            }
+            if (tasks instanceof ColumnarTaskList columnarTasks) {
+                return columnarTasks.freeze();
+            }
+            SnapshotList<Task> copy = SnapshotList.of(tasks);
+            if (tasks instanceof ChunkedList) {
+                snapshot = copy;
+            }
+            return copy;
+        }
+    }
 
-        long doneCount = tasks.stream()
-                .filter(Task::isDone)
-                .count();
+    /**
+     * Returns a summary of tasks by type and completion.
+     * The tasks are counted on the first summary, so later summaries take constant time.
+     *
+     * @return A formatted string showing task type counts
+     */
+    public synchronized String getTaskSummary() {
+        if (counts == null) {
+            counts = new TaskCounts();
+            for (Task task : tasks) {
+                counts.add(task);
+            }
+        }
+        assert counts.getTotal() == tasks.size() : "Counts should cover every task";
 
         return "Task summary:\n"
-                + "  Todos: " + todoCount + "\n"
-                + "  Deadlines: " + deadlineCount + "\n"
-                + "  Events: " + eventCount + "\n"
-                + "  Completed: " + doneCount + "/" + tasks.size();
+                + "  Todos: " + counts.getTodoCount() + "\n"
+                + "  Deadlines: " + counts.getDeadlineCount() + "\n"
+                + "  Events: " + counts.getEventCount() + "\n"
+                + "  Completed: " + counts.getDoneCount() + "/" + counts.getTotal();
     }
 
     /**
-     * Checks if a task with the same description already exists.
+     * Checks if a task with the same description already exists, ignoring case.
+     * The descriptions are counted on the first check, so later checks take constant time.
      *
      * @param newTask The task to check
      * @return true if a duplicate exists, false otherwise
      */
-    public boolean hasDuplicate(Task newTask) {
-        return tasks.stream()
-                .anyMatch(task -> task.getDescription().equalsIgnoreCase(newTask.getDescription()));
+    public synchronized boolean hasDuplicate(Task newTask) {
+        if (descriptions == null) {
+            descriptions = new DescriptionMultiset();
+            for (Task task : tasks) {
+                descriptions.add(task.getDescription());
+            }
+        }
+        return descriptions.contains(newTask.getDescription());
     }
 }
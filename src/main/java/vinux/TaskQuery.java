@@ -0,0 +1,530 @@
+package vinux;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A find query over the words and attributes of tasks, compiled into a plan of
+ * bitset operations.
+ *
+ * <p>Terms are combined with AND, OR, NOT and brackets. NOT binds tightest, then AND,
+ * then OR, and terms side by side are ANDed. A term is one of:</p>
+ * <ul>
+ * <li>a word or a "quoted phrase", for descriptions that contain it, ignoring case;</li>
+ * <li>{@code type:T}, {@code type:D} or {@code type:E}, also spelt out as todo, deadline or event;</li>
+ * <li>{@code done} or {@code pending}, also written {@code is:done} and {@code is:pending};</li>
+ * <li>{@code before:<date>}, {@code after:<date>} or {@code on:<date>}, for deadlines by due date.</li>
+ * </ul>
+ * <p>A field whose value cannot be read, such as {@code on:monday}, is searched for as a word.</p>
+ *
+ * <p>Each step of the plan takes the tasks still in the running, as a bitset of sequence
+ * numbers, and returns those that pass it. A type or status term is one AND with a kept
+ * bitset and a date term one range search, whereas a word has to be looked up and checked
+ * in the descriptions. So the terms of an AND run cheapest first, with its date terms
+ * merged into one range, and a word is only checked for the tasks the cheaper terms let
+ * through. Likewise NOT only checks the tasks it is given, and each branch of an OR only
+ * the tasks the earlier branches did not match.</p>
+ */
+public class TaskQuery {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final Set<String> OPERATORS = Set.of("AND", "OR", "NOT");
+    private static final Pattern FIELD = Pattern.compile("(?i)(type|is|before|after|on):\\S+");
+    /** A word that opens a bracket or a quoted phrase. */
+    private static final Pattern GROUPING = Pattern.compile("(?:^|\\s)[(\"]");
+
+    // How costly each kind of step is, for ordering the steps of an AND
+    private static final int ATTRIBUTE_COST = 0;
+    private static final int DATE_COST = 1;
+    private static final int TEXT_COST = 2;
+    private static final int BRANCH_COST = 3;
+
+    /**
+     * Where a query gets the tasks with each attribute, as bitsets of sequence numbers
+     * in list order.
+     */
+    public interface Source {
+        /**
+         * Returns every task in the list.
+         *
+         * @return The tasks, not to be changed
+         */
+        BitSet getAll();
+
+        /**
+         * Returns the tasks of one type.
+         *
+         * @param typeIcon The type, as shown in the list: T, D or E
+         * @return The tasks, not to be changed
+         */
+        BitSet getType(char typeIcon);
+
+        /**
+         * Returns the tasks that are done.
+         *
+         * @return The tasks, not to be changed
+         */
+        BitSet getDone();
+
+        /**
+         * Finds the deadlines due in the period, both ends included.
+         *
+         * @param from The first day of the period
+         * @param to The last day of the period, not before {@code from}
+         * @return A new bitset of the deadlines
+         */
+        BitSet findDue(LocalDate from, LocalDate to);
+
+        /**
+         * Finds the tasks among the given ones whose lowercased descriptions contain the text.
+         *
+         * @param text The lowercased text to look for
+         * @param within The tasks to check
+         * @return A new bitset of the matching tasks
+         */
+        BitSet findContaining(String text, BitSet within);
+    }
+
+    /**
+     * One step of a plan. A step never changes the bitset it is given.
+     */
+    private abstract static class Step {
+        /**
+         * Returns a new bitset of the tasks among {@code within} that pass this step.
+         */
+        abstract BitSet apply(Source source, BitSet within);
+
+        abstract int cost();
+    }
+
+    private static class TypeStep extends Step {
+        private final char typeIcon;
+
+        private TypeStep(char typeIcon) {
+            this.typeIcon = typeIcon;
+        }
+
+        @Override
+        BitSet apply(Source source, BitSet within) {
+            BitSet result = (BitSet) within.clone();
+            result.and(source.getType(typeIcon));
+            return result;
+        }
+
+        @Override
+        int cost() {
+            return ATTRIBUTE_COST;
+        }
+    }
+
+    private static class StatusStep extends Step {
+        private final boolean isDone;
+
+        private StatusStep(boolean isDone) {
+            this.isDone = isDone;
+        }
+
+        @Override
+        BitSet apply(Source source, BitSet within) {
+            BitSet result = (BitSet) within.clone();
+            if (isDone) {
+                result.and(source.getDone());
+            } else {
+                result.andNot(source.getDone());
+            }
+            return result;
+        }
+
+        @Override
+        int cost() {
+            return ATTRIBUTE_COST;
+        }
+    }
+
+    private static class DueStep extends Step {
+        private final LocalDate from;
+        private final LocalDate to;
+
+        private DueStep(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        BitSet apply(Source source, BitSet within) {
+            if (to.isBefore(from)) {
+                return new BitSet();
+            }
+            BitSet result = source.findDue(from, to);
+            result.and(within);
+            return result;
+        }
+
+        @Override
+        int cost() {
+            return DATE_COST;
+        }
+    }
+
+    private static class TextStep extends Step {
+        private final String text;
+
+        private TextStep(String text) {
+            this.text = text;
+        }
+
+        @Override
+        BitSet apply(Source source, BitSet within) {
+            return within.isEmpty() ? new BitSet() : source.findContaining(text, within);
+        }
+
+        @Override
+        int cost() {
+            return TEXT_COST;
+        }
+    }
+
+    private static class NotStep extends Step {
+        private final Step negated;
+
+        private NotStep(Step negated) {
+            this.negated = negated;
+        }
+
+        @Override
+        BitSet apply(Source source, BitSet within) {
+            BitSet result = (BitSet) within.clone();
+            result.andNot(negated.apply(source, within));
+            return result;
+        }
+
+        @Override
+        int cost() {
+            return negated.cost();
+        }
+    }
+
+    private static class AndStep extends Step {
+        /** Cheapest first. */
+        private final List<Step> steps;
+
+        private AndStep(List<Step> steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        BitSet apply(Source source, BitSet within) {
+            BitSet result = within;
+            for (Step step : steps) {
+                result = step.apply(source, result);
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        int cost() {
+            return steps.get(steps.size() - 1).cost();
+        }
+    }
+
+    private static class OrStep extends Step {
+        private final List<Step> branches;
+
+        private OrStep(List<Step> branches) {
+            this.branches = branches;
+        }
+
+        @Override
+        BitSet apply(Source source, BitSet within) {
+            BitSet result = new BitSet();
+            BitSet unmatched = (BitSet) within.clone();
+            for (Step branch : branches) {
+                BitSet matched = branch.apply(source, unmatched);
+                result.or(matched);
+                unmatched.andNot(matched);
+                if (unmatched.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        int cost() {
+            return BRANCH_COST;
+        }
+    }
+
+    private final Step plan;
+
+    private TaskQuery(Step plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Checks whether the text of a find command is a query rather than a plain keyword,
+     * that is, whether it has an operator, a field with a valid value such as {@code type:D},
+     * or a word that opens a bracket or a quoted phrase.
+     *
+     * @param text The text to check
+     * @return true if the text should be compiled as a query
+     */
+    public static boolean isQuery(String text) {
+        if (GROUPING.matcher(text).find()) {
+            return true;
+        }
+        for (String word : text.split("[\\s()]+")) {
+            if (OPERATORS.contains(word) || Compiler.parseField(word) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiles a query into a plan.
+     *
+     * @param text The query, such as {@code report AND NOT done}
+     * @return The compiled query
+     * @throws VinuxException if the query is malformed
+     */
+    public static TaskQuery compile(String text) throws VinuxException {
+        assert text != null : "Query should not be null";
+        Compiler compiler = new Compiler(tokenize(text));
+        Step plan = compiler.parseOr();
+        if (compiler.hasNext()) {
+            // parseOr only stops early at a bracket it did not open
+            throw new VinuxException("That ')' doesn't close anything.");
+        }
+        return new TaskQuery(plan);
+    }
+
+    /**
+     * Finds the tasks the query matches.
+     *
+     * @param source The tasks and their attributes
+     * @return A new bitset of the sequence numbers of the matching tasks
+     */
+    public BitSet evaluate(Source source) {
+        return plan.apply(source, source.getAll());
+    }
+
+    /**
+     * Splits a query into words, quoted phrases (kept with their quotes) and brackets.
+     */
+    private static List<String> tokenize(String text) throws VinuxException {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new VinuxException("You opened a quote and never closed it.");
+                }
+                tokens.add(text.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i))
+                        && "()\"".indexOf(text.charAt(i)) < 0) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Turns the tokens of a query into a plan by recursive descent.
+     */
+    private static class Compiler {
+        private final List<String> tokens;
+        private int position;
+
+        private Compiler(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private boolean hasNext() {
+            return position < tokens.size();
+        }
+
+        private boolean isNext(String token) {
+            return hasNext() && tokens.get(position).equals(token);
+        }
+
+        private Step parseOr() throws VinuxException {
+            List<Step> branches = new ArrayList<>();
+            branches.add(parseAnd());
+            while (isNext("OR")) {
+                position++;
+                branches.add(parseAnd());
+            }
+            return branches.size() == 1 ? branches.get(0) : new OrStep(branches);
+        }
+
+        private Step parseAnd() throws VinuxException {
+            List<Step> steps = new ArrayList<>();
+            steps.add(parseNot());
+            while (hasNext() && !isNext("OR") && !isNext(")")) {
+                if (isNext("AND")) {
+                    position++;
+                }
+                steps.add(parseNot());
+            }
+            return steps.size() == 1 ? steps.get(0) : and(steps);
+        }
+
+        private Step parseNot() throws VinuxException {
+            if (!hasNext()) {
+                String last = position == 0 ? "find" : tokens.get(position - 1);
+                throw new VinuxException("That query stops short. What comes after " + last + "?");
+            }
+            String token = tokens.get(position++);
+            switch (token) {
+            case "NOT":
+                return not(parseNot());
+            case "(":
+                Step inner = parseOr();
+                if (!isNext(")")) {
+                    throw new VinuxException("You opened a bracket and never closed it.");
+                }
+                position++;
+                return inner;
+            case ")":
+            case "AND":
+            case "OR":
+                throw new VinuxException("Huh? There's nothing before that " + token + ".");
+            default:
+                return parseTerm(token);
+            }
+        }
+
+        private static Step parseTerm(String token) throws VinuxException {
+            if (token.startsWith("\"")) {
+                String phrase = token.substring(1, token.length() - 1).trim();
+                if (phrase.isEmpty()) {
+                    throw new VinuxException("Empty quotes? Put what you're looking for inside them.");
+                }
+                return new TextStep(phrase.toLowerCase());
+            }
+
+            String lowered = token.toLowerCase();
+            if (lowered.equals("done") || lowered.equals("pending")) {
+                return new StatusStep(lowered.equals("done"));
+            }
+            Step field = parseField(token);
+            return field == null ? new TextStep(lowered) : field;
+        }
+
+        /**
+         * Returns the step for a field such as {@code type:D}, or null if the token is not
+         * a field or its value cannot be read, so that it is searched for as a word instead.
+         */
+        private static Step parseField(String token) {
+            if (!FIELD.matcher(token).matches()) {
+                return null;
+            }
+            String lowered = token.toLowerCase();
+            int colon = lowered.indexOf(':');
+            String value = lowered.substring(colon + 1);
+            switch (lowered.substring(0, colon)) {
+            case "type":
+                return parseType(value);
+            case "is":
+                if (!value.equals("done") && !value.equals("pending")) {
+                    return null;
+                }
+                return new StatusStep(value.equals("done"));
+            case "before":
+                LocalDate before = parseDate(value);
+                return before == null ? null : new DueStep(LocalDate.MIN, before.minusDays(1));
+            case "after":
+                LocalDate after = parseDate(value);
+                return after == null ? null : new DueStep(after.plusDays(1), LocalDate.MAX);
+            default:
+                LocalDate day = parseDate(value);
+                return day == null ? null : new DueStep(day, day);
+            }
+        }
+
+        private static Step parseType(String value) {
+            switch (value) {
+            case "t":
+            case "todo":
+                return new TypeStep('T');
+            case "d":
+            case "deadline":
+                return new TypeStep('D');
+            case "e":
+            case "event":
+                return new TypeStep('E');
+            default:
+                return null;
+            }
+        }
+
+        private static LocalDate parseDate(String value) {
+            try {
+                return LocalDate.parse(value, DATE_FORMAT);
+            } catch (DateTimeParseException parseException) {
+                return null;
+            }
+        }
+
+        /**
+         * Negates a step, cancelling a double negation and flipping a status.
+         */
+        private static Step not(Step step) {
+            if (step instanceof NotStep notStep) {
+                return notStep.negated;
+            }
+            if (step instanceof StatusStep status) {
+                return new StatusStep(!status.isDone);
+            }
+            return new NotStep(step);
+        }
+
+        /**
+         * Joins steps into one AND, flattening nested ANDs, merging the date terms into
+         * one range and putting the cheapest steps first.
+         */
+        private static Step and(List<Step> parts) {
+            List<Step> steps = new ArrayList<>();
+            LocalDate from = null;
+            LocalDate to = null;
+            for (Step part : parts) {
+                List<Step> flattened = part instanceof AndStep andStep ? andStep.steps : List.of(part);
+                for (Step step : flattened) {
+                    if (step instanceof DueStep due) {
+                        from = from == null || due.from.isAfter(from) ? due.from : from;
+                        to = to == null || due.to.isBefore(to) ? due.to : to;
+                    } else {
+                        steps.add(step);
+                    }
+                }
+            }
+            if (from != null) {
+                steps.add(new DueStep(from, to));
+            }
+            steps.sort(Comparator.comparingInt(Step::cost));
+            return steps.size() == 1 ? steps.get(0) : new AndStep(steps);
+        }
+    }
+}
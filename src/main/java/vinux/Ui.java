@@ -1,5 +1,6 @@
 package vinux;
 
+import java.util.List;
 import java.util.Scanner;
 
 import vinux.task.Task;
@@ -11,6 +12,8 @@ import vinux.task.Task;
 public class Ui {
     private static final String LINE = "    ____________________________________________________________";
     private static final String DOUBLE_LINE = "~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~";
+    /** How many tasks are fetched at a time while the list is printed. */
+    private static final int STREAM_PAGE_SIZE = 256;
 
     private Scanner scanner;
 
@@ -93,10 +96,32 @@ public class Ui {
      * @param tasks The TaskList to display
      */
     public void showTaskList(TaskList tasks) {
+        showTaskList(tasks, 0, 0);
+    }
+
+    /**
+     * Displays part of the task list, numbered by list position.
+     * The tasks are fetched and printed a page at a time, so the first rows appear
+     * straight away however long the list is.
+     *
+     * @param tasks The TaskList to display
+     * @param from The position (0-based) of the first task to show
+     * @param count The number of tasks to show, or 0 for every task from {@code from} on
+     */
+    public void showTaskList(TaskList tasks, int from, int count) {
         System.out.println("Why do you have so many things to do?");
         System.out.println("These are your tasks:");
-        for (int i = 0; i < tasks.getSize(); i++) {
-            System.out.println("    " + (i + 1) + "." + tasks.getTask(i));
+        long end = count == 0 ? Long.MAX_VALUE : (long) from + count;
+        int position = from;
+        while (position < end) {
+            List<Task> page = tasks.getPage(position, (int) Math.min(STREAM_PAGE_SIZE, end - position));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Task task : page) {
+                position++;
+                System.out.println("    " + position + "." + task);
+            }
         }
     }
 
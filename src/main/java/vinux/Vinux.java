@@ -1,8 +1,19 @@
 package vinux;
 
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
 
+import vinux.index.ColumnarTaskList;
+import vinux.storage.FileBackend;
+import vinux.storage.StorageBackend;
+import vinux.storage.SyncPolicy;
+import vinux.storage.TaskFileFormat;
+import vinux.storage.WriteBehindSaver;
+import vinux.task.Event;
 import vinux.task.Task;
 
 /**
@@ -11,11 +22,19 @@ import vinux.task.Task;
  * A-MoreOOP: Refactored with OOP design using Task, Storage, Ui, Parser classes.
  */
 public class Vinux {
+    private static final long GROUP_COMMIT_MILLIS = 100;
+    /** Chooses the storage backend at startup, e.g. {@code -Dvinux.storage=mmap}. */
+    private static final String BACKEND_PROPERTY = "vinux.storage";
+    /** Keeps the tasks in compact columns instead of loading them lazily, e.g. {@code -Dvinux.layout=columnar}. */
+    private static final String LAYOUT_PROPERTY = "vinux.layout";
+    private static final String EXPENSES_FILE_NAME = "expenses.txt";
+
     private Storage storage;
     private TaskList tasks;
     private Ui ui;
     private ExpenseList expenses;
     private ExpenseStorage expenseStorage;
+    private WriteBehindSaver saver;
 
     /**
      * Runs the main program loop.
@@ -36,7 +55,7 @@ public class Vinux {
                     isExit = true;
                     break;
                 case "list":
-                    handleList();
+                    handleList(fullCommand);
                     break;
                 case "mark":
                     handleMark(fullCommand);
@@ -59,12 +78,33 @@ public class Vinux {
                 case "find":
                     handleFind(fullCommand);
                     break;
+                case "find~":
+                    ui.showMessage(getFuzzyFindResponse(fullCommand));
+                    break;
                 case "cheer":
                     handleCheer();
                     break;
                 case "clear":
                     handleClear();
                     break;
+                case "stats":
+                    ui.showMessage(tasks.getTaskSummary());
+                    break;
+                case "due":
+                    ui.showMessage(getDueResponse(fullCommand));
+                    break;
+                case "overdue":
+                    ui.showMessage(tasks.findOverdueTasks(LocalDate.now()));
+                    break;
+                case "conflicts":
+                    ui.showMessage(tasks.findConflicts());
+                    break;
+                case "busy":
+                    ui.showMessage(getBusyResponse(fullCommand));
+                    break;
+                case "free":
+                    ui.showMessage(getFreeResponse(fullCommand));
+                    break;
                 default:
                     ui.showError("OOPS!!! I'm sorry, but I don't know what that means...\n"
                             + "Try: todo, deadline, event, list, mark, unmark, delete, or find");
@@ -80,14 +120,23 @@ public class Vinux {
 
         ui.showGoodbye();
         ui.close();
+        shutdown();
     }
 
     /**
      * Handles the list command.
-     * Displays all tasks in the task list.
+     * Displays all tasks in the task list, or the page asked for.
+     *
+     * @param fullCommand The full command string
+     * @throws VinuxException if the page is invalid
      */
-    private void handleList() {
-        ui.showTaskList(tasks);
+    private void handleList(String fullCommand) throws VinuxException {
+        int[] page = Parser.parseListCommand(fullCommand);
+        if (page[0] > 0 && page[0] >= tasks.getSize()) {
+            ui.showMessage(getPastEndMessage());
+            return;
+        }
+        ui.showTaskList(tasks, page[0], page[1]);
     }
 
     /**
@@ -98,6 +147,10 @@ public class Vinux {
      * @throws VinuxException if the task index is invalid
      */
     private void handleMark(String fullCommand) throws VinuxException {
+        if (Parser.isTaskSelection(fullCommand, 5)) {
+            ui.showMessage(getBulkMarkResponse(fullCommand, 5, true));
+            return;
+        }
         int index = Parser.parseTaskIndex(fullCommand, 5);
 
         if (index < 0 || index >= tasks.getSize()) {
@@ -106,10 +159,9 @@ public class Vinux {
                     + "You only have " + tasks.getSize() + " task(s) in the list.");
         }
 
-        Task task = tasks.getTask(index);
-        task.markAsDone();
+        Task task = tasks.markTask(index);
         ui.showTaskMarked(task);
-        storage.saveTasks(tasks);
+        storage.recordMark(tasks, index);
     }
 
     /**
@@ -120,6 +172,10 @@ public class Vinux {
      * @throws VinuxException if the task index is invalid
      */
     private void handleUnmark(String fullCommand) throws VinuxException {
+        if (Parser.isTaskSelection(fullCommand, 7)) {
+            ui.showMessage(getBulkMarkResponse(fullCommand, 7, false));
+            return;
+        }
         int index = Parser.parseTaskIndex(fullCommand, 7);
 
         if (index < 0 || index >= tasks.getSize()) {
@@ -128,10 +184,9 @@ public class Vinux {
                     + "You only have " + tasks.getSize() + " task(s) in the list.");
         }
 
-        Task task = tasks.getTask(index);
-        task.markAsNotDone();
+        Task task = tasks.unmarkTask(index);
         ui.showTaskUnmarked(task);
-        storage.saveTasks(tasks);
+        storage.recordUnmark(tasks, index);
     }
 
     /**
@@ -142,6 +197,10 @@ public class Vinux {
      * @throws VinuxException if the task index is invalid
      */
     private void handleDelete(String fullCommand) throws VinuxException {
+        if (Parser.isTaskSelection(fullCommand, 7)) {
+            ui.showMessage(getBulkDeleteResponse(fullCommand));
+            return;
+        }
         int index = Parser.parseTaskIndex(fullCommand, 7);
 
         if (index < 0 || index >= tasks.getSize()) {
@@ -152,7 +211,7 @@ public class Vinux {
 
         Task deletedTask = tasks.deleteTask(index);
         ui.showTaskDeleted(deletedTask, tasks.getSize());
-        storage.saveTasks(tasks);
+        storage.recordDelete(tasks, index);
     }
 
     /**
@@ -166,7 +225,7 @@ public class Vinux {
         Task task = Parser.parseTodoCommand(fullCommand);
         tasks.addTask(task);
         ui.showTaskAdded(task, tasks.getSize());
-        storage.saveTasks(tasks);
+        storage.recordAdd(tasks, task);
     }
 
     /**
@@ -180,7 +239,7 @@ public class Vinux {
         Task task = Parser.parseDeadlineCommand(fullCommand);
         tasks.addTask(task);
         ui.showTaskAdded(task, tasks.getSize());
-        storage.saveTasks(tasks);
+        storage.recordAdd(tasks, task);
     }
 
     /**
@@ -191,23 +250,25 @@ public class Vinux {
      * @throws VinuxException if the command format is invalid
      */
     private void handleEvent(String fullCommand) throws VinuxException {
-        Task task = Parser.parseEventCommand(fullCommand);
+        Event task = Parser.parseEventCommand(fullCommand);
+        String clashWarning = getClashWarning(task);
         tasks.addTask(task);
         ui.showTaskAdded(task, tasks.getSize());
-        storage.saveTasks(tasks);
+        if (!clashWarning.isEmpty()) {
+            ui.showMessage(clashWarning.trim());
+        }
+        storage.recordAdd(tasks, task);
     }
 
     /**
      * Handles the find command.
-     * Searches for tasks matching the keyword.
+     * Searches for tasks matching the keyword, or the query if it has operators or fields.
      *
      * @param fullCommand The full command string
      * @throws VinuxException if command parsing fails
      */
     private void handleFind(String fullCommand) throws VinuxException {
-        String keyword = Parser.parseFindCommand(fullCommand);
-        String result = tasks.findTasks(keyword);
-        System.out.println(result);
+        System.out.println(getFindResponse(fullCommand));
     }
 
     /**
@@ -238,7 +299,7 @@ public class Vinux {
     private void handleClear() throws VinuxException {
         int count = tasks.getSize();
         tasks.clearTasks();
-        storage.saveTasks(tasks);
+        storage.recordClear(tasks);
         ui.showMessages(
                 "Consider it done! I've cleared all " + count + " task(s).",
                 "Your list is now empty. You're welcome."
@@ -258,9 +319,10 @@ public class Vinux {
             String commandWord = Parser.getCommandWord(input);
             switch (commandWord) {
             case "bye":
+                saver.flush();
                 return "Bye. Try not to miss me too much ;)";
             case "list":
-                return getListResponse();
+                return getListResponse(input);
             case "mark":
                 return getMarkResponse(input);
             case "unmark":
@@ -275,10 +337,24 @@ public class Vinux {
                 return getEventResponse(input);
             case "find":
                 return getFindResponse(input);
+            case "find~":
+                return getFuzzyFindResponse(input);
             case "cheer":
                 return getCheerResponse();
             case "clear":
                 return getClearResponse();
+            case "stats":
+                return tasks.getTaskSummary();
+            case "due":
+                return getDueResponse(input);
+            case "overdue":
+                return tasks.findOverdueTasks(LocalDate.now());
+            case "conflicts":
+                return tasks.findConflicts();
+            case "busy":
+                return getBusyResponse(input);
+            case "free":
+                return getFreeResponse(input);
             case "help":
                 return getHelpResponse();
             case "expense":
@@ -309,58 +385,128 @@ public class Vinux {
         return "Hello! I am your favourite assistant Vinux.\nI'm listening, unfortunately. Go on.\n";
     }
 
-    private String getListResponse() {
-        if (tasks.getSize() == 0) {
+    /**
+     * Returns one page of the list, the first one unless another is asked for, so the
+     * response stays small however many tasks there are.
+     *
+     * @param input The full command string
+     * @return The page of tasks, followed by where to find the rest and the summary
+     * @throws VinuxException if the page is invalid
+     */
+    private String getListResponse(String input) throws VinuxException {
+        int[] page = Parser.parseListCommand(input);
+        int taskCount = tasks.getSize();
+        if (taskCount == 0) {
             return "You have no tasks! Lucky you.";
         }
+        int from = page[0];
+        List<Task> shown = tasks.getPage(from, page[1] == 0 ? Parser.DEFAULT_PAGE_SIZE : page[1]);
+        if (shown.isEmpty()) {
+            return getPastEndMessage();
+        }
+
         StringBuilder sb = new StringBuilder();
         sb.append("Why do you have so many things to do?\n");
         sb.append("These are your tasks:\n");
-        for (int i = 0; i < tasks.getSize(); i++) {
-            sb.append(i + 1).append(".").append(tasks.getTask(i)).append("\n");
+        for (int i = 0; i < shown.size(); i++) {
+            sb.append(from + i + 1).append(".").append(shown.get(i)).append("\n");
+        }
+        int last = from + shown.size();
+        if (from > 0 || last < taskCount) {
+            sb.append("\nShowing tasks ").append(from + 1).append("-").append(last).append(" of ").append(taskCount);
+            if (last < taskCount) {
+                sb.append(". Type 'list --from ").append(last + 1).append("' for more.");
+            }
+            sb.append("\n");
         }
         sb.append("\n").append(tasks.getTaskSummary());
         return sb.toString().trim();
     }
 
+    private String getPastEndMessage() {
+        return "There's nothing that far down. You only have " + tasks.getSize() + " task(s).";
+    }
+
     private String getMarkResponse(String input) throws VinuxException {
+        if (Parser.isTaskSelection(input, 5)) {
+            return getBulkMarkResponse(input, 5, true);
+        }
         int index = Parser.parseTaskIndex(input, 5);
         if (index < 0 || index >= tasks.getSize()) {
             throw new VinuxException("Sleepy, much? Task number " + (index + 1)
                     + " doesn't exist!\nYou only have " + tasks.getSize() + " task(s).");
         }
-        tasks.getTask(index).markAsDone();
+        tasks.markTask(index);
         assert tasks.getTask(index).isDone() : "Task should be marked as done after markAsDone()";
-        storage.saveTasks(tasks);
+        storage.recordMark(tasks, index);
         return "Solid! This task is now done (FINALLY!):\n    [X] "
                 + tasks.getTask(index).getDescription();
     }
 
     private String getUnmarkResponse(String input) throws VinuxException {
+        if (Parser.isTaskSelection(input, 7)) {
+            return getBulkMarkResponse(input, 7, false);
+        }
         int index = Parser.parseTaskIndex(input, 7);
         if (index < 0 || index >= tasks.getSize()) {
             throw new VinuxException("Sleepy, much? Task number " + (index + 1)
                     + " doesn't exist!\nYou only have " + tasks.getSize() + " task(s).");
         }
-        tasks.getTask(index).markAsNotDone();
+        tasks.unmarkTask(index);
         assert !tasks.getTask(index).isDone() : "Task should not be done after markAsNotDone()";
-        storage.saveTasks(tasks);
+        storage.recordUnmark(tasks, index);
         return "Aw man! This task is still not done:\n    [ ] "
                 + tasks.getTask(index).getDescription();
     }
 
     private String getDeleteResponse(String input) throws VinuxException {
+        if (Parser.isTaskSelection(input, 7)) {
+            return getBulkDeleteResponse(input);
+        }
         int index = Parser.parseTaskIndex(input, 7);
         if (index < 0 || index >= tasks.getSize()) {
             throw new VinuxException("Sleepy, much? Task number " + (index + 1)
                     + " doesn't exist!\nYou only have " + tasks.getSize() + " task(s).");
         }
         Task deletedTask = tasks.deleteTask(index);
-        storage.saveTasks(tasks);
+        storage.recordDelete(tasks, index);
         return "You sure? I've removed this task:\n" + deletedTask
                 + "\nNow you have " + tasks.getSize() + " task(s) in the list.";
     }
 
+    /**
+     * Marks or unmarks every task a bulk command names, in one pass with one save.
+     *
+     * @param input The full command string
+     * @param commandLength The length of the command word (e.g., "mark " = 5)
+     * @param isDone Whether to mark the tasks as done
+     * @return A message saying how many tasks changed
+     * @throws VinuxException if the selection is invalid or saving fails
+     */
+    private String getBulkMarkResponse(String input, int commandLength, boolean isDone) throws VinuxException {
+        BitSet positions = Parser.parseTaskSelection(input, commandLength, tasks);
+        int count = isDone ? tasks.markTasks(positions) : tasks.unmarkTasks(positions);
+        storage.recordMarks(tasks, positions, isDone);
+        return isDone
+                ? "Solid! " + count + " task(s) are now done (FINALLY!)."
+                : "Aw man! " + count + " task(s) are still not done.";
+    }
+
+    /**
+     * Deletes every task a bulk command names, in one pass with one save.
+     *
+     * @param input The full command string
+     * @return A message saying how many tasks were removed
+     * @throws VinuxException if the selection is invalid or saving fails
+     */
+    private String getBulkDeleteResponse(String input) throws VinuxException {
+        BitSet positions = Parser.parseTaskSelection(input, 7, tasks);
+        int count = tasks.deleteTasks(positions);
+        storage.recordDeletes(tasks, positions);
+        return "You sure? I've removed " + count + " task(s).\nNow you have " + tasks.getSize()
+                + " task(s) in the list.";
+    }
+
     private String getTodoResponse(String input) throws VinuxException {
         Task task = Parser.parseTodoCommand(input);
 
@@ -370,7 +516,7 @@ public class Vinux {
         }
 
         tasks.addTask(task);
-        storage.saveTasks(tasks);
+        storage.recordAdd(tasks, task);
         return warning + "Gotcha. I have now added this task:\n  " + task
                 + "\nNow you have " + tasks.getSize() + " task(s) in the list.";
     }
@@ -384,28 +530,72 @@ public class Vinux {
         }
 
         tasks.addTask(task);
-        storage.saveTasks(tasks);
+        storage.recordAdd(tasks, task);
         return warning + "Gotcha. I have now added this task:\n  " + task
                 + "\nNow you have " + tasks.getSize() + " task(s) in the list.";
     }
 
     private String getEventResponse(String input) throws VinuxException {
-        Task task = Parser.parseEventCommand(input);
+        Event task = Parser.parseEventCommand(input);
 
         String warning = "";
         if (tasks.hasDuplicate(task)) {
             warning = "⚠ Warning: You already have a similar task!\n\n";
         }
+        warning += getClashWarning(task);
 
         tasks.addTask(task);
-        storage.saveTasks(tasks);
+        storage.recordAdd(tasks, task);
         return warning + "Gotcha. I have now added this task:\n  " + task
                 + "\nNow you have " + tasks.getSize() + " task(s) in the list.";
     }
 
     private String getFindResponse(String input) throws VinuxException {
         String keyword = Parser.parseFindCommand(input);
-        return tasks.findTasks(keyword);
+        int limit = Parser.parseFindLimit(input);
+        if (TaskQuery.isQuery(keyword)) {
+            return tasks.findTasks(TaskQuery.compile(keyword), limit);
+        }
+        return tasks.findTasks(keyword, limit);
+    }
+
+    private String getFuzzyFindResponse(String input) throws VinuxException {
+        String term = Parser.parseFuzzyFindCommand(input);
+        return tasks.findSimilarTasks(term, Parser.parseFuzzyDistance(input), Parser.parseFindLimit(input));
+    }
+
+    /**
+     * Returns a warning naming the events a new event would clash with.
+     *
+     * @param event The event about to be added
+     * @return The warning followed by a blank line, or an empty string if nothing clashes
+     */
+    private String getClashWarning(Event event) {
+        List<Task> clashes = tasks.getClashes(event);
+        if (clashes.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("⚠ Warning: This clashes with ").append(clashes.size())
+                .append(" event(s)!\n");
+        for (Task clash : clashes) {
+            sb.append("  ").append(clash).append("\n");
+        }
+        return sb.append("\n").toString();
+    }
+
+    private String getBusyResponse(String input) throws VinuxException {
+        LocalDateTime[] period = Parser.parsePeriodCommand(input);
+        return tasks.findBusyTasks(period[0], period[1]);
+    }
+
+    private String getFreeResponse(String input) throws VinuxException {
+        LocalDateTime[] period = Parser.parsePeriodCommand(input);
+        return tasks.findFreeSlots(period[0], period[1]);
+    }
+
+    private String getDueResponse(String input) throws VinuxException {
+        LocalDate[] period = Parser.parseDueCommand(input);
+        return tasks.findDueTasks(period[0], period[1]);
     }
 
     private String getCheerResponse() {
@@ -430,7 +620,7 @@ public class Vinux {
         int count = tasks.getSize();
         tasks.clearTasks();
         assert tasks.getSize() == 0 : "Task list should be empty after clearing";
-        storage.saveTasks(tasks);
+        storage.recordClear(tasks);
         return "Consider it done! I've cleared all " + count
                 + " task(s) from your list.\nYour list is now empty. You're welcome.";
     }
@@ -452,18 +642,38 @@ public class Vinux {
                 + "    → Add a deadline task\n\n"
                 + "  event <task> /from <start> /to <end>\n"
                 + "    → Add an event task\n\n"
-                + "  list\n"
-                + "    → List all tasks\n\n"
+                + "  list [--page <n>] [--size <n>] | list --from <n>\n"
+                + "    → List your tasks, a page at a time\n\n"
                 + "  mark <index>\n"
                 + "    → Mark task as done\n\n"
                 + "  unmark <index>\n"
                 + "    → Unmark task\n\n"
                 + "  delete <index>\n"
                 + "    → Delete a task\n\n"
-                + "  find <keyword>\n"
+                + "  mark|unmark|delete 1-5,8 | all [done|pending]\n"
+                + "    → Change many tasks at once\n\n"
+                + "  find <keyword> [--limit <count>]\n"
                 + "    → Search tasks\n\n"
+                + "  find <query> [--limit <count>]\n"
+                + "    → Search with AND, OR, NOT, (brackets), \"phrases\",\n"
+                + "      type:T|D|E, done, pending, before:|after:|on:<date>\n"
+                + "    → Example: find report AND NOT done\n\n"
+                + "  find~ <term> [--distance <edits>] [--limit <count>]\n"
+                + "    → Search tasks, forgiving typos\n\n"
                 + "  clear\n"
                 + "    → Clear all tasks\n\n"
+                + "  stats\n"
+                + "    → Count tasks by type\n\n"
+                + "  due <date> | due <from> <to>\n"
+                + "    → Show deadlines due by a date or in a period\n\n"
+                + "  overdue\n"
+                + "    → Show deadlines you missed\n\n"
+                + "  busy <date> | busy <start> /to <end>\n"
+                + "    → Show events in a period\n\n"
+                + "  free <date> | free <start> /to <end>\n"
+                + "    → Show free slots in a period\n\n"
+                + "  conflicts\n"
+                + "    → Show events that clash\n\n"
                 + "💰 EXPENSES:\n"
                 + "━━━━━━━━━━━━━━━━━━━━━\n"
                 + "  expense <category> <desc> /amount <amt>\n"
@@ -499,7 +709,7 @@ public class Vinux {
     private String getAddExpenseResponse(String input) throws VinuxException {
         vinux.expense.Expense expense = Parser.parseExpenseCommand(input);
         expenses.addExpense(expense);
-        expenseStorage.saveExpenses(expenses);
+        expenseStorage.recordChange(expenses);
         return String.format("Got it! Added expense:\n  %s\nTotal expenses: %d",
                 expense, expenses.getSize());
     }
@@ -527,7 +737,7 @@ public class Vinux {
                     + " doesn't exist!\nYou only have " + expenses.getSize() + " expense(s).");
         }
         vinux.expense.Expense deleted = expenses.deleteExpense(index);
-        expenseStorage.saveExpenses(expenses);
+        expenseStorage.recordChange(expenses);
         return "Alright, I've removed this expense:\n  " + deleted
                 + "\nYou now have " + expenses.getSize() + " expense(s).";
     }
@@ -558,20 +768,52 @@ public class Vinux {
 
 
     /**
-     * Constructs a Vinux instance with the specified file path.
+     * Constructs a Vinux instance with the specified file path, using the storage
+     * backend named by the {@code vinux.storage} system property.
      *
      * @param filePath The path to the data file for storing tasks
      */
     public Vinux(String filePath) {
+        this(filePath, System.getProperty(BACKEND_PROPERTY, StorageBackend.DEFAULT_NAME));
+    }
+
+    /**
+     * Constructs a Vinux instance with the specified file path and storage backend.
+     * Expenses are kept in the same directory as the tasks.
+     *
+     * @param filePath The path to the data file for storing tasks
+     * @param backendName The storage backend: "file", "mmap" or "memory"
+     */
+    public Vinux(String filePath, String backendName) {
         assert filePath != null : "File path should not be null";
         assert !filePath.isEmpty() : "File path should not be empty";
 
         ui = new Ui();
-        storage = new Storage(filePath);
-        expenseStorage = new ExpenseStorage();
+        SyncPolicy taskSyncPolicy = SyncPolicy.groupCommit(GROUP_COMMIT_MILLIS);
+        SyncPolicy expenseSyncPolicy = SyncPolicy.everyCommand();
+        StorageBackend taskBackend;
+        StorageBackend expenseBackend;
+        try {
+            taskBackend = StorageBackend.create(backendName, taskSyncPolicy);
+            expenseBackend = StorageBackend.create(backendName, expenseSyncPolicy);
+        } catch (VinuxException vinuxException) {
+            ui.showError(vinuxException.getMessage());
+            taskBackend = new FileBackend(taskSyncPolicy);
+            expenseBackend = new FileBackend(expenseSyncPolicy);
+        }
+
+        String expensesPath = Paths.get(filePath).resolveSibling(EXPENSES_FILE_NAME).toString();
+        storage = new Storage(filePath, true, TaskFileFormat.TEXT, taskBackend);
+        expenseStorage = new ExpenseStorage(expensesPath, expenseBackend);
+        saver = new WriteBehindSaver();
 
         try {
-            tasks = new TaskList(storage.loadTasks());
+            if ("columnar".equals(System.getProperty(LAYOUT_PROPERTY))) {
+                tasks = new TaskList(new ColumnarTaskList(storage.loadTasks()));
+            } else {
+                // Tasks are decoded as they are used, so startup time does not grow with the file
+                tasks = new TaskList(storage.loadTasksLazily());
+            }
         } catch (VinuxException vinuxException) {
             ui.showLoadingError(vinuxException.getMessage());
             tasks = new TaskList();
@@ -584,6 +826,10 @@ public class Vinux {
             expenses = new ExpenseList();
         }
 
+        // Start writing behind only after loading, so nothing is queued against a half-loaded list
+        storage.useWriteBehind(saver);
+        expenseStorage.useWriteBehind(saver);
+
         assert tasks != null : "TaskList should be initialised after construction";
         assert expenses != null : "ExpenseList should be initialised after construction";
         assert storage != null : "Storage should be initialised after construction";
@@ -591,6 +837,20 @@ public class Vinux {
         assert ui != null : "Ui should be initialised after construction";
     }
 
+    /**
+     * Writes out every pending save and releases the storage threads.
+     * Called when the CLI loop ends or the GUI window closes.
+     */
+    public void shutdown() {
+        try {
+            saver.close();
+        } catch (VinuxException vinuxException) {
+            ui.showError(vinuxException.getMessage());
+        }
+        storage.close();
+        expenseStorage.close();
+    }
+
     /**
      * Main entry point of the Vinux application.
      *
@@ -0,0 +1,148 @@
+package vinux.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Holds a set of words so that every word within a given edit distance of a query
+ * is found without comparing the query to every word.
+ *
+ * <p>Each child of a node sits at its exact Levenshtein distance from the node. Since
+ * the distance obeys the triangle inequality, a word within {@code k} of the query can
+ * only lie below children whose distance from a node is within {@code k} of the
+ * query's own distance from it, and every other child is skipped whole.</p>
+ */
+public class BkTree {
+    private static class Node {
+        private final String word;
+        /** {@code children[d]} is the child at distance d, or null. */
+        private Node[] children;
+
+        private Node(String word) {
+            this.word = word;
+        }
+
+        private Node child(int distance) {
+            return children == null || distance >= children.length ? null : children[distance];
+        }
+
+        private void setChild(int distance, Node child) {
+            if (children == null) {
+                children = new Node[distance + 1];
+            } else if (distance >= children.length) {
+                children = Arrays.copyOf(children, distance + 1);
+            }
+            children[distance] = child;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    /**
+     * Adds a word, if it is not there already.
+     *
+     * @param word The word to add
+     */
+    public void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.setChild(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Calls the action with every word within the given edit distance of the query,
+     * along with its distance, in no particular order.
+     *
+     * @param query The word to compare with
+     * @param maxDistance The largest edit distance to accept
+     * @param action The action to call with each word and its distance
+     */
+    public void forEachWithin(String query, int maxDistance, ObjIntConsumer<String> action) {
+        assert maxDistance >= 0 : "Distance should not be negative";
+        if (root == null) {
+            return;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(query, node.word);
+            if (distance <= maxDistance) {
+                action.accept(node.word, distance);
+            }
+            if (node.children == null) {
+                continue;
+            }
+            int last = Math.min(node.children.length - 1, distance + maxDistance);
+            for (int d = Math.max(1, distance - maxDistance); d <= last; d++) {
+                if (node.children[d] != null) {
+                    pending.push(node.children[d]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of words held.
+     *
+     * @return The number of distinct words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every word.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two words: the fewest single-character
+     * insertions, deletions and substitutions that turn one into the other.
+     *
+     * @param first The first word
+     * @param second The second word
+     * @return The edit distance
+     */
+    public static int distance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            char c = first.charAt(i - 1);
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = previous[j - 1] + (c == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+}
@@ -0,0 +1,245 @@
+package vinux.index;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A list stored as a row of fixed-size chunks, so removing or inserting an element
+ * only shifts the rest of its chunk instead of the rest of the list.
+ *
+ * <p>The chunk sizes are kept in a Fenwick tree, which finds the chunk holding any
+ * index in logarithmic time. Appending fills the last chunk; inserting into a full
+ * chunk splits it in two. Chunks emptied by removals are dropped in one pass once
+ * they make up half of all chunks, so that pass is paid for by the removals
+ * before it.</p>
+ *
+ * @param <E> The type of the elements
+ */
+public final class ChunkedList<E> extends AbstractList<E> implements RandomAccess {
+    /** The most elements a chunk holds; removing from or inserting into one shifts at most this many. */
+    static final int CHUNK_CAPACITY = 512;
+
+    private Object[][] chunks = new Object[4][];
+    private int[] sizes = new int[4];
+    /** Fenwick tree over the chunk sizes, 1-based. */
+    private int[] tree = new int[5];
+    private int chunkCount;
+    private int emptyChunkCount;
+    private int size;
+
+    /**
+     * Constructs an empty ChunkedList.
+     */
+    public ChunkedList() {
+    }
+
+    /**
+     * Constructs a ChunkedList holding the given elements in order.
+     *
+     * @param elements The elements to start with
+     */
+    public ChunkedList(Collection<? extends E> elements) {
+        for (E element : elements) {
+            add(element);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        int chunk = findChunk(index);
+        return (E) chunks[chunk][index - prefix(chunk)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        Objects.checkIndex(index, size);
+        int chunk = findChunk(index);
+        int offset = index - prefix(chunk);
+        E previous = (E) chunks[chunk][offset];
+        chunks[chunk][offset] = element;
+        return previous;
+    }
+
+    @Override
+    public boolean add(E element) {
+        if (chunkCount == 0 || sizes[chunkCount - 1] == CHUNK_CAPACITY) {
+            appendChunk();
+        }
+        int chunk = chunkCount - 1;
+        chunks[chunk][sizes[chunk]++] = element;
+        addToTree(chunk, 1);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        Objects.checkIndex(index, size + 1);
+        if (index == size) {
+            add(element);
+            return;
+        }
+        int chunk = findChunk(index);
+        if (sizes[chunk] == CHUNK_CAPACITY) {
+            splitChunk(chunk);
+            if (index - prefix(chunk) >= sizes[chunk]) {
+                chunk++;
+            }
+        }
+        int offset = index - prefix(chunk);
+        Object[] elements = chunks[chunk];
+        System.arraycopy(elements, offset, elements, offset + 1, sizes[chunk] - offset);
+        elements[offset] = element;
+        sizes[chunk]++;
+        addToTree(chunk, 1);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        Objects.checkIndex(index, size);
+        int chunk = findChunk(index);
+        int offset = index - prefix(chunk);
+        Object[] elements = chunks[chunk];
+        E removed = (E) elements[offset];
+        System.arraycopy(elements, offset + 1, elements, offset, sizes[chunk] - offset - 1);
+        elements[--sizes[chunk]] = null;
+        addToTree(chunk, -1);
+        size--;
+        modCount++;
+
+        if (sizes[chunk] == 0 && ++emptyChunkCount * 2 > chunkCount) {
+            dropEmptyChunks();
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        chunks = new Object[4][];
+        sizes = new int[4];
+        tree = new int[5];
+        chunkCount = 0;
+        emptyChunkCount = 0;
+        size = 0;
+        modCount++;
+    }
+
+    private void appendChunk() {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            sizes = Arrays.copyOf(sizes, chunkCount * 2);
+            chunks[chunkCount++] = new Object[CHUNK_CAPACITY];
+            rebuildTree();
+            return;
+        }
+        chunks[chunkCount] = new Object[CHUNK_CAPACITY];
+        sizes[chunkCount] = 0;
+        int node = ++chunkCount;
+        // The new node covers chunks (node - lowbit(node), node]; all but itself exist already
+        tree[node] = prefix(node - 1) - prefix(node - (node & -node));
+    }
+
+    /**
+     * Moves the second half of a full chunk into a new chunk right after it.
+     */
+    private void splitChunk(int chunk) {
+        int half = CHUNK_CAPACITY / 2;
+        Object[] upper = new Object[CHUNK_CAPACITY];
+        System.arraycopy(chunks[chunk], half, upper, 0, CHUNK_CAPACITY - half);
+        Arrays.fill(chunks[chunk], half, CHUNK_CAPACITY, null);
+
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            sizes = Arrays.copyOf(sizes, chunkCount * 2);
+        }
+        System.arraycopy(chunks, chunk + 1, chunks, chunk + 2, chunkCount - chunk - 1);
+        System.arraycopy(sizes, chunk + 1, sizes, chunk + 2, chunkCount - chunk - 1);
+        chunks[chunk + 1] = upper;
+        sizes[chunk] = half;
+        sizes[chunk + 1] = CHUNK_CAPACITY - half;
+        chunkCount++;
+        rebuildTree();
+    }
+
+    private void dropEmptyChunks() {
+        int kept = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            if (sizes[i] > 0) {
+                chunks[kept] = chunks[i];
+                sizes[kept] = sizes[i];
+                kept++;
+            }
+        }
+        Arrays.fill(chunks, kept, chunkCount, null);
+        Arrays.fill(sizes, kept, chunkCount, 0);
+        chunkCount = kept;
+        emptyChunkCount = 0;
+        rebuildTree();
+    }
+
+    /**
+     * Rebuilds the Fenwick tree from the chunk sizes in linear time.
+     */
+    private void rebuildTree() {
+        if (tree.length != chunks.length + 1) {
+            tree = new int[chunks.length + 1];
+        } else {
+            Arrays.fill(tree, 0);
+        }
+        for (int node = 1; node <= chunkCount; node++) {
+            tree[node] += sizes[node - 1];
+            int parent = node + (node & -node);
+            if (parent <= chunkCount) {
+                tree[parent] += tree[node];
+            }
+        }
+    }
+
+    private void addToTree(int chunk, int change) {
+        for (int node = chunk + 1; node <= chunkCount; node += node & -node) {
+            tree[node] += change;
+        }
+    }
+
+    /**
+     * Returns the number of elements in the chunks before the given one.
+     */
+    private int prefix(int chunk) {
+        int sum = 0;
+        for (int node = chunk; node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the chunk holding the element at the given index.
+     */
+    private int findChunk(int index) {
+        int node = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = node + step;
+            if (next <= chunkCount && tree[next] <= remaining) {
+                node = next;
+                remaining -= tree[next];
+            }
+        }
+        return node;
+    }
+}
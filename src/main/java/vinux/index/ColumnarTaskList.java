@@ -0,0 +1,364 @@
+package vinux.index;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * A task list that stores its tasks column by column in a few primitive arrays
+ * instead of as one object graph per task, for lists with millions of tasks.
+ *
+ * <p>Each task is a row: its type in a {@code byte[]}, its status in a {@link BitSet},
+ * a deadline's due date as an epoch day in an {@code int[]}, and its text (the
+ * description, plus an event's times) as length-prefixed UTF-8 in one shared byte
+ * pool, followed for an event by its structured period as two variable-length numbers,
+ * so that the times are not parsed again. {@link #get(int)} builds a new {@link Task}
+ * from its row every time, so a change to a task is only kept once it is written back
+ * with {@link #set(int, Task)}.</p>
+ *
+ * <p>Rows are only appended. A deleted row stays in the columns and is skipped through
+ * a {@link RankedSlots}, so deleting costs logarithmic time; the columns are compacted
+ * once deleted rows outnumber live ones. Tasks can only be added at the end.</p>
+ */
+public final class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    /** The earliest start an event's period can have, as its times are written with four-digit years. */
+    private static final LocalDateTime PERIOD_ORIGIN = LocalDateTime.of(0, 1, 1, 0, 0);
+
+    private byte[] types = new byte[16];
+    private BitSet done = new BitSet();
+    private int[] dueDays = new int[16];
+    private int[] textStarts = new int[16];
+    private byte[] textPool = new byte[256];
+    private int textPoolSize;
+    private int rowCount;
+    private RankedSlots liveRows = new RankedSlots();
+    /** Whether a frozen copy still reads the columns, so rows in them must not be overwritten. */
+    private boolean isShared;
+
+    /**
+     * Constructs an empty ColumnarTaskList.
+     */
+    public ColumnarTaskList() {
+    }
+
+    /**
+     * Constructs a copy that shares the columns of the given list, as of now.
+     */
+    private ColumnarTaskList(ColumnarTaskList other) {
+        this.types = other.types;
+        this.done = (BitSet) other.done.clone();
+        this.dueDays = other.dueDays;
+        this.textStarts = other.textStarts;
+        this.textPool = other.textPool;
+        this.textPoolSize = other.textPoolSize;
+        this.rowCount = other.rowCount;
+        this.liveRows = new RankedSlots(other.liveRows);
+    }
+
+    /**
+     * Constructs a ColumnarTaskList holding the given tasks in order.
+     *
+     * @param tasks The tasks to start with
+     */
+    public ColumnarTaskList(Collection<? extends Task> tasks) {
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Returns the tasks as they are now, in an immutable list that later changes do not
+     * affect. The list shares the columns with this one rather than building every task;
+     * only the status bits and the live rows are copied. Rows only change in place through
+     * {@link #set(int, Task)} and {@link #clear()}, which copy the columns first while
+     * they are shared, so later changes leave the frozen rows as they were.
+     *
+     * @return The tasks, in list order
+     */
+    public List<Task> freeze() {
+        isShared = true;
+        return Collections.unmodifiableList(new ColumnarTaskList(this));
+    }
+
+    @Override
+    public int size() {
+        return liveRows.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size());
+        return readRow(liveRows.select(index));
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Objects.checkIndex(index, size());
+        int row = liveRows.select(index);
+        Task previous = readRow(row);
+        unshare();
+        writeRow(row, task, !hasSameText(previous, task));
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Task task) {
+        if (rowCount == types.length) {
+            int capacity = rowCount * 2;
+            types = Arrays.copyOf(types, capacity);
+            dueDays = Arrays.copyOf(dueDays, capacity);
+            textStarts = Arrays.copyOf(textStarts, capacity);
+        }
+        int row = liveRows.add();
+        assert row == rowCount : "Rows should be numbered in order";
+        rowCount++;
+        writeRow(row, task, true);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Objects.checkIndex(index, size());
+        int row = liveRows.select(index);
+        Task removed = readRow(row);
+        liveRows.remove(row);
+        modCount++;
+        if (rowCount - liveRows.size() > Math.max(16, liveRows.size())) {
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        if (isShared) {
+            // Rows and text are written again from the start, over those a frozen copy reads
+            types = new byte[16];
+            dueDays = new int[16];
+            textStarts = new int[16];
+            textPool = new byte[256];
+            isShared = false;
+        }
+        done.clear();
+        textPoolSize = 0;
+        rowCount = 0;
+        liveRows = new RankedSlots();
+        modCount++;
+    }
+
+    /**
+     * Copies the columns that rows are rewritten in, if a frozen copy still reads them.
+     * The text pool is only appended to, past the end a frozen copy reads.
+     */
+    private void unshare() {
+        if (!isShared) {
+            return;
+        }
+        types = types.clone();
+        dueDays = dueDays.clone();
+        textStarts = textStarts.clone();
+        isShared = false;
+    }
+
+    private Task readRow(int row) {
+        int[] position = {textStarts[row]};
+        String description = readText(position);
+        Task task;
+        switch (types[row]) {
+        case DEADLINE:
+            task = new Deadline(description, LocalDate.ofEpochDay(dueDays[row]));
+            break;
+        case EVENT:
+            String from = readText(position);
+            String to = readText(position);
+            long startMinute = readNumber(position);
+            long minutes = readNumber(position);
+            LocalDateTime start = startMinute == 0 ? null : PERIOD_ORIGIN.plusMinutes(startMinute - 1);
+            task = new Event(description, from, to, start, start == null ? null : start.plusMinutes(minutes));
+            break;
+        default:
+            task = new Todo(description);
+            break;
+        }
+        if (done.get(row)) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Stores a task in a row, appending its text to the pool only when it changed.
+     */
+    private void writeRow(int row, Task task, boolean isTextChanged) {
+        done.set(row, task.isDone());
+        if (!isTextChanged) {
+            return;
+        }
+        textStarts[row] = textPoolSize;
+        appendText(task.getDescription());
+        if (task instanceof Deadline deadline) {
+            types[row] = DEADLINE;
+            dueDays[row] = (int) deadline.getBy().toEpochDay();
+        } else if (task instanceof Event event) {
+            types[row] = EVENT;
+            appendText(event.getFrom());
+            appendText(event.getTo());
+            // The start in minutes from PERIOD_ORIGIN plus one, 0 for no period, then the length in minutes
+            LocalDateTime start = event.getStart();
+            appendNumber(start == null ? 0 : Duration.between(PERIOD_ORIGIN, start).toMinutes() + 1);
+            appendNumber(start == null ? 0 : Duration.between(start, event.getEnd()).toMinutes());
+        } else {
+            types[row] = TODO;
+        }
+    }
+
+    private boolean hasSameText(Task stored, Task task) {
+        if (stored.getClass() != task.getClass() || !stored.getDescription().equals(task.getDescription())) {
+            return false;
+        }
+        if (task instanceof Deadline deadline) {
+            return deadline.getBy().equals(((Deadline) stored).getBy());
+        }
+        if (task instanceof Event event) {
+            Event storedEvent = (Event) stored;
+            return event.getFrom().equals(storedEvent.getFrom()) && event.getTo().equals(storedEvent.getTo());
+        }
+        return true;
+    }
+
+    /**
+     * Appends text to the pool as a variable-length byte count followed by its UTF-8 bytes.
+     */
+    private void appendText(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ensurePoolCapacity(5 + bytes.length);
+        int length = bytes.length;
+        while (length >= 0x80) {
+            textPool[textPoolSize++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        textPool[textPoolSize++] = (byte) length;
+        System.arraycopy(bytes, 0, textPool, textPoolSize, bytes.length);
+        textPoolSize += bytes.length;
+    }
+
+    /**
+     * Appends a non-negative number in the same variable-length form as text lengths.
+     */
+    private void appendNumber(long number) {
+        assert number >= 0 : "Number should not be negative: " + number;
+        ensurePoolCapacity(10);
+        long remaining = number;
+        while (remaining >= 0x80) {
+            textPool[textPoolSize++] = (byte) (remaining | 0x80);
+            remaining >>>= 7;
+        }
+        textPool[textPoolSize++] = (byte) remaining;
+    }
+
+    private long readNumber(int[] position) {
+        long number = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = textPool[position[0]++];
+            number |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while (next < 0);
+        return number;
+    }
+
+    private String readText(int[] position) {
+        int length = readLength(position);
+        String text = new String(textPool, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return text;
+    }
+
+    private void skipText(int[] position) {
+        int length = readLength(position);
+        position[0] += length;
+    }
+
+    private int readLength(int[] position) {
+        int length = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = textPool[position[0]++];
+            length |= (next & 0x7F) << shift;
+            shift += 7;
+        } while (next < 0);
+        return length;
+    }
+
+    private void ensurePoolCapacity(int extra) {
+        if (textPoolSize + extra > textPool.length) {
+            textPool = Arrays.copyOf(textPool, Math.max(textPool.length * 2, textPoolSize + extra));
+        }
+    }
+
+    /**
+     * Rewrites the columns with only the live rows, dropping deleted rows and stale text.
+     */
+    private void compact() {
+        int liveCount = liveRows.size();
+        int capacity = Math.max(16, liveCount);
+        byte[] newTypes = new byte[capacity];
+        int[] newDueDays = new int[capacity];
+        int[] newTextStarts = new int[capacity];
+        byte[] newTextPool = new byte[Math.max(256, textPoolSize / 2)];
+        BitSet newDone = new BitSet(liveCount);
+        int newPoolSize = 0;
+        for (int newRow = 0; newRow < liveCount; newRow++) {
+            int row = liveRows.select(newRow);
+            int[] position = {textStarts[row]};
+            skipText(position);
+            if (types[row] == EVENT) {
+                skipText(position);
+                skipText(position);
+                readNumber(position);
+                readNumber(position);
+            }
+            int length = position[0] - textStarts[row];
+            if (newPoolSize + length > newTextPool.length) {
+                newTextPool = Arrays.copyOf(newTextPool, Math.max(newTextPool.length * 2, newPoolSize + length));
+            }
+            System.arraycopy(textPool, textStarts[row], newTextPool, newPoolSize, length);
+            newTextStarts[newRow] = newPoolSize;
+            newPoolSize += length;
+            newTypes[newRow] = types[row];
+            newDueDays[newRow] = dueDays[row];
+            newDone.set(newRow, done.get(row));
+        }
+
+        types = newTypes;
+        dueDays = newDueDays;
+        textStarts = newTextStarts;
+        textPool = newTextPool;
+        textPoolSize = newPoolSize;
+        done = newDone;
+        rowCount = liveCount;
+        liveRows = new RankedSlots(liveCount);
+        isShared = false;
+    }
+}
@@ -0,0 +1,63 @@
+package vinux.index;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps the deadlines of a task list sorted by due date, so the deadlines due in a
+ * period are found with one tree search plus a walk over the matches, however many
+ * other deadlines there are.
+ */
+public class DeadlineIndex {
+    private final TreeMap<LocalDate, PostingList> postings = new TreeMap<>();
+
+    /**
+     * Indexes a deadline added to the end of the list.
+     *
+     * @param sequence The task's sequence number, larger than any indexed so far
+     * @param by The due date of the deadline
+     */
+    public void add(int sequence, LocalDate by) {
+        postings.computeIfAbsent(by, newDate -> new PostingList()).add(sequence);
+    }
+
+    /**
+     * Removes a deleted deadline from the index.
+     *
+     * @param sequence The task's sequence number
+     * @param by The due date of the deadline
+     */
+    public void remove(int sequence, LocalDate by) {
+        PostingList list = postings.get(by);
+        if (list != null && list.remove(sequence) && list.isEmpty()) {
+            postings.remove(by);
+        }
+    }
+
+    /**
+     * Removes every deadline from the index.
+     */
+    public void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Calls the action with the sequence number of every deadline due in the period,
+     * by due date and then in list order.
+     *
+     * @param from The first day of the period
+     * @param to The last day of the period, not before {@code from}
+     * @param action The action to call for each deadline
+     */
+    public void forEachDue(LocalDate from, LocalDate to, IntConsumer action) {
+        assert !to.isBefore(from) : "Period should not end before it starts";
+        for (Map.Entry<LocalDate, PostingList> entry : postings.subMap(from, true, to, true).entrySet()) {
+            PostingList list = entry.getValue();
+            for (int i = 0; i < list.size(); i++) {
+                action.accept(list.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package vinux.index;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts task descriptions by their case-folded form, so checking whether a
+ * description is already taken costs one hash lookup.
+ *
+ * <p>Two descriptions fold to the same key exactly when
+ * {@link String#equalsIgnoreCase} considers them equal: that method matches two
+ * characters if their upper cases, or the lower cases of their upper cases, are the
+ * same, and the latter covers the former. Folding each code point the same way keeps
+ * the two in step, including for characters such as the Greek final sigma.</p>
+ */
+public class DescriptionMultiset {
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    /**
+     * Returns the key a description is counted under.
+     *
+     * @param description The description to fold
+     * @return The folded description
+     */
+    public static String fold(String description) {
+        StringBuilder folded = new StringBuilder(description.length());
+        for (int i = 0; i < description.length(); ) {
+            int codePoint = description.codePointAt(i);
+            folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+            i += Character.charCount(codePoint);
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Counts one more task with the given description.
+     *
+     * @param description The description of the task
+     */
+    public void add(String description) {
+        counts.merge(fold(description), 1, Integer::sum);
+    }
+
+    /**
+     * Counts one task fewer with the given description.
+     *
+     * @param description The description of the task
+     */
+    public void remove(String description) {
+        counts.computeIfPresent(fold(description), (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Checks whether any task has a description equal to the given one, ignoring case.
+     *
+     * @param description The description to look for
+     * @return true if such a task is counted
+     */
+    public boolean contains(String description) {
+        return counts.containsKey(fold(description));
+    }
+
+    /**
+     * Forgets every description.
+     */
+    public void clear() {
+        counts.clear();
+    }
+}
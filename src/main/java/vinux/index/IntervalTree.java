@@ -0,0 +1,224 @@
+package vinux.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Holds the periods of the events in a task list, so the events overlapping any
+ * period are found in logarithmic time plus the number of matches.
+ *
+ * <p>The tree is a treap ordered by start time and then sequence number, and every
+ * node also records the latest end in its subtree. A search skips any subtree that
+ * ends before the period starts, and everything right of a node that starts after
+ * the period ends. Periods include their start but not their end, so back-to-back
+ * events do not overlap.</p>
+ */
+public class IntervalTree {
+    /**
+     * Receives two events whose periods overlap.
+     */
+    public interface ClashConsumer {
+        /**
+         * Accepts one overlapping pair.
+         *
+         * @param first The sequence number of the event that starts first
+         * @param second The sequence number of the other event
+         */
+        void accept(int first, int second);
+    }
+
+    private static class Node {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int sequence;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(LocalDateTime start, LocalDateTime end, int sequence, int priority) {
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        private int compareTo(LocalDateTime otherStart, int otherSequence) {
+            int byStart = start.compareTo(otherStart);
+            return byStart != 0 ? byStart : Integer.compare(sequence, otherSequence);
+        }
+    }
+
+    private final Random random = new Random();
+    private Node root;
+    private int size;
+
+    /**
+     * Adds the period of an event.
+     *
+     * @param start The start of the event
+     * @param end The end of the event, after its start
+     * @param sequence The task's sequence number
+     */
+    public void add(LocalDateTime start, LocalDateTime end, int sequence) {
+        assert end.isAfter(start) : "Event should end after it starts";
+        Node node = new Node(start, end, sequence, random.nextInt());
+        Node[] parts = split(root, start, sequence);
+        root = merge(merge(parts[0], node), parts[1]);
+        size++;
+    }
+
+    /**
+     * Removes the period of a deleted event.
+     *
+     * @param start The start of the event
+     * @param sequence The task's sequence number
+     */
+    public void remove(LocalDateTime start, int sequence) {
+        int sizeBefore = size;
+        root = remove(root, start, sequence);
+        assert size == sizeBefore - 1 : "Removed event should have been in the tree";
+    }
+
+    private Node remove(Node node, LocalDateTime start, int sequence) {
+        if (node == null) {
+            return null;
+        }
+        int order = node.compareTo(start, sequence);
+        if (order == 0) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        if (order > 0) {
+            node.left = remove(node.left, start, sequence);
+        } else {
+            node.right = remove(node.right, start, sequence);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Removes every period.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of periods held.
+     *
+     * @return The number of events in the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the action with every event overlapping the given period, in order of start time.
+     *
+     * @param from The start of the period
+     * @param to The end of the period, after its start
+     * @param action The action to call with each event's sequence number
+     */
+    public void forEachOverlapping(LocalDateTime from, LocalDateTime to, IntConsumer action) {
+        forEachOverlapping(root, from, to, action);
+    }
+
+    private void forEachOverlapping(Node node, LocalDateTime from, LocalDateTime to, IntConsumer action) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        forEachOverlapping(node.left, from, to, action);
+        if (!node.start.isBefore(to)) {
+            return;
+        }
+        if (node.end.isAfter(from)) {
+            action.accept(node.sequence);
+        }
+        forEachOverlapping(node.right, from, to, action);
+    }
+
+    /**
+     * Calls the action once for every pair of overlapping events, in order of start time.
+     * Walking the events by start time, each one only has to be compared with the
+     * events after it that start before it ends, so the cost is linear in the number
+     * of events plus the number of pairs.
+     *
+     * @param action The action to call with each pair
+     */
+    public void forEachClash(ClashConsumer action) {
+        List<Node> nodes = new ArrayList<>(size);
+        collect(root, nodes);
+        for (int i = 0; i < nodes.size(); i++) {
+            Node first = nodes.get(i);
+            for (int j = i + 1; j < nodes.size() && nodes.get(j).start.isBefore(first.end); j++) {
+                action.accept(first.sequence, nodes.get(j).sequence);
+            }
+        }
+    }
+
+    private void collect(Node node, List<Node> nodes) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, nodes);
+        nodes.add(node);
+        collect(node.right, nodes);
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before the given key and the rest.
+     */
+    private Node[] split(Node node, LocalDateTime start, int sequence) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (node.compareTo(start, sequence) < 0) {
+            Node[] parts = split(node.right, start, sequence);
+            node.right = parts[0];
+            update(node);
+            return new Node[] {node, parts[1]};
+        }
+        Node[] parts = split(node.left, start, sequence);
+        node.left = parts[1];
+        update(node);
+        return new Node[] {parts[0], node};
+    }
+
+    /**
+     * Joins two subtrees where every node of the first is ordered before the second.
+     */
+    private Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private void update(Node node) {
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+}
@@ -0,0 +1,164 @@
+package vinux.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Maps each word of the lowercased task descriptions to the tasks that contain it.
+ * A word is a run of letters and digits; everything else separates words.
+ *
+ * <p>{@link #candidates(String)} narrows a substring search down to the tasks that
+ * could match. Every word of the query must lie inside some word of a matching
+ * description, so only the tasks holding a word that contains each query word are
+ * candidates. Searching the words instead of the descriptions keeps the cost down to
+ * the vocabulary size plus the number of candidates.</p>
+ *
+ * <p>The words are also kept in a {@link BkTree}, so the words close to a misspelt
+ * one are found by {@link #forEachSimilar} without comparing it to every word. Words
+ * stay in the tree after their last task is removed, and are skipped from then on.</p>
+ */
+public class InvertedIndex {
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final BkTree vocabulary = new BkTree();
+
+    /**
+     * Splits lowercased text into its distinct words, in order of first appearance.
+     *
+     * @param text The lowercased text
+     * @return The distinct words
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            words.add(text.substring(start));
+        }
+        return words;
+    }
+
+    /**
+     * Indexes a task added to the end of the list.
+     *
+     * @param sequence The task's sequence number, larger than any indexed so far
+     * @param description The lowercased description of the task
+     */
+    public void add(int sequence, String description) {
+        for (String word : tokenize(description)) {
+            PostingList list = postings.get(word);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(word, list);
+                vocabulary.add(word);
+            }
+            list.add(sequence);
+        }
+    }
+
+    /**
+     * Removes a deleted task from the index.
+     *
+     * @param sequence The task's sequence number
+     * @param description The lowercased description of the task
+     */
+    public void remove(int sequence, String description) {
+        for (String word : tokenize(description)) {
+            PostingList list = postings.get(word);
+            if (list != null && list.remove(sequence) && list.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    public void clear() {
+        postings.clear();
+        vocabulary.clear();
+    }
+
+    /**
+     * Returns the tasks holding the given word.
+     *
+     * @param word The lowercased word
+     * @return The sequence numbers of those tasks, or an empty list; must not be changed
+     */
+    public PostingList lookup(String word) {
+        PostingList list = postings.get(word);
+        return list == null ? new PostingList() : list;
+    }
+
+    /**
+     * Calls the action with the tasks holding each indexed word within the given edit
+     * distance of a word, along with that word's distance.
+     *
+     * @param word The lowercased word, possibly misspelt
+     * @param maxDistance The largest edit distance to accept
+     * @param action The action to call with each similar word's tasks, which must not be
+     *               changed, and its distance
+     */
+    public void forEachSimilar(String word, int maxDistance, ObjIntConsumer<PostingList> action) {
+        vocabulary.forEachWithin(word, maxDistance, (similar, distance) -> {
+            PostingList list = postings.get(similar);
+            if (list != null) {
+                action.accept(list, distance);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of distinct words indexed.
+     *
+     * @return The vocabulary size
+     */
+    public int getWordCount() {
+        return postings.size();
+    }
+
+    /**
+     * Returns the tasks whose lowercased descriptions could contain the query.
+     * Every task that does contain it is included; the caller checks each candidate.
+     *
+     * @param query The lowercased query
+     * @return The candidates' sequence numbers, or null if the query has no words to narrow by
+     */
+    public PostingList candidates(String query) {
+        Set<String> queryWords = tokenize(query);
+        if (queryWords.isEmpty()) {
+            return null;
+        }
+
+        PostingList result = null;
+        for (String queryWord : queryWords) {
+            List<PostingList> containing = new ArrayList<>();
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                if (entry.getKey().contains(queryWord)) {
+                    containing.add(entry.getValue());
+                }
+            }
+            PostingList matches = PostingList.union(containing);
+            result = result == null ? matches : result.intersect(matches);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+}
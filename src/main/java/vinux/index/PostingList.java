@@ -0,0 +1,213 @@
+package vinux.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A sorted, growable list of task sequence numbers without duplicates.
+ * Tasks get increasing sequence numbers as they are added to the end of the list,
+ * so sorting by sequence number is the same as sorting by list position.
+ */
+public class PostingList {
+    /** How many times longer one list must be before intersecting by binary search. */
+    private static final int SKEW_FOR_SEARCH = 16;
+
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs an empty PostingList.
+     */
+    public PostingList() {
+        this.values = new int[4];
+    }
+
+    private PostingList(int[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Appends a sequence number larger than every one already in the list.
+     *
+     * @param value The sequence number to add
+     */
+    public void add(int value) {
+        assert size == 0 || value > values[size - 1] : "Sequence numbers should be added in order: " + value;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, values.length * 2));
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Removes a sequence number if it is in the list.
+     *
+     * @param value The sequence number to remove
+     * @return true if it was in the list
+     */
+    public boolean remove(int value) {
+        int position = indexOf(value);
+        if (position < 0) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+    /**
+     * Removes the sequence number at the given position.
+     *
+     * @param position The position in this list (0-based)
+     * @return The sequence number that was removed
+     */
+    public int removeAt(int position) {
+        assert position >= 0 && position < size : "Position should be within list size: " + position;
+        int value = values[position];
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns the position of a sequence number.
+     *
+     * @param value The sequence number to look for
+     * @return Its position, or a negative number if it is not in the list
+     */
+    public int indexOf(int value) {
+        return Arrays.binarySearch(values, 0, size, value);
+    }
+
+    /**
+     * Returns the position of the first sequence number not smaller than the given one,
+     * looking only from a given position on. The search gallops forward from there, so
+     * walking a list with increasing values costs time logarithmic in each step taken.
+     *
+     * @param value The sequence number to look for
+     * @param from The position (0-based) to start looking from
+     * @return The position found, or the size of the list if every number is smaller
+     */
+    public int seek(int value, int from) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < size && values[high] < value) {
+            low = high + 1;
+            high += step;
+            step *= 2;
+        }
+        int found = Arrays.binarySearch(values, low, Math.min(high, size), value);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    /**
+     * Returns the sequence number at the given position.
+     *
+     * @param position The position in this list (0-based)
+     * @return The sequence number
+     */
+    public int get(int position) {
+        assert position >= 0 && position < size : "Position should be within list size: " + position;
+        return values[position];
+    }
+
+    /**
+     * Returns the number of sequence numbers in the list.
+     *
+     * @return The size of the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the list is empty.
+     *
+     * @return true if there are no sequence numbers
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every sequence number.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the sequence numbers in both this list and the other one.
+     *
+     * @param other The list to intersect with
+     * @return A new list with the common sequence numbers
+     */
+    public PostingList intersect(PostingList other) {
+        if (size > other.size) {
+            return other.intersect(this);
+        }
+        int[] common = new int[size];
+        int count = 0;
+        if ((long) size * SKEW_FOR_SEARCH < other.size) {
+            // Much shorter: look each value up instead of walking the whole longer list
+            int from = 0;
+            for (int i = 0; i < size && from < other.size; i++) {
+                int found = Arrays.binarySearch(other.values, from, other.size, values[i]);
+                if (found >= 0) {
+                    common[count++] = values[i];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return new PostingList(common, count);
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (values[i] < other.values[j]) {
+                i++;
+            } else if (values[i] > other.values[j]) {
+                j++;
+            } else {
+                common[count++] = values[i];
+                i++;
+                j++;
+            }
+        }
+        return new PostingList(common, count);
+    }
+
+    /**
+     * Returns the sequence numbers in any of the given lists.
+     *
+     * @param lists The lists to merge
+     * @return A new list with every sequence number once
+     */
+    public static PostingList union(List<PostingList> lists) {
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] merged = new int[total];
+        int count = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.values, 0, merged, count, list.size);
+            count += list.size;
+        }
+        if (lists.size() <= 1) {
+            return new PostingList(merged, count);
+        }
+
+        Arrays.sort(merged);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || merged[unique - 1] != merged[i]) {
+                merged[unique++] = merged[i];
+            }
+        }
+        return new PostingList(merged, unique);
+    }
+}
@@ -0,0 +1,166 @@
+package vinux.index;
+
+import java.util.Arrays;
+
+/**
+ * A growable row of numbered slots, each live or removed, that finds the rank of a
+ * live slot among the live ones, and the slot holding a given rank, in logarithmic time.
+ *
+ * <p>Slots are only ever added at the end and start out live, so when they number
+ * the items of a list in order, the rank of a slot is the item's position in the
+ * list. Removing a slot then shifts every later position down by one without
+ * touching the later slots. The live counts are kept in a Fenwick tree.</p>
+ */
+public class RankedSlots {
+    /** Fenwick tree over the slots, 1-based: {@code tree[i]} counts the live slots in (i - lowbit(i), i]. */
+    private int[] tree;
+    private int slotCount;
+    private int liveCount;
+
+    /**
+     * Constructs an empty RankedSlots.
+     */
+    public RankedSlots() {
+        this.tree = new int[17];
+    }
+
+    /**
+     * Constructs a RankedSlots with the given number of live slots, numbered from 0.
+     *
+     * @param liveSlots The number of slots to start with
+     */
+    public RankedSlots(int liveSlots) {
+        this.tree = new int[Math.max(16, liveSlots) + 1];
+        this.slotCount = liveSlots;
+        this.liveCount = liveSlots;
+        for (int i = 1; i <= liveSlots; i++) {
+            tree[i] = i & -i;
+        }
+    }
+
+    /**
+     * Constructs a RankedSlots with the same slots as another, live or removed.
+     * Later changes to either one do not affect the other.
+     *
+     * @param other The slots to copy
+     */
+    public RankedSlots(RankedSlots other) {
+        this.tree = other.tree.clone();
+        this.slotCount = other.slotCount;
+        this.liveCount = other.liveCount;
+    }
+
+    /**
+     * Adds a live slot after every existing one.
+     *
+     * @return The number of the new slot
+     */
+    public int add() {
+        if (slotCount + 1 == tree.length) {
+            grow();
+        }
+        int node = ++slotCount;
+        // The new node covers the slots (node - lowbit(node), node]; all but itself exist already
+        int covered = prefix(node - 1) - prefix(node - (node & -node));
+        tree[node] = covered + 1;
+        liveCount++;
+        return node - 1;
+    }
+
+    private void grow() {
+        int[] counts = new int[slotCount];
+        for (int node = slotCount; node > 0; node--) {
+            counts[node - 1] = prefix(node) - prefix(node - 1);
+        }
+        tree = new int[tree.length * 2];
+        for (int node = 1; node <= slotCount; node++) {
+            tree[node] += counts[node - 1];
+            int parent = node + (node & -node);
+            if (parent <= slotCount) {
+                tree[parent] += tree[node];
+            }
+        }
+    }
+
+    /**
+     * Removes a live slot. Later slots keep their numbers but rank one lower.
+     *
+     * @param slot The slot to remove
+     */
+    public void remove(int slot) {
+        assert isLive(slot) : "Slot should be live: " + slot;
+        for (int node = slot + 1; node <= slotCount; node += node & -node) {
+            tree[node]--;
+        }
+        liveCount--;
+    }
+
+    /**
+     * Checks whether a slot exists and has not been removed.
+     *
+     * @param slot The slot to check
+     * @return true if the slot is live
+     */
+    public boolean isLive(int slot) {
+        return slot >= 0 && slot < slotCount && prefix(slot + 1) - prefix(slot) == 1;
+    }
+
+    /**
+     * Returns the number of live slots before the given slot.
+     *
+     * @param slot The slot, which need not be live
+     * @return Its rank among the live slots
+     */
+    public int rank(int slot) {
+        return prefix(Math.min(slot, slotCount));
+    }
+
+    /**
+     * Returns the live slot with the given rank.
+     *
+     * @param rank The rank (0-based), less than the number of live slots
+     * @return The slot number
+     */
+    public int select(int rank) {
+        assert rank >= 0 && rank < liveCount : "Rank should be within live slots: " + rank;
+        int node = 0;
+        int remaining = rank;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = node + step;
+            if (next <= slotCount && tree[next] <= remaining) {
+                node = next;
+                remaining -= tree[next];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the number of live slots.
+     *
+     * @return The live count
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Removes every slot, so numbering starts from 0 again.
+     */
+    public void clear() {
+        Arrays.fill(tree, 0, slotCount + 1, 0);
+        slotCount = 0;
+        liveCount = 0;
+    }
+
+    /**
+     * Returns the number of live slots among the first {@code count} slots.
+     */
+    private int prefix(int count) {
+        int sum = 0;
+        for (int node = count; node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,178 @@
+package vinux.index;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list made of fixed-size segments, where each change returns a new
+ * list that shares every untouched segment with the old one.
+ *
+ * <p>A change copies one segment and the small arrays that point at the segments,
+ * so it costs time proportional to the segment size plus the number of segments
+ * rather than to the whole list. Since no list ever changes after it is built, any
+ * number of threads can read one while another thread derives newer versions.</p>
+ *
+ * @param <E> The type of the elements
+ */
+public final class SnapshotList<E> extends AbstractList<E> implements RandomAccess {
+    /** The most elements a segment holds. */
+    static final int SEGMENT_CAPACITY = 512;
+
+    private static final SnapshotList<Object> EMPTY = new SnapshotList<>(new Object[0][], new int[0]);
+
+    private final Object[][] segments;
+    /** {@code ends[i]} is the number of elements in segments 0 to i. */
+    private final int[] ends;
+
+    private SnapshotList(Object[][] segments, int[] ends) {
+        this.segments = segments;
+        this.ends = ends;
+    }
+
+    /**
+     * Returns the empty list.
+     *
+     * @param <E> The type of the elements
+     * @return An empty SnapshotList
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> SnapshotList<E> empty() {
+        return (SnapshotList<E>) EMPTY;
+    }
+
+    /**
+     * Returns a list holding the given elements in order, with every segment full.
+     *
+     * @param elements The elements to hold
+     * @param <E> The type of the elements
+     * @return A new SnapshotList
+     */
+    public static <E> SnapshotList<E> of(Collection<? extends E> elements) {
+        Object[] all = elements.toArray();
+        int segmentCount = (all.length + SEGMENT_CAPACITY - 1) / SEGMENT_CAPACITY;
+        Object[][] segments = new Object[segmentCount][];
+        int[] ends = new int[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int start = i * SEGMENT_CAPACITY;
+            int end = Math.min(all.length, start + SEGMENT_CAPACITY);
+            segments[i] = Arrays.copyOfRange(all, start, end);
+            ends[i] = end;
+        }
+        return new SnapshotList<>(segments, ends);
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        int segment = findSegment(index);
+        return (E) segments[segment][index - start(segment)];
+    }
+
+    /**
+     * Returns a list with the element added at the end.
+     *
+     * @param element The element to add
+     * @return The new list
+     */
+    public SnapshotList<E> withAdded(E element) {
+        int last = segments.length - 1;
+        if (last < 0 || segments[last].length == SEGMENT_CAPACITY) {
+            Object[][] newSegments = Arrays.copyOf(segments, segments.length + 1);
+            int[] newEnds = Arrays.copyOf(ends, ends.length + 1);
+            newSegments[last + 1] = new Object[] {element};
+            newEnds[last + 1] = size() + 1;
+            return new SnapshotList<>(newSegments, newEnds);
+        }
+
+        Object[][] newSegments = segments.clone();
+        Object[] segment = Arrays.copyOf(segments[last], segments[last].length + 1);
+        segment[segment.length - 1] = element;
+        newSegments[last] = segment;
+        int[] newEnds = ends.clone();
+        newEnds[last]++;
+        return new SnapshotList<>(newSegments, newEnds);
+    }
+
+    /**
+     * Returns a list with the element at the given index replaced.
+     *
+     * @param index The index to replace (0-based)
+     * @param element The element to put there
+     * @return The new list
+     */
+    public SnapshotList<E> withSet(int index, E element) {
+        Objects.checkIndex(index, size());
+        int segment = findSegment(index);
+        Object[][] newSegments = segments.clone();
+        newSegments[segment] = segments[segment].clone();
+        newSegments[segment][index - start(segment)] = element;
+        // The segment sizes are unchanged, so the ends can be shared
+        return new SnapshotList<>(newSegments, ends);
+    }
+
+    /**
+     * Returns a list without the element at the given index.
+     *
+     * @param index The index to remove (0-based)
+     * @return The new list
+     */
+    public SnapshotList<E> withRemoved(int index) {
+        Objects.checkIndex(index, size());
+        int segment = findSegment(index);
+        int offset = index - start(segment);
+        Object[] old = segments[segment];
+
+        if (old.length == 1) {
+            Object[][] newSegments = new Object[segments.length - 1][];
+            int[] newEnds = new int[ends.length - 1];
+            System.arraycopy(segments, 0, newSegments, 0, segment);
+            System.arraycopy(segments, segment + 1, newSegments, segment, segments.length - segment - 1);
+            System.arraycopy(ends, 0, newEnds, 0, segment);
+            for (int i = segment + 1; i < ends.length; i++) {
+                newEnds[i - 1] = ends[i] - 1;
+            }
+            return new SnapshotList<>(newSegments, newEnds);
+        }
+
+        Object[] shrunk = new Object[old.length - 1];
+        System.arraycopy(old, 0, shrunk, 0, offset);
+        System.arraycopy(old, offset + 1, shrunk, offset, old.length - offset - 1);
+        Object[][] newSegments = segments.clone();
+        newSegments[segment] = shrunk;
+        int[] newEnds = ends.clone();
+        for (int i = segment; i < newEnds.length; i++) {
+            newEnds[i]--;
+        }
+        return new SnapshotList<>(newSegments, newEnds);
+    }
+
+    private int start(int segment) {
+        return segment == 0 ? 0 : ends[segment - 1];
+    }
+
+    /**
+     * Returns the segment holding the element at the given index.
+     */
+    private int findSegment(int index) {
+        int low = 0;
+        int high = ends.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] > index) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,114 @@
+package vinux.index;
+
+import java.util.BitSet;
+
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+
+/**
+ * Keeps one bitset per attribute of the tasks in a list, indexed by sequence number:
+ * every live task, the todos, the deadlines, the events and the tasks that are done.
+ * A query over those attributes is then a few word-wide ANDs and ORs of whole bitsets
+ * rather than a check of every task.
+ *
+ * <p>As with {@link TaskCounts}, the owner reports every change, including each task
+ * that changes between done and not done. The bitsets are returned as they are and
+ * must not be changed by the caller.</p>
+ */
+public class TaskAttributes {
+    private final BitSet all = new BitSet();
+    private final BitSet todos = new BitSet();
+    private final BitSet deadlines = new BitSet();
+    private final BitSet events = new BitSet();
+    private final BitSet done = new BitSet();
+
+    /**
+     * Records a task added to the list.
+     *
+     * @param sequence The task's sequence number
+     * @param task The task that was added
+     */
+    public void add(int sequence, Task task) {
+        all.set(sequence);
+        if (task instanceof Deadline) {
+            deadlines.set(sequence);
+        } else if (task instanceof Event) {
+            events.set(sequence);
+        } else {
+            todos.set(sequence);
+        }
+        done.set(sequence, task.isDone());
+    }
+
+    /**
+     * Forgets a task removed from the list.
+     *
+     * @param sequence The task's sequence number
+     */
+    public void remove(int sequence) {
+        all.clear(sequence);
+        todos.clear(sequence);
+        deadlines.clear(sequence);
+        events.clear(sequence);
+        done.clear(sequence);
+    }
+
+    /**
+     * Records a task in the list changing between done and not done.
+     *
+     * @param sequence The task's sequence number
+     * @param isDone Whether the task is done after the change
+     */
+    public void updateDone(int sequence, boolean isDone) {
+        assert all.get(sequence) : "Task should be in the list: " + sequence;
+        done.set(sequence, isDone);
+    }
+
+    /**
+     * Forgets every task.
+     */
+    public void clear() {
+        all.clear();
+        todos.clear();
+        deadlines.clear();
+        events.clear();
+        done.clear();
+    }
+
+    /**
+     * Returns the sequence numbers of every task in the list.
+     *
+     * @return The live tasks, not to be changed
+     */
+    public BitSet getAll() {
+        return all;
+    }
+
+    /**
+     * Returns the sequence numbers of the tasks of one type.
+     *
+     * @param typeIcon The type, as shown in the list: T, D or E
+     * @return The tasks of that type, not to be changed
+     */
+    public BitSet getType(char typeIcon) {
+        switch (typeIcon) {
+        case 'D':
+            return deadlines;
+        case 'E':
+            return events;
+        default:
+            assert typeIcon == 'T' : "Unknown task type: " + typeIcon;
+            return todos;
+        }
+    }
+
+    /**
+     * Returns the sequence numbers of the tasks that are done.
+     *
+     * @return The done tasks, not to be changed
+     */
+    public BitSet getDone() {
+        return done;
+    }
+}
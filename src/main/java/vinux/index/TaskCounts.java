@@ -0,0 +1,124 @@
+package vinux.index;
+
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Keeps running counts of the tasks in a list by type and by completion, so a
+ * summary of the list costs nothing however long it is.
+ *
+ * <p>The owner reports every change to the list, including each task that changes
+ * between done and not done; a task marked behind the owner's back makes the counts
+ * drift.</p>
+ */
+public class TaskCounts {
+    private int todoCount;
+    private int deadlineCount;
+    private int eventCount;
+    private int doneCount;
+    private int total;
+
+    /**
+     * Counts a task added to the list.
+     *
+     * @param task The task that was added
+     */
+    public void add(Task task) {
+        update(task, 1);
+    }
+
+    /**
+     * Stops counting a task removed from the list.
+     *
+     * @param task The task that was removed
+     */
+    public void remove(Task task) {
+        update(task, -1);
+    }
+
+    private void update(Task task, int change) {
+        if (task instanceof Todo) {
+            todoCount += change;
+        } else if (task instanceof Deadline) {
+            deadlineCount += change;
+        } else if (task instanceof Event) {
+            eventCount += change;
+        }
+        if (task.isDone()) {
+            doneCount += change;
+        }
+        total += change;
+        assert todoCount >= 0 && deadlineCount >= 0 && eventCount >= 0 && doneCount >= 0
+                : "Counts should not go negative";
+    }
+
+    /**
+     * Records a task in the list changing between done and not done.
+     *
+     * @param wasDone Whether the task was done before the change
+     * @param isDone Whether the task is done after the change
+     */
+    public void updateDone(boolean wasDone, boolean isDone) {
+        if (wasDone != isDone) {
+            doneCount += isDone ? 1 : -1;
+        }
+    }
+
+    /**
+     * Forgets every task.
+     */
+    public void clear() {
+        todoCount = 0;
+        deadlineCount = 0;
+        eventCount = 0;
+        doneCount = 0;
+        total = 0;
+    }
+
+    /**
+     * Returns the number of todos.
+     *
+     * @return The todo count
+     */
+    public int getTodoCount() {
+        return todoCount;
+    }
+
+    /**
+     * Returns the number of deadlines.
+     *
+     * @return The deadline count
+     */
+    public int getDeadlineCount() {
+        return deadlineCount;
+    }
+
+    /**
+     * Returns the number of events.
+     *
+     * @return The event count
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the number of tasks that are done.
+     *
+     * @return The done count
+     */
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    /**
+     * Returns the number of tasks counted.
+     *
+     * @return The total count
+     */
+    public int getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,163 @@
+package vinux.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Maps every three-character substring of the lowercased task descriptions to the
+ * tasks that contain it.
+ *
+ * <p>A description containing the query also contains every trigram of the query,
+ * so intersecting the query's trigram lists gives a small set of candidates for a
+ * substring search, which the caller confirms with {@link String#contains}.
+ * Queries shorter than {@link #GRAM_LENGTH} characters have no trigrams and cannot
+ * be narrowed this way.</p>
+ */
+public class TrigramIndex {
+    public static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    /**
+     * Returns the distinct trigrams of the text, sorted, each packed into a long.
+     */
+    private static long[] trigrams(String text) {
+        int count = Math.max(0, text.length() - GRAM_LENGTH + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    /**
+     * Indexes a task added to the end of the list.
+     *
+     * @param sequence The task's sequence number, larger than any indexed so far
+     * @param description The lowercased description of the task
+     */
+    public void add(int sequence, String description) {
+        for (long gram : trigrams(description)) {
+            postings.computeIfAbsent(gram, newGram -> new PostingList()).add(sequence);
+        }
+    }
+
+    /**
+     * Removes a deleted task from the index.
+     *
+     * @param sequence The task's sequence number
+     * @param description The lowercased description of the task
+     */
+    public void remove(int sequence, String description) {
+        for (long gram : trigrams(description)) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(sequence) && list.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    public void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Returns the tasks whose lowercased descriptions hold every trigram of the query.
+     * Every task that contains the query is included; the caller checks each candidate.
+     *
+     * @param query The lowercased query
+     * @return The candidates' sequence numbers, or null if the query is too short to narrow by;
+     *         must not be changed
+     */
+    public PostingList candidates(String query) {
+        List<PostingList> lists = listsFor(query);
+        if (lists == null || lists.isEmpty()) {
+            return lists == null ? null : new PostingList();
+        }
+
+        PostingList result = lists.get(0);
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result = result.intersect(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Calls the action with each candidate for the query, in order of sequence number,
+     * until it returns false. The lists are intersected one candidate at a time instead
+     * of up front, so stopping after a few candidates costs only those few steps.
+     *
+     * @param query The lowercased query
+     * @param action The action to call with each candidate's sequence number; returns
+     *               whether to go on
+     * @return false if the query is too short to narrow by, in which case the action is not called
+     */
+    public boolean forEachCandidate(String query, IntPredicate action) {
+        List<PostingList> lists = listsFor(query);
+        if (lists == null) {
+            return false;
+        }
+        if (lists.isEmpty()) {
+            return true;
+        }
+
+        PostingList rarest = lists.get(0);
+        int[] positions = new int[lists.size()];
+        for (int i = 0; i < rarest.size(); i++) {
+            int sequence = rarest.get(i);
+            boolean isEverywhere = true;
+            for (int list = 1; list < lists.size() && isEverywhere; list++) {
+                PostingList other = lists.get(list);
+                positions[list] = other.seek(sequence, positions[list]);
+                if (positions[list] == other.size()) {
+                    return true;
+                }
+                isEverywhere = other.get(positions[list]) == sequence;
+            }
+            if (isEverywhere && !action.test(sequence)) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the lists of the query's trigrams, rarest first.
+     *
+     * @return The lists, empty if some trigram is in no task, or null if the query has no trigrams
+     */
+    private List<PostingList> listsFor(String query) {
+        long[] grams = trigrams(query);
+        if (grams.length == 0) {
+            return null;
+        }
+
+        List<PostingList> lists = new ArrayList<>();
+        for (long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            lists.add(list);
+        }
+        // Start from the rarest trigram so every intersection stays small
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        return lists;
+    }
+}
@@ -0,0 +1,250 @@
+package vinux.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import vinux.VinuxException;
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Reads and writes the compact binary task file format.
+ * Layout: the magic bytes "VNXB", a version byte, then one record per task.
+ * Each record is a header byte (task type in the low bits, done flag in the top bit)
+ * followed by the description as a varint length and UTF-8 bytes. Deadlines add the
+ * due date as a zigzag varint epoch day; events add the start and end strings.
+ * Nothing is parsed from free text, so descriptions may contain " by " or " to ".
+ */
+public class BinaryTaskCodec {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'V', 'N', 'X', 'B'};
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+    private static final int TYPE_MASK = 0x03;
+    private static final int DONE_FLAG = 0x80;
+
+    /**
+     * Checks whether the given bytes start with the binary file header.
+     *
+     * @param header The first bytes of a file
+     * @param length The number of valid bytes in {@code header}
+     * @return true if the bytes identify a binary task file
+     */
+    public static boolean isBinary(byte[] header, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the file header followed by every task.
+     *
+     * @param tasks The tasks to write, in list order
+     * @param out The stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void write(Iterable<Task> tasks, OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+        for (Task task : tasks) {
+            writeTask(task, out);
+        }
+    }
+
+    /**
+     * Writes a single task record.
+     *
+     * @param task The task to write
+     * @param out The stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void writeTask(Task task, OutputStream out) throws IOException {
+        int header = task.isDone() ? DONE_FLAG : 0;
+        if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            out.write(header | TYPE_DEADLINE);
+            writeString(task.getDescription(), out);
+            writeVarLong(zigzag(deadline.getBy().toEpochDay()), out);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            out.write(header | TYPE_EVENT);
+            writeString(task.getDescription(), out);
+            writeString(event.getFrom(), out);
+            writeString(event.getTo(), out);
+        } else {
+            out.write(header | TYPE_TODO);
+            writeString(task.getDescription(), out);
+        }
+    }
+
+    /**
+     * Reads the file header and every task record that follows it.
+     *
+     * @param buffer The file contents, positioned at the header
+     * @return The tasks in file order
+     * @throws VinuxException if the data is not a supported or intact binary task file
+     */
+    public static ArrayList<Task> read(ByteBuffer buffer) throws VinuxException {
+        try {
+            readHeader(buffer);
+
+            ArrayList<Task> tasks = new ArrayList<>();
+            while (buffer.hasRemaining()) {
+                tasks.add(readTask(buffer));
+            }
+            return tasks;
+        } catch (BufferUnderflowException underflowException) {
+            throw new VinuxException("Truncated binary task file");
+        }
+    }
+
+    /**
+     * Reads and checks the file header.
+     *
+     * @param buffer The file contents, positioned at the header
+     * @throws VinuxException if the data is not a supported binary task file
+     * @throws BufferUnderflowException if the buffer ends inside the header
+     */
+    public static void readHeader(ByteBuffer buffer) throws VinuxException {
+        byte[] header = new byte[MAGIC.length + 1];
+        buffer.get(header);
+        if (!isBinary(header, MAGIC.length)) {
+            throw new VinuxException("Not a binary task file");
+        }
+        if (header[MAGIC.length] != VERSION) {
+            throw new VinuxException("Unsupported task file version: " + header[MAGIC.length]);
+        }
+    }
+
+    /**
+     * Moves past a single task record without decoding it.
+     *
+     * @param buffer The bytes to read, positioned at the start of a record
+     * @throws VinuxException if the record is invalid
+     * @throws BufferUnderflowException if the buffer ends inside the record
+     */
+    public static void skipTask(ByteBuffer buffer) throws VinuxException {
+        int header = buffer.get() & 0xFF;
+        skipString(buffer);
+
+        switch (header & TYPE_MASK) {
+        case TYPE_TODO:
+            break;
+        case TYPE_DEADLINE:
+            readVarLong(buffer);
+            break;
+        case TYPE_EVENT:
+            skipString(buffer);
+            skipString(buffer);
+            break;
+        default:
+            throw new VinuxException("Unknown task type in binary file: " + (header & TYPE_MASK));
+        }
+    }
+
+    /**
+     * Reads a single task record.
+     *
+     * @param buffer The bytes to read, positioned at the start of a record
+     * @return The decoded task
+     * @throws VinuxException if the record is invalid
+     */
+    public static Task readTask(ByteBuffer buffer) throws VinuxException {
+        int header = buffer.get() & 0xFF;
+        String description = readString(buffer);
+
+        Task task;
+        switch (header & TYPE_MASK) {
+        case TYPE_TODO:
+            task = new Todo(description);
+            break;
+        case TYPE_DEADLINE:
+            task = new Deadline(description, LocalDate.ofEpochDay(unzigzag(readVarLong(buffer))));
+            break;
+        case TYPE_EVENT:
+            task = new Event(description, readString(buffer), readString(buffer));
+            break;
+        default:
+            throw new VinuxException("Unknown task type in binary file: " + (header & TYPE_MASK));
+        }
+
+        if ((header & DONE_FLAG) != 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static void writeString(String value, OutputStream out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length, out);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws VinuxException {
+        long length = readVarLong(buffer);
+        if (length > buffer.remaining()) {
+            throw new VinuxException("Truncated binary task file");
+        }
+        if (!buffer.hasArray()) {
+            // Mapped and read-only buffers have to be copied out first
+            byte[] bytes = new byte[(int) length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), (int) length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + (int) length);
+        return value;
+    }
+
+    private static void skipString(ByteBuffer buffer) throws VinuxException {
+        long length = readVarLong(buffer);
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + (int) length);
+    }
+
+    private static void writeVarLong(long value, OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws VinuxException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new VinuxException("Malformed varint in binary task file");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
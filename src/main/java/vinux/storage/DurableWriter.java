@@ -0,0 +1,192 @@
+package vinux.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes files so that a crash never leaves them half-written, and syncs them
+ * to disk according to a {@link SyncPolicy}.
+ * Whole-file saves go to a temp file in the same directory which is then renamed
+ * over the target, so readers see either the old or the new contents.
+ */
+public class DurableWriter {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Produces the contents of a file being replaced.
+     */
+    public interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final SyncPolicy policy;
+    private final Set<Path> unsyncedPaths = new LinkedHashSet<>();
+    private ScheduledExecutorService groupCommitter;
+
+    /**
+     * Constructs a DurableWriter that follows the given policy.
+     *
+     * @param policy When written data is synced to disk
+     */
+    public DurableWriter(SyncPolicy policy) {
+        assert policy != null : "Sync policy should not be null";
+        this.policy = policy;
+
+        if (policy.getMode() == SyncPolicy.Mode.GROUP_COMMIT) {
+            groupCommitter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "vinux-group-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            groupCommitter.scheduleWithFixedDelay(this::syncPending, policy.getIntervalMillis(),
+                    policy.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Atomically replaces the target file with new contents.
+     * Unless the OS manages write-back, the new contents and the rename are synced before
+     * this returns, even under group commit: callers delete what the old file needed (such
+     * as journal generations) right after, so a rename the disk has not seen could leave
+     * an empty or partial file with nothing left to rebuild it from.
+     *
+     * @param target The file to replace
+     * @param content Writes the new contents
+     * @throws IOException if the file cannot be written
+     */
+    public void replace(Path target, Content content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            content.writeTo(out);
+            out.flush();
+            if (policy.getMode() != SyncPolicy.Mode.OS_MANAGED) {
+                channel.force(true);
+            }
+        }
+
+        move(temp, target);
+        if (policy.getMode() != SyncPolicy.Mode.OS_MANAGED) {
+            syncDirectory(target);
+        }
+    }
+
+    /**
+     * Appends bytes to the end of the target file, creating it if needed.
+     *
+     * @param target The file to append to
+     * @param bytes The bytes to append
+     * @throws IOException if the file cannot be written
+     */
+    public void append(Path target, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (policy.getMode() == SyncPolicy.Mode.EVERY_COMMAND) {
+                channel.force(false);
+            }
+        }
+        afterWrite(target);
+    }
+
+    /**
+     * Overwrites bytes at the given position of an existing file.
+     * A write of a single byte is never torn by a crash.
+     *
+     * @param target The file to write to
+     * @param position The offset of the first byte to overwrite
+     * @param bytes The bytes to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeAt(Path target, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+            if (policy.getMode() == SyncPolicy.Mode.EVERY_COMMAND) {
+                channel.force(false);
+            }
+        }
+        afterWrite(target);
+    }
+
+    /**
+     * Moves a file over the target as one atomic step where the file system allows it.
+     *
+     * @param source The file to move
+     * @param target The file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    public void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException atomicException) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void afterWrite(Path target) {
+        if (policy.getMode() == SyncPolicy.Mode.GROUP_COMMIT) {
+            synchronized (unsyncedPaths) {
+                unsyncedPaths.add(target);
+            }
+        }
+    }
+
+    /**
+     * Syncs every file written since the last group commit.
+     */
+    private void syncPending() {
+        Path[] paths;
+        synchronized (unsyncedPaths) {
+            paths = unsyncedPaths.toArray(new Path[0]);
+            unsyncedPaths.clear();
+        }
+
+        for (Path path : paths) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            } catch (IOException ioException) {
+                // The file was replaced or removed since it was written; the newer write is synced on its own
+            }
+        }
+    }
+
+    private void syncDirectory(Path target) {
+        Path directory = target.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ioException) {
+            // Not every platform can open a directory for syncing (e.g. Windows); the rename is still atomic
+        }
+    }
+
+    /**
+     * Syncs anything still pending and stops the group-commit thread.
+     */
+    public void close() {
+        if (groupCommitter != null) {
+            groupCommitter.shutdown();
+            syncPending();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package vinux.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps files on disk and reads them into the heap.
+ * Writes go through a {@link DurableWriter}, so saves are atomic and synced
+ * according to the {@link SyncPolicy}.
+ */
+public class FileBackend implements StorageBackend {
+    /**
+     * A file opened through a channel, which allows concurrent positional reads.
+     */
+    private static class ChannelSource implements Source {
+        private final FileChannel channel;
+        private final long size;
+
+        private ChannelSource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public int read(ByteBuffer target, long position) throws IOException {
+            return channel.read(target, position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private final DurableWriter writer;
+
+    /**
+     * Constructs a FileBackend that syncs according to the given policy.
+     *
+     * @param syncPolicy When written data is synced to disk
+     */
+    public FileBackend(SyncPolicy syncPolicy) {
+        this.writer = new DurableWriter(syncPolicy);
+    }
+
+    @Override
+    public boolean exists(Path path) {
+        return Files.exists(path);
+    }
+
+    @Override
+    public long size(Path path) throws IOException {
+        return Files.size(path);
+    }
+
+    @Override
+    public long lastModified(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public ByteBuffer read(Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path));
+    }
+
+    @Override
+    public Source open(Path path) throws IOException {
+        return new ChannelSource(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    @Override
+    public void replace(Path path, DurableWriter.Content content) throws IOException {
+        writer.replace(path, content);
+    }
+
+    @Override
+    public void append(Path path, byte[] bytes) throws IOException {
+        writer.append(path, bytes);
+    }
+
+    @Override
+    public void writeAt(Path path, long position, byte[] bytes) throws IOException {
+        writer.writeAt(path, position, bytes);
+    }
+
+    @Override
+    public void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    @Override
+    public void move(Path source, Path target) throws IOException {
+        writer.move(source, target);
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public List<Path> list(Path directory, String prefix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).toList();
+        }
+    }
+
+    @Override
+    public void createDirectories(Path directory) throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+}
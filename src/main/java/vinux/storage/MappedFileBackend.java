@@ -0,0 +1,84 @@
+package vinux.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps files on disk and reads them through memory mappings.
+ * Reads come straight from the page cache without a system call per read or a
+ * copy of the whole file on the heap, which helps most for large binary files.
+ * Writes are the same durable writes as in {@link FileBackend}.
+ *
+ * <p>A mapping sees later in-place writes to its file, but not files that replace
+ * it. Files too large to map in one piece are read through a channel instead.</p>
+ */
+public class MappedFileBackend extends FileBackend {
+    /**
+     * A file read through one read-only mapping.
+     */
+    private static class MappedSource implements Source {
+        private final MappedByteBuffer mapping;
+
+        private MappedSource(MappedByteBuffer mapping) {
+            this.mapping = mapping;
+        }
+
+        @Override
+        public long size() {
+            return mapping.capacity();
+        }
+
+        @Override
+        public int read(ByteBuffer target, long position) {
+            if (position >= mapping.capacity()) {
+                return -1;
+            }
+            int length = (int) Math.min(target.remaining(), mapping.capacity() - position);
+            target.put(mapping.slice((int) position, length));
+            return length;
+        }
+
+        @Override
+        public void close() {
+            // The mapping is released once it is no longer reachable
+        }
+    }
+
+    /**
+     * Constructs a MappedFileBackend that syncs according to the given policy.
+     *
+     * @param syncPolicy When written data is synced to disk
+     */
+    public MappedFileBackend(SyncPolicy syncPolicy) {
+        super(syncPolicy);
+    }
+
+    @Override
+    public ByteBuffer read(Path path) throws IOException {
+        MappedByteBuffer mapping = map(path);
+        return mapping == null ? super.read(path) : mapping;
+    }
+
+    @Override
+    public Source open(Path path) throws IOException {
+        MappedByteBuffer mapping = map(path);
+        return mapping == null ? super.open(path) : new MappedSource(mapping);
+    }
+
+    /**
+     * Maps the whole file read-only, or returns null if it is too large to map in one piece.
+     */
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package vinux.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps files in memory only, for benchmarks and tests that should not touch the disk.
+ * Nothing survives the backend: a new MemoryBackend starts with no files.
+ *
+ * <p>Reads return views of the stored bytes rather than copies. Like a mapping, a
+ * view sees later in-place writes to its file, but not files that replace it.</p>
+ */
+public class MemoryBackend implements StorageBackend {
+    /**
+     * The contents of one file. Appends grow the array in steps, so a run of
+     * small appends costs amortized constant time.
+     */
+    private static class MemoryFile {
+        private byte[] bytes;
+        private int length;
+        private long modified;
+
+        private MemoryFile(byte[] bytes, int length, long modified) {
+            this.bytes = bytes;
+            this.length = length;
+            this.modified = modified;
+        }
+
+        private ByteBuffer view() {
+            return ByteBuffer.wrap(bytes, 0, length).slice().asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * A file read from its stored bytes as they were when it was opened.
+     */
+    private static class MemorySource implements Source {
+        private final ByteBuffer contents;
+
+        private MemorySource(ByteBuffer contents) {
+            this.contents = contents;
+        }
+
+        @Override
+        public long size() {
+            return contents.limit();
+        }
+
+        @Override
+        public int read(ByteBuffer target, long position) {
+            if (position >= contents.limit()) {
+                return -1;
+            }
+            int length = (int) Math.min(target.remaining(), contents.limit() - position);
+            target.put(contents.slice((int) position, length));
+            return length;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+
+    private final Map<Path, MemoryFile> files = new HashMap<>();
+    private long writeCount;
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private MemoryFile get(Path path) throws IOException {
+        MemoryFile file = files.get(key(path));
+        if (file == null) {
+            throw new NoSuchFileException(path.toString());
+        }
+        return file;
+    }
+
+    @Override
+    public synchronized boolean exists(Path path) {
+        return files.containsKey(key(path));
+    }
+
+    @Override
+    public synchronized long size(Path path) throws IOException {
+        return get(path).length;
+    }
+
+    @Override
+    public synchronized long lastModified(Path path) throws IOException {
+        return get(path).modified;
+    }
+
+    @Override
+    public synchronized ByteBuffer read(Path path) throws IOException {
+        return get(path).view();
+    }
+
+    @Override
+    public synchronized Source open(Path path) throws IOException {
+        return new MemorySource(get(path).view());
+    }
+
+    /**
+     * Builds the new contents outside the lock, then swaps them in as one step.
+     */
+    @Override
+    public void replace(Path path, DurableWriter.Content content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeTo(out);
+        byte[] bytes = out.toByteArray();
+        synchronized (this) {
+            files.put(key(path), new MemoryFile(bytes, bytes.length, ++writeCount));
+        }
+    }
+
+    @Override
+    public synchronized void append(Path path, byte[] bytes) {
+        MemoryFile file = files.computeIfAbsent(key(path), newPath -> new MemoryFile(new byte[0], 0, 0));
+        if (file.length + bytes.length > file.bytes.length) {
+            file.bytes = Arrays.copyOf(file.bytes, Math.max(file.length + bytes.length, file.bytes.length * 2));
+        }
+        System.arraycopy(bytes, 0, file.bytes, file.length, bytes.length);
+        file.length += bytes.length;
+        file.modified = ++writeCount;
+    }
+
+    @Override
+    public synchronized void writeAt(Path path, long position, byte[] bytes) throws IOException {
+        MemoryFile file = get(path);
+        if (position + bytes.length > file.length) {
+            throw new IOException("Write past the end of " + path);
+        }
+        System.arraycopy(bytes, 0, file.bytes, (int) position, bytes.length);
+        file.modified = ++writeCount;
+    }
+
+    @Override
+    public synchronized void truncate(Path path, long size) throws IOException {
+        MemoryFile file = get(path);
+        if (size < file.length) {
+            // Copy, so views already handed out keep their bytes
+            file.bytes = Arrays.copyOf(file.bytes, (int) size);
+            file.length = (int) size;
+            file.modified = ++writeCount;
+        }
+    }
+
+    @Override
+    public synchronized void move(Path source, Path target) throws IOException {
+        MemoryFile file = get(source);
+        files.remove(key(source));
+        files.put(key(target), file);
+    }
+
+    @Override
+    public synchronized void delete(Path path) {
+        files.remove(key(path));
+    }
+
+    @Override
+    public synchronized List<Path> list(Path directory, String prefix) {
+        Path parent = key(directory);
+        List<Path> matches = new ArrayList<>();
+        for (Path path : files.keySet()) {
+            if (parent.equals(path.getParent()) && path.getFileName().toString().startsWith(prefix)) {
+                matches.add(path);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void createDirectories(Path directory) {
+        // Directories exist implicitly
+    }
+
+    @Override
+    public void close() {
+        // Nothing to sync
+    }
+}
@@ -0,0 +1,333 @@
+package vinux.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import vinux.VinuxException;
+import vinux.index.ChunkedList;
+import vinux.index.RankedSlots;
+import vinux.task.Task;
+
+/**
+ * A task list whose tasks stay in the file until they are asked for.
+ * Tasks are decoded a page at a time through a {@link TaskFileIndex} and kept in a
+ * small least-recently-used cache. Changes since loading are held in memory on top
+ * of the file: the tasks added, the file positions deleted, and file tasks whose
+ * status changed, which are pinned so that evicting their page does not lose them.
+ * Finding the file position of an index, and deleting one, take logarithmic time.
+ *
+ * <p>A file task whose status is changed directly, rather than through
+ * {@link #set(int, Task)}, is only kept if its page is still cached when the
+ * change happens.</p>
+ */
+public class PagedTaskList extends AbstractList<Task> implements RandomAccess, Closeable {
+    public static final int DEFAULT_CACHED_PAGES = 64;
+
+    /**
+     * The decoded tasks of one page and the status each had in the file.
+     */
+    private static class Page {
+        private final Task[] tasks;
+        private final boolean[] wasDone;
+
+        private Page(List<Task> tasks) {
+            this.tasks = tasks.toArray(new Task[0]);
+            this.wasDone = new boolean[this.tasks.length];
+            for (int i = 0; i < this.tasks.length; i++) {
+                wasDone[i] = this.tasks[i].isDone();
+            }
+        }
+    }
+
+    private final TaskFileIndex index;
+    private final StorageBackend.Source source;
+    private final TaskFileDecoder decoder = new TaskFileDecoder();
+    private final Map<Integer, Page> cache;
+    private final Map<Integer, Task> pinned = new HashMap<>();
+    private final List<Task> appended = new ChunkedList<>();
+    private int fileTaskCount;
+    /** Which file positions are still in the list; null until the first file task is deleted. */
+    private RankedSlots liveFilePositions;
+    private int deletedCount;
+
+    /**
+     * Constructs a PagedTaskList over the given file. The file must not change while
+     * the list is open; Storage moves it aside before saving a new file in its place,
+     * which leaves this list reading the one it was opened on.
+     *
+     * @param backend The backend the task file is kept in
+     * @param dataPath The task file
+     * @param index The index of the task file
+     * @param cachedPages How many decoded pages to keep in memory
+     * @throws VinuxException if the file cannot be opened
+     */
+    public PagedTaskList(StorageBackend backend, Path dataPath, TaskFileIndex index, int cachedPages)
+            throws VinuxException {
+        assert cachedPages > 0 : "At least one page should be cached";
+        this.index = index;
+        this.fileTaskCount = index.getTaskCount();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+                if (size() <= cachedPages) {
+                    return false;
+                }
+                keepChanges(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+
+        try {
+            this.source = fileTaskCount == 0 ? null : backend.open(dataPath);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error loading tasks: " + ioException.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return fileTaskCount - deletedCount + appended.size();
+    }
+
+    @Override
+    public synchronized Task get(int index) {
+        Objects.checkIndex(index, size());
+        int liveFileTasks = fileTaskCount - deletedCount;
+        if (index >= liveFileTasks) {
+            return appended.get(index - liveFileTasks);
+        }
+
+        int position = filePosition(index);
+        Task task = pinned.get(position);
+        if (task != null) {
+            return task;
+        }
+        return loadPage(position / TaskFileIndex.PAGE_SIZE).tasks[position % TaskFileIndex.PAGE_SIZE];
+    }
+
+    /**
+     * Replaces the task at the given index. Setting a task to itself after changing
+     * it keeps the change in memory for as long as the list is open.
+     *
+     * @param index The index of the task (0-based)
+     * @param task The task to store
+     * @return The task that was at the index
+     */
+    @Override
+    public synchronized Task set(int index, Task task) {
+        Task previous = get(index);
+        int liveFileTasks = fileTaskCount - deletedCount;
+        if (index >= liveFileTasks) {
+            appended.set(index - liveFileTasks, task);
+        } else {
+            pinned.put(filePosition(index), task);
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean add(Task task) {
+        appended.add(task);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public synchronized Task remove(int index) {
+        Task task = get(index);
+        int liveFileTasks = fileTaskCount - deletedCount;
+        if (index >= liveFileTasks) {
+            appended.remove(index - liveFileTasks);
+        } else {
+            int position = filePosition(index);
+            markDeleted(position);
+            pinned.remove(position);
+        }
+        modCount++;
+        return task;
+    }
+
+    @Override
+    public synchronized void clear() {
+        fileTaskCount = 0;
+        liveFilePositions = null;
+        deletedCount = 0;
+        pinned.clear();
+        appended.clear();
+        cache.clear();
+        modCount++;
+    }
+
+    /**
+     * Returns the position in the file of the task at the given index, which must be
+     * one of the file tasks still in the list.
+     */
+    private int filePosition(int index) {
+        return liveFilePositions == null ? index : liveFilePositions.select(index);
+    }
+
+    private boolean isDeleted(int position) {
+        return liveFilePositions != null && !liveFilePositions.isLive(position);
+    }
+
+    private void markDeleted(int position) {
+        if (liveFilePositions == null) {
+            liveFilePositions = new RankedSlots(fileTaskCount);
+        }
+        assert liveFilePositions.isLive(position) : "File position should not be deleted twice: " + position;
+        liveFilePositions.remove(position);
+        deletedCount++;
+    }
+
+    private Page loadPage(int pageNumber) {
+        Page page = cache.get(pageNumber);
+        if (page != null) {
+            return page;
+        }
+
+        page = new Page(readPage(pageNumber));
+        cache.put(pageNumber, page);
+        return page;
+    }
+
+    private List<Task> readPage(int pageNumber) {
+        return readPage(index, source, decoder, pageNumber);
+    }
+
+    /**
+     * Reads and decodes one page of the file. Reading through the same source from
+     * several threads is safe as long as each passes its own decoder.
+     */
+    private static List<Task> readPage(TaskFileIndex index, StorageBackend.Source source, TaskFileDecoder decoder,
+            int pageNumber) {
+        long start = index.getPageStart(pageNumber);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (index.getPageEnd(pageNumber) - start));
+        try {
+            while (buffer.hasRemaining()) {
+                if (source.read(buffer, start + buffer.position()) == -1) {
+                    throw new IOException("Task file is shorter than its index");
+                }
+            }
+            buffer.flip();
+
+            List<Task> tasks = new ArrayList<>(TaskFileIndex.PAGE_SIZE);
+            if (index.getFormat() == TaskFileFormat.BINARY) {
+                while (buffer.hasRemaining() && tasks.size() < TaskFileIndex.PAGE_SIZE) {
+                    tasks.add(BinaryTaskCodec.readTask(buffer));
+                }
+            } else {
+                decoder.decodeLines(buffer, 0, buffer.limit(), true, tasks);
+            }
+            return tasks;
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Error reading tasks", ioException);
+        } catch (VinuxException vinuxException) {
+            throw new IllegalStateException("Error reading tasks: " + vinuxException.getMessage());
+        }
+    }
+
+    /**
+     * Returns the tasks as they are now, in an immutable list that later changes do not
+     * affect. Only the changes held in memory are copied; file tasks are decoded from
+     * the file when the returned list is read, a page at a time, so freezing a long
+     * list costs no disk reads and the reads can happen on another thread.
+     * The returned list must not be read after this list is closed.
+     *
+     * @return The tasks, in list order
+     */
+    public synchronized List<Task> freeze() {
+        for (Map.Entry<Integer, Page> entry : cache.entrySet()) {
+            keepChanges(entry.getKey(), entry.getValue());
+        }
+        RankedSlots positions = liveFilePositions == null ? null : new RankedSlots(liveFilePositions);
+        return new FrozenView(index, source, fileTaskCount - deletedCount, positions, new HashMap<>(pinned),
+                new ArrayList<>(appended));
+    }
+
+    /**
+     * Pins every task of an evicted page whose status was changed directly.
+     */
+    private void keepChanges(int pageNumber, Page page) {
+        for (int i = 0; i < page.tasks.length; i++) {
+            int position = pageNumber * TaskFileIndex.PAGE_SIZE + i;
+            boolean isChanged = page.tasks[i].isDone() != page.wasDone[i];
+            if (isChanged && position < fileTaskCount && !isDeleted(position)) {
+                pinned.putIfAbsent(position, page.tasks[i]);
+            }
+        }
+    }
+
+    /**
+     * Closes the file. The list must not be read afterwards.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    /**
+     * The list as it was when {@link #freeze()} was called. File tasks are read through
+     * the shared source with a decoder of its own, keeping the last page read.
+     */
+    private static class FrozenView extends AbstractList<Task> implements RandomAccess {
+        private final TaskFileIndex index;
+        private final StorageBackend.Source source;
+        private final TaskFileDecoder decoder = new TaskFileDecoder();
+        private final int liveFileTasks;
+        private final RankedSlots liveFilePositions;
+        private final Map<Integer, Task> pinned;
+        private final List<Task> appended;
+        private int lastPageNumber = -1;
+        private List<Task> lastPage;
+
+        private FrozenView(TaskFileIndex index, StorageBackend.Source source, int liveFileTasks,
+                RankedSlots liveFilePositions, Map<Integer, Task> pinned, List<Task> appended) {
+            this.index = index;
+            this.source = source;
+            this.liveFileTasks = liveFileTasks;
+            this.liveFilePositions = liveFilePositions;
+            this.pinned = pinned;
+            this.appended = appended;
+        }
+
+        @Override
+        public int size() {
+            return liveFileTasks + appended.size();
+        }
+
+        @Override
+        public synchronized Task get(int index) {
+            Objects.checkIndex(index, size());
+            if (index >= liveFileTasks) {
+                return appended.get(index - liveFileTasks);
+            }
+
+            int position = liveFilePositions == null ? index : liveFilePositions.select(index);
+            Task task = pinned.get(position);
+            if (task != null) {
+                return task;
+            }
+            int pageNumber = position / TaskFileIndex.PAGE_SIZE;
+            if (pageNumber != lastPageNumber) {
+                lastPage = readPage(this.index, source, decoder, pageNumber);
+                lastPageNumber = pageNumber;
+            }
+            return lastPage.get(position % TaskFileIndex.PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package vinux.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import vinux.VinuxException;
+
+/**
+ * Parses a line-oriented file in parallel.
+ * The file is split into chunks that start and end on line boundaries, each chunk
+ * is read and parsed on the common fork-join pool, and the results are joined in
+ * file order. Small files, and machines with a single worker, are parsed chunk by
+ * chunk on the calling thread, which still keeps only one chunk in memory at a time.
+ */
+public class ParallelFileLoader {
+    /** Below this size the cost of splitting outweighs the gain. */
+    private static final long PARALLEL_THRESHOLD = 4 * 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final long SEQUENTIAL_CHUNK_SIZE = 4 * 1024 * 1024;
+    /** More chunks than workers, so one slow chunk does not hold up the rest. */
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int BOUNDARY_WINDOW = 64 * 1024;
+
+    /**
+     * Parses every line in a chunk. Chunks always hold whole lines.
+     *
+     * @param <T> The type of the parsed items
+     */
+    public interface ChunkParser<T> {
+        void parse(ByteBuffer chunk, List<T> results) throws VinuxException;
+    }
+
+    /**
+     * Parses the whole file.
+     *
+     * @param backend The backend the file is kept in
+     * @param path The file to parse
+     * @param parser Parses one chunk; may be called from several threads at once
+     * @param <T> The type of the parsed items
+     * @return The parsed items in file order
+     * @throws VinuxException if the file cannot be read or a line is invalid
+     */
+    public static <T> ArrayList<T> load(StorageBackend backend, Path path, ChunkParser<T> parser)
+            throws VinuxException {
+        try {
+            long size = backend.size(path);
+            int workers = ForkJoinPool.getCommonPoolParallelism();
+            if (size < PARALLEL_THRESHOLD || workers <= 1) {
+                return load(backend, path, parser, SEQUENTIAL_CHUNK_SIZE, false);
+            }
+            long chunkSize = Math.max(MIN_CHUNK_SIZE, size / ((long) workers * CHUNKS_PER_WORKER));
+            return load(backend, path, parser, chunkSize, true);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error reading file: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Parses the whole file in chunks of roughly the given size.
+     *
+     * @param backend The backend the file is kept in
+     * @param path The file to parse
+     * @param parser Parses one chunk
+     * @param chunkSize The size a chunk is cut at, before moving to the next line boundary
+     * @param isParallel Whether chunks are parsed on the fork-join pool
+     * @param <T> The type of the parsed items
+     * @return The parsed items in file order
+     * @throws VinuxException if the file cannot be read or a line is invalid
+     */
+    static <T> ArrayList<T> load(StorageBackend backend, Path path, ChunkParser<T> parser, long chunkSize,
+            boolean isParallel) throws VinuxException {
+        try (StorageBackend.Source source = backend.open(path)) {
+            List<Long> bounds = findChunkBounds(source, chunkSize);
+            if (!isParallel || bounds.size() <= 2) {
+                ArrayList<T> results = new ArrayList<>();
+                for (int i = 0; i + 1 < bounds.size(); i++) {
+                    parser.parse(readChunk(source, bounds.get(i), bounds.get(i + 1)), results);
+                }
+                return results;
+            }
+
+            List<ForkJoinTask<List<T>>> chunks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                long start = bounds.get(i);
+                long end = bounds.get(i + 1);
+                chunks.add(ForkJoinPool.commonPool().submit(() -> {
+                    List<T> results = new ArrayList<>();
+                    parser.parse(readChunk(source, start, end), results);
+                    return results;
+                }));
+            }
+            return join(chunks);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error reading file: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Returns the chunk boundaries, from 0 to the file size. Every boundary other
+     * than those two is just past a line break.
+     */
+    private static List<Long> findChunkBounds(StorageBackend.Source source, long chunkSize) throws IOException {
+        long size = source.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long next = chunkSize;
+        while (next < size) {
+            long boundary = nextLineStart(source, next, size);
+            if (boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            next = boundary + chunkSize;
+        }
+        bounds.add(size);
+        return bounds;
+    }
+
+    private static long nextLineStart(StorageBackend.Source source, long from, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+        for (long position = from; position < size; position += window.limit()) {
+            window.clear();
+            source.read(window, position);
+            window.flip();
+            for (int i = 0; i < window.limit(); i++) {
+                byte b = window.get(i);
+                if (b == '\n' || b == '\r') {
+                    // A "\r\n" split here leaves an empty line at the start of the next chunk
+                    return position + i + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static ByteBuffer readChunk(StorageBackend.Source source, long start, long end) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate((int) (end - start));
+        while (chunk.hasRemaining()) {
+            if (source.read(chunk, start + chunk.position()) == -1) {
+                break;
+            }
+        }
+        chunk.flip();
+        return chunk;
+    }
+
+    private static <T> ArrayList<T> join(List<ForkJoinTask<List<T>>> chunks) throws VinuxException {
+        List<List<T>> parsed = new ArrayList<>();
+        int total = 0;
+        try {
+            for (ForkJoinTask<List<T>> chunk : chunks) {
+                List<T> results = chunk.get();
+                parsed.add(results);
+                total += results.size();
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new VinuxException("Interrupted while loading");
+        } catch (ExecutionException executionException) {
+            for (ForkJoinTask<List<T>> chunk : chunks) {
+                chunk.cancel(false);
+            }
+            // Report the first bad chunk in file order, as a sequential load would
+            // (the pool wraps checked exceptions, so look through the causes)
+            for (Throwable cause = executionException; cause != null; cause = cause.getCause()) {
+                if (cause instanceof VinuxException) {
+                    throw (VinuxException) cause;
+                }
+            }
+            throw new VinuxException("Error reading file: " + executionException.getCause().getMessage());
+        }
+
+        ArrayList<T> merged = new ArrayList<>(total);
+        for (List<T> results : parsed) {
+            merged.addAll(results);
+        }
+        return merged;
+    }
+}
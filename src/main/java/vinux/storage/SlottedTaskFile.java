@@ -0,0 +1,326 @@
+package vinux.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import vinux.VinuxException;
+import vinux.task.Task;
+
+/**
+ * A task file made of fixed-width slots that is updated in place.
+ * Layout: the magic bytes "VNXS", a version byte and three reserved bytes, then
+ * one record per task. A record fills one or more whole {@link #SLOT_SIZE}-byte slots:
+ * a status byte, the number of slots (2 bytes), the payload length (4 bytes) and a
+ * {@link BinaryTaskCodec} task record as the payload.
+ *
+ * <p>Because the status byte sits at a known offset, marking a task is a single
+ * one-byte write. Deleting a task overwrites its status with a tombstone; the space
+ * is reclaimed when the file is rewritten, which happens once tombstones take up
+ * more slots than live tasks. New tasks are written into fresh slots at the end.</p>
+ */
+public class SlottedTaskFile {
+    public static final int VERSION = 1;
+    public static final int SLOT_SIZE = 64;
+
+    private static final byte[] MAGIC = {'V', 'N', 'X', 'S'};
+    private static final int HEADER_LENGTH = 8;
+    private static final int RECORD_HEADER_LENGTH = 7;
+    private static final int MAX_SLOTS_PER_RECORD = 0xFFFF;
+    private static final byte STATUS_NOT_DONE = 1;
+    private static final byte STATUS_DONE = 2;
+    private static final byte STATUS_TOMBSTONE = 3;
+    /** Rewriting a tiny file to save a few slots is not worth it. */
+    private static final int MIN_TOMBSTONE_SLOTS_TO_REWRITE = 1024;
+
+    private final Path path;
+    private final StorageBackend backend;
+    private int[] taskSlots = new int[16];
+    private int[] taskSlotCounts = new int[16];
+    private int taskCount;
+    private int liveSlots;
+    private int tombstoneSlots;
+    private int endSlot;
+
+    /**
+     * Constructs a SlottedTaskFile for the given file. Call {@link #load()} before
+     * changing it.
+     *
+     * @param path The task file
+     * @param backend The backend the file is kept in
+     */
+    public SlottedTaskFile(Path path, StorageBackend backend) {
+        this.path = path;
+        this.backend = backend;
+    }
+
+    /**
+     * Checks whether the given bytes start with the slotted file header.
+     *
+     * @param header The first bytes of a file
+     * @param length The number of valid bytes in {@code header}
+     * @return true if the bytes identify a slotted task file
+     */
+    public static boolean isSlotted(byte[] header, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a compact slotted file holding the given tasks.
+     *
+     * @param tasks The tasks to write, in list order
+     * @param out The stream to write to
+     * @throws IOException if writing fails or a task is too long for a record
+     */
+    public static void write(Iterable<Task> tasks, OutputStream out) throws IOException {
+        out.write(header());
+        for (Task task : tasks) {
+            out.write(encode(task));
+        }
+    }
+
+    /**
+     * Reads the live tasks of a slotted file, skipping tombstones.
+     *
+     * @param buffer The file contents, positioned at the header
+     * @return The tasks in file order
+     * @throws VinuxException if the data is not a supported or intact slotted task file
+     */
+    public static ArrayList<Task> read(ByteBuffer buffer) throws VinuxException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        scan(buffer, tasks, null);
+        return tasks;
+    }
+
+    /**
+     * Reads the file and remembers where each task is stored.
+     * A record cut short by a crash while it was being added is dropped.
+     *
+     * @return The tasks in file order
+     * @throws VinuxException if the file cannot be read or is corrupted
+     */
+    public ArrayList<Task> load() throws VinuxException {
+        try {
+            ArrayList<Task> tasks = new ArrayList<>();
+            clearSlots();
+            endSlot = scan(backend.read(path), tasks, this);
+            backend.truncate(path, HEADER_LENGTH + (long) endSlot * SLOT_SIZE);
+            return tasks;
+        } catch (IOException ioException) {
+            throw new VinuxException("Error loading tasks: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Decodes every complete record, recording slot positions in {@code file} if it is given.
+     *
+     * @return The slot just past the last complete record
+     */
+    private static int scan(ByteBuffer buffer, List<Task> tasks, SlottedTaskFile file) throws VinuxException {
+        byte[] header = new byte[HEADER_LENGTH];
+        if (buffer.remaining() < HEADER_LENGTH) {
+            throw new VinuxException("Truncated slotted task file");
+        }
+        buffer.get(header);
+        if (!isSlotted(header, header.length)) {
+            throw new VinuxException("Not a slotted task file");
+        }
+        if (header[MAGIC.length] != VERSION) {
+            throw new VinuxException("Unsupported task file version: " + header[MAGIC.length]);
+        }
+
+        int slot = 0;
+        while (buffer.remaining() >= SLOT_SIZE) {
+            int start = buffer.position();
+            byte status = buffer.get(start);
+            int slots = buffer.getShort(start + 1) & 0xFFFF;
+            int payloadLength = buffer.getInt(start + 3);
+            boolean isComplete = slots > 0 && (long) slots * SLOT_SIZE <= buffer.remaining();
+            if (!isComplete || status < STATUS_NOT_DONE || status > STATUS_TOMBSTONE) {
+                // Only an interrupted add can leave a partial record, and only at the end
+                break;
+            }
+
+            if (status != STATUS_TOMBSTONE) {
+                if (payloadLength < 0 || payloadLength > slots * SLOT_SIZE - RECORD_HEADER_LENGTH) {
+                    throw new VinuxException("Corrupted slotted task file at slot " + slot);
+                }
+                ByteBuffer payload = buffer.slice(start + RECORD_HEADER_LENGTH, payloadLength);
+                Task task;
+                try {
+                    task = BinaryTaskCodec.readTask(payload);
+                } catch (VinuxException | BufferUnderflowException decodeException) {
+                    if (start + slots * SLOT_SIZE == buffer.limit()) {
+                        break; // the last add was cut off after its header was written
+                    }
+                    throw new VinuxException("Corrupted slotted task file at slot " + slot);
+                }
+                if (status == STATUS_DONE) {
+                    task.markAsDone();
+                } else {
+                    task.markAsNotDone();
+                }
+                tasks.add(task);
+            }
+            if (file != null) {
+                file.addRecord(slot, slots, status != STATUS_TOMBSTONE);
+            }
+
+            slot += slots;
+            buffer.position(start + slots * SLOT_SIZE);
+        }
+        return slot;
+    }
+
+    private void addRecord(int slot, int slots, boolean isLive) {
+        if (!isLive) {
+            tombstoneSlots += slots;
+            return;
+        }
+        if (taskCount == taskSlots.length) {
+            taskSlots = Arrays.copyOf(taskSlots, taskSlots.length * 2);
+            taskSlotCounts = Arrays.copyOf(taskSlotCounts, taskSlotCounts.length * 2);
+        }
+        taskSlots[taskCount] = slot;
+        taskSlotCounts[taskCount] = slots;
+        taskCount++;
+        liveSlots += slots;
+    }
+
+    private void clearSlots() {
+        taskCount = 0;
+        liveSlots = 0;
+        tombstoneSlots = 0;
+        endSlot = 0;
+    }
+
+    private static byte[] header() {
+        byte[] header = new byte[HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[MAGIC.length] = VERSION;
+        return header;
+    }
+
+    private static byte[] encode(Task task) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        BinaryTaskCodec.writeTask(task, payload);
+        int slots = (RECORD_HEADER_LENGTH + payload.size() + SLOT_SIZE - 1) / SLOT_SIZE;
+        if (slots > MAX_SLOTS_PER_RECORD) {
+            throw new IOException("Task is too long to store: " + task.getDescription().length() + " characters");
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(slots * SLOT_SIZE);
+        record.put(task.isDone() ? STATUS_DONE : STATUS_NOT_DONE);
+        record.putShort((short) slots);
+        record.putInt(payload.size());
+        record.put(payload.toByteArray());
+        return record.array();
+    }
+
+    private long slotOffset(int slot) {
+        return HEADER_LENGTH + (long) slot * SLOT_SIZE;
+    }
+
+    /**
+     * Persists the status of the task at the given index with a one-byte write.
+     *
+     * @param index The index of the task (0-based)
+     * @param isDone Whether the task is now done
+     * @throws VinuxException if the file cannot be written
+     */
+    public void writeStatus(int index, boolean isDone) throws VinuxException {
+        assert index >= 0 && index < taskCount : "Index should be within list size: " + index;
+        writeAt(slotOffset(taskSlots[index]), new byte[] {isDone ? STATUS_DONE : STATUS_NOT_DONE});
+    }
+
+    /**
+     * Writes a task that was just added to the end of the list into fresh slots.
+     *
+     * @param task The task that was added
+     * @throws VinuxException if the file cannot be written
+     */
+    public void append(Task task) throws VinuxException {
+        byte[] record;
+        try {
+            record = encode(task);
+        } catch (IOException ioException) {
+            throw new VinuxException(ioException.getMessage());
+        }
+        writeAt(slotOffset(endSlot), record);
+        addRecord(endSlot, record.length / SLOT_SIZE, true);
+        endSlot += record.length / SLOT_SIZE;
+    }
+
+    /**
+     * Turns the record of the task at the given index into a tombstone.
+     *
+     * @param index The index the deleted task had (0-based)
+     * @throws VinuxException if the file cannot be written
+     */
+    public void delete(int index) throws VinuxException {
+        assert index >= 0 && index < taskCount : "Index should be within list size: " + index;
+        writeAt(slotOffset(taskSlots[index]), new byte[] {STATUS_TOMBSTONE});
+
+        liveSlots -= taskSlotCounts[index];
+        tombstoneSlots += taskSlotCounts[index];
+        System.arraycopy(taskSlots, index + 1, taskSlots, index, taskCount - index - 1);
+        System.arraycopy(taskSlotCounts, index + 1, taskSlotCounts, index, taskCount - index - 1);
+        taskCount--;
+    }
+
+    /**
+     * Checks whether enough space is taken by tombstones to be worth a rewrite.
+     *
+     * @return true if {@link #rewrite(Iterable)} should be called
+     */
+    public boolean isRewriteDue() {
+        return tombstoneSlots >= MIN_TOMBSTONE_SLOTS_TO_REWRITE && tombstoneSlots > liveSlots;
+    }
+
+    /**
+     * Atomically replaces the file with a compact one holding exactly the given tasks.
+     *
+     * @param tasks Every task in the list, in order
+     * @throws VinuxException if the file cannot be written
+     */
+    public void rewrite(Iterable<Task> tasks) throws VinuxException {
+        clearSlots();
+        try {
+            backend.replace(path, out -> {
+                out.write(header());
+                for (Task task : tasks) {
+                    byte[] record = encode(task);
+                    out.write(record);
+                    addRecord(endSlot, record.length / SLOT_SIZE, true);
+                    endSlot += record.length / SLOT_SIZE;
+                }
+            });
+        } catch (IOException ioException) {
+            // The old file is still in place; go back to its layout
+            load();
+            throw new VinuxException("Error saving tasks: " + ioException.getMessage());
+        }
+    }
+
+    private void writeAt(long position, byte[] bytes) throws VinuxException {
+        try {
+            backend.writeAt(path, position, bytes);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error saving tasks: " + ioException.getMessage());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package vinux.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import vinux.VinuxException;
+
+/**
+ * Where and how the storage classes keep their files.
+ * Everything that {@link vinux.Storage} and {@link vinux.ExpenseStorage} read or
+ * write, including journals, snapshots and indexes, goes through a backend, so the
+ * same storage code can run on plain files ({@link FileBackend}), on memory-mapped
+ * files ({@link MappedFileBackend}) or without touching the disk at all
+ * ({@link MemoryBackend}).
+ *
+ * <p>Every backend must replace files atomically: readers see either the old or the
+ * new contents of a file, never a mix.</p>
+ */
+public interface StorageBackend {
+    /** The backend used when none is chosen at startup. */
+    String DEFAULT_NAME = "file";
+
+    /**
+     * An open file that can be read from any position, by several threads at once.
+     */
+    interface Source extends Closeable {
+        /**
+         * Returns the size of the file when it was opened.
+         *
+         * @return The size in bytes
+         */
+        long size();
+
+        /**
+         * Reads bytes starting at the given position into the remaining space of the buffer.
+         *
+         * @param target The buffer to fill
+         * @param position The offset of the first byte to read
+         * @return The number of bytes read, or -1 if the position is at or past the end
+         * @throws IOException if the file cannot be read
+         */
+        int read(ByteBuffer target, long position) throws IOException;
+    }
+
+    /**
+     * Creates the backend with the given name, as chosen at startup.
+     *
+     * @param name "file", "mmap" or "memory"
+     * @param syncPolicy When saved data is synced to disk; ignored by the memory backend
+     * @return The new backend
+     * @throws VinuxException if there is no backend with that name
+     */
+    static StorageBackend create(String name, SyncPolicy syncPolicy) throws VinuxException {
+        switch (name) {
+        case "file":
+            return new FileBackend(syncPolicy);
+        case "mmap":
+            return new MappedFileBackend(syncPolicy);
+        case "memory":
+            return new MemoryBackend();
+        default:
+            throw new VinuxException("Unknown storage backend: " + name + " (try file, mmap or memory)");
+        }
+    }
+
+    /**
+     * Checks whether the file exists.
+     *
+     * @param path The file to check
+     * @return true if the file exists
+     */
+    boolean exists(Path path);
+
+    /**
+     * Returns the size of the file.
+     *
+     * @param path The file
+     * @return The size in bytes
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    long size(Path path) throws IOException;
+
+    /**
+     * Returns a stamp that changes whenever the file is written.
+     *
+     * @param path The file
+     * @return The last-modified time in nanoseconds, or another stamp that only increases
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    long lastModified(Path path) throws IOException;
+
+    /**
+     * Returns the whole contents of the file. The buffer may be read-only and may not
+     * be backed by an array.
+     *
+     * @param path The file to read
+     * @return The contents, positioned at the start
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    ByteBuffer read(Path path) throws IOException;
+
+    /**
+     * Opens the file for positional reads.
+     *
+     * @param path The file to open
+     * @return The open file, to be closed by the caller
+     * @throws IOException if the file does not exist or cannot be opened
+     */
+    Source open(Path path) throws IOException;
+
+    /**
+     * Atomically replaces the file with new contents, creating it if needed.
+     *
+     * @param path The file to replace
+     * @param content Writes the new contents
+     * @throws IOException if the file cannot be written
+     */
+    void replace(Path path, DurableWriter.Content content) throws IOException;
+
+    /**
+     * Appends bytes to the end of the file, creating it if needed.
+     *
+     * @param path The file to append to
+     * @param bytes The bytes to append
+     * @throws IOException if the file cannot be written
+     */
+    void append(Path path, byte[] bytes) throws IOException;
+
+    /**
+     * Overwrites bytes at the given position of an existing file.
+     * A write of a single byte is never torn by a crash.
+     *
+     * @param path The file to write to
+     * @param position The offset of the first byte to overwrite
+     * @param bytes The bytes to write
+     * @throws IOException if the file cannot be written
+     */
+    void writeAt(Path path, long position, byte[] bytes) throws IOException;
+
+    /**
+     * Cuts the file down to the given size. Files already that small are left alone.
+     *
+     * @param path The file to truncate
+     * @param size The new size in bytes
+     * @throws IOException if the file cannot be written
+     */
+    void truncate(Path path, long size) throws IOException;
+
+    /**
+     * Moves a file over the target as one atomic step where the backend allows it.
+     *
+     * @param source The file to move
+     * @param target The file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    void move(Path source, Path target) throws IOException;
+
+    /**
+     * Deletes the file if it exists.
+     *
+     * @param path The file to delete
+     * @throws IOException if the file exists but cannot be deleted
+     */
+    void delete(Path path) throws IOException;
+
+    /**
+     * Lists the files in a directory whose names start with the given prefix.
+     * A missing directory has no files.
+     *
+     * @param directory The directory to list
+     * @param prefix The start of the file names to return
+     * @return The matching files, in no particular order
+     * @throws IOException if the directory cannot be read
+     */
+    List<Path> list(Path directory, String prefix) throws IOException;
+
+    /**
+     * Creates the directory and any missing parents.
+     *
+     * @param directory The directory to create
+     * @throws IOException if the directory cannot be created
+     */
+    void createDirectories(Path directory) throws IOException;
+
+    /**
+     * Syncs anything still pending and releases the backend's threads.
+     */
+    void close();
+}
@@ -0,0 +1,75 @@
+package vinux.storage;
+
+/**
+ * Decides when saved data is forced from the OS cache to the disk.
+ * Stricter policies survive power loss at the cost of slower saves.
+ */
+public class SyncPolicy {
+    /**
+     * How often a {@link DurableWriter} calls fsync.
+     */
+    public enum Mode {
+        /** fsync before every save returns. */
+        EVERY_COMMAND,
+        /** fsync everything written in the last interval from a background thread. */
+        GROUP_COMMIT,
+        /** Never fsync; the OS writes the data back whenever it likes. */
+        OS_MANAGED
+    }
+
+    private final Mode mode;
+    private final long intervalMillis;
+
+    private SyncPolicy(Mode mode, long intervalMillis) {
+        this.mode = mode;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Returns a policy that makes every save durable before it returns.
+     *
+     * @return The every-command policy
+     */
+    public static SyncPolicy everyCommand() {
+        return new SyncPolicy(Mode.EVERY_COMMAND, 0);
+    }
+
+    /**
+     * Returns a policy that syncs pending saves together at a fixed interval.
+     * At most {@code intervalMillis} of saves can be lost on power failure.
+     *
+     * @param intervalMillis How often pending saves are synced, in milliseconds
+     * @return The group-commit policy
+     */
+    public static SyncPolicy groupCommit(long intervalMillis) {
+        assert intervalMillis > 0 : "Group commit interval should be positive";
+        return new SyncPolicy(Mode.GROUP_COMMIT, intervalMillis);
+    }
+
+    /**
+     * Returns a policy that leaves write-back to the operating system.
+     *
+     * @return The OS-managed policy
+     */
+    public static SyncPolicy osManaged() {
+        return new SyncPolicy(Mode.OS_MANAGED, 0);
+    }
+
+    /**
+     * Returns how often data is synced under this policy.
+     *
+     * @return The sync mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the group-commit interval, or 0 for other modes.
+     *
+     * @return The interval in milliseconds
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+}
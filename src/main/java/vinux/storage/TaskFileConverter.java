@@ -0,0 +1,55 @@
+package vinux.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import vinux.VinuxException;
+
+/**
+ * Converts task files between the text, binary and slotted formats.
+ * Usage: {@code java vinux.storage.TaskFileConverter <text|binary|slotted> <source> <target>}
+ */
+public class TaskFileConverter {
+
+    /**
+     * Reads the source file in whatever format it is stored in and writes it to the target.
+     *
+     * @param source The file to convert
+     * @param target The file to write
+     * @param targetFormat The format to write the target in
+     * @throws VinuxException if the source cannot be read or the target cannot be written
+     */
+    public static void convert(Path source, Path target, TaskFileFormat targetFormat) throws VinuxException {
+        StorageBackend backend = new FileBackend(SyncPolicy.osManaged());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            targetFormat.write(TaskFileFormat.detect(backend, source).read(backend, source), out);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error converting task file: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Converts a task file from the command line.
+     *
+     * @param args The target format, the source file and the target file
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: TaskFileConverter <text|binary|slotted> <source> <target>");
+            return;
+        }
+
+        try {
+            TaskFileFormat format = TaskFileFormat.valueOf(args[0].toUpperCase());
+            convert(Paths.get(args[1]), Paths.get(args[2]), format);
+        } catch (IllegalArgumentException formatException) {
+            System.out.println("Unknown format: " + args[0]);
+        } catch (VinuxException vinuxException) {
+            System.out.println(vinuxException.getMessage());
+        }
+    }
+}
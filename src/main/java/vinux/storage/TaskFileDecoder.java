@@ -0,0 +1,219 @@
+package vinux.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+import vinux.VinuxException;
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Decodes the text task file straight from its UTF-8 bytes in a single pass.
+ * The grammar is "TODO ✓ description", "DEADLINE ✗ description by 2019-12-31" and
+ * "EVENT ✓ description from start to end", one task per line. The tasks carried by
+ * {@link TaskJournal} ADD records are decoded by the same rules.
+ * Only the description, event times and non-ISO dates are turned into Strings;
+ * everything else is matched byte by byte. Whole files are read through
+ * {@link ParallelFileLoader}, one decoder per chunk.
+ */
+public class TaskFileDecoder {
+    private static final byte[] TODO = ascii("TODO");
+    private static final byte[] DEADLINE = ascii("DEADLINE");
+    private static final byte[] EVENT = ascii("EVENT");
+    private static final byte[] DONE = "✓".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BY = ascii(" by ");
+    private static final byte[] FROM = ascii(" from ");
+    private static final byte[] TO = ascii(" to ");
+
+    private byte[] scratch = new byte[256];
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Decodes the lines in {@code buffer[start, end)} and appends the tasks to {@code tasks}.
+     * Blank lines are skipped; "\n", "\r\n" and "\r" all end a line.
+     *
+     * @param buffer The bytes to decode
+     * @param start The offset of the first line
+     * @param end The offset just past the last byte to look at
+     * @param isEndOfInput Whether a trailing line without a line break is complete
+     * @param tasks The list the decoded tasks are appended to
+     * @return The number of bytes consumed, always ending on a line boundary
+     * @throws VinuxException if a line is invalid
+     */
+    public int decodeLines(ByteBuffer buffer, int start, int end, boolean isEndOfInput, List<Task> tasks)
+            throws VinuxException {
+        int lineStart = start;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != '\n' && b != '\r') {
+                continue;
+            }
+            decodeLineInto(buffer, lineStart, i, tasks);
+            if (b == '\r' && i + 1 < end && buffer.get(i + 1) == '\n') {
+                i++;
+            }
+            lineStart = i + 1;
+        }
+
+        if (isEndOfInput && lineStart < end) {
+            decodeLineInto(buffer, lineStart, end, tasks);
+            lineStart = end;
+        }
+        return lineStart - start;
+    }
+
+    private void decodeLineInto(ByteBuffer buffer, int start, int end, List<Task> tasks) throws VinuxException {
+        if (!isBlank(buffer, start, end)) {
+            tasks.add(decodeLine(buffer, start, end));
+        }
+    }
+
+    /**
+     * Decodes a single non-blank line.
+     *
+     * @param buffer The bytes holding the line
+     * @param start The offset of the first byte of the line
+     * @param end The offset just past the last byte of the line
+     * @return The decoded task
+     * @throws VinuxException if the line is invalid
+     */
+    public Task decodeLine(ByteBuffer buffer, int start, int end) throws VinuxException {
+        int typeEnd = indexOf(buffer, (byte) ' ', start, end);
+        int statusEnd = typeEnd == -1 ? -1 : indexOf(buffer, (byte) ' ', typeEnd + 1, end);
+        if (statusEnd == -1) {
+            throw new VinuxException("Invalid file format: " + string(buffer, start, end));
+        }
+
+        boolean isDone = regionEquals(buffer, typeEnd + 1, statusEnd, DONE);
+        int detailsStart = statusEnd + 1;
+
+        Task task;
+        if (regionEquals(buffer, start, typeEnd, TODO)) {
+            task = new Todo(string(buffer, detailsStart, end));
+        } else if (regionEquals(buffer, start, typeEnd, DEADLINE)) {
+            task = decodeDeadline(buffer, detailsStart, end);
+        } else if (regionEquals(buffer, start, typeEnd, EVENT)) {
+            task = decodeEvent(buffer, detailsStart, end);
+        } else {
+            throw new VinuxException("Unknown task type: " + string(buffer, start, typeEnd));
+        }
+
+        if (isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private Deadline decodeDeadline(ByteBuffer buffer, int start, int end) throws VinuxException {
+        int byIndex = indexOf(buffer, BY, start, end);
+        if (byIndex == -1) {
+            throw new VinuxException("Invalid deadline format: " + string(buffer, start, end));
+        }
+
+        String description = string(buffer, start, byIndex);
+        return new Deadline(description, decodeDate(buffer, byIndex + BY.length, end));
+    }
+
+    private Event decodeEvent(ByteBuffer buffer, int start, int end) throws VinuxException {
+        int fromIndex = indexOf(buffer, FROM, start, end);
+        // Only look for " to " after " from " so descriptions like "go to gym" still decode
+        int toIndex = fromIndex == -1 ? -1 : indexOf(buffer, TO, fromIndex + FROM.length, end);
+        if (toIndex == -1) {
+            throw new VinuxException("Invalid event format: " + string(buffer, start, end));
+        }
+
+        return new Event(string(buffer, start, fromIndex),
+                string(buffer, fromIndex + FROM.length, toIndex),
+                string(buffer, toIndex + TO.length, end));
+    }
+
+    /**
+     * Decodes an ISO date, reading "yyyy-MM-dd" digits directly and falling back
+     * to {@link LocalDate#parse} for anything else.
+     */
+    private LocalDate decodeDate(ByteBuffer buffer, int start, int end) throws VinuxException {
+        try {
+            if (end - start == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+                int year = digits(buffer, start, start + 4);
+                int month = digits(buffer, start + 5, start + 7);
+                int day = digits(buffer, start + 8, start + 10);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    return LocalDate.of(year, month, day);
+                }
+            }
+            return LocalDate.parse(string(buffer, start, end));
+        } catch (DateTimeException dateException) {
+            throw new VinuxException("Invalid date format: " + string(buffer, start, end));
+        }
+    }
+
+    /** Returns the decimal value of the digits in the range, or -1 if any byte is not a digit. */
+    private static int digits(ByteBuffer buffer, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            // Same rule as String.trim(): every byte up to ' ' counts as whitespace
+            if ((buffer.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte target, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] target, int start, int end) {
+        for (int i = start; i <= end - target.length; i++) {
+            if (regionEquals(buffer, i, i + target.length, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(ByteBuffer buffer, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String string(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package vinux.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import vinux.VinuxException;
+import vinux.task.Task;
+
+/**
+ * The on-disk formats a task file can be stored in.
+ * TEXT is the original one-line-per-task format; BINARY is the compact
+ * format written by {@link BinaryTaskCodec}; SLOTTED is the fixed-width record
+ * format of {@link SlottedTaskFile}, which can be updated in place.
+ */
+public enum TaskFileFormat {
+    TEXT,
+    BINARY,
+    SLOTTED;
+
+    private static final int HEADER_LENGTH = 4;
+
+    /**
+     * Works out the format of an existing file from its first bytes.
+     * Missing and empty files are reported as TEXT.
+     *
+     * @param backend The backend the file is kept in
+     * @param path The file to inspect
+     * @return The format the file is stored in
+     * @throws VinuxException if the file cannot be read
+     */
+    public static TaskFileFormat detect(StorageBackend backend, Path path) throws VinuxException {
+        if (!backend.exists(path)) {
+            return TEXT;
+        }
+        try (StorageBackend.Source source = backend.open(path)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining()) {
+                if (source.read(header, header.position()) == -1) {
+                    break;
+                }
+            }
+            if (BinaryTaskCodec.isBinary(header.array(), header.position())) {
+                return BINARY;
+            }
+            return SlottedTaskFile.isSlotted(header.array(), header.position()) ? SLOTTED : TEXT;
+        } catch (IOException ioException) {
+            throw new VinuxException("Error reading task file: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Reads every task from a file stored in this format.
+     *
+     * @param backend The backend the file is kept in
+     * @param path The file to read
+     * @return The tasks in file order
+     * @throws VinuxException if the file cannot be read or is invalid
+     */
+    public ArrayList<Task> read(StorageBackend backend, Path path) throws VinuxException {
+        if (this == TEXT) {
+            return ParallelFileLoader.load(backend, path,
+                    (chunk, tasks) -> new TaskFileDecoder().decodeLines(chunk, 0, chunk.limit(), true, tasks));
+        }
+
+        try {
+            ByteBuffer contents = backend.read(path);
+            return this == SLOTTED ? SlottedTaskFile.read(contents) : BinaryTaskCodec.read(contents);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error loading tasks: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Writes the tasks in this format.
+     *
+     * @param tasks The tasks to write, in list order
+     * @param out The stream to write to; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void write(Iterable<Task> tasks, OutputStream out) throws IOException {
+        if (this == BINARY) {
+            BinaryTaskCodec.write(tasks, out);
+            out.flush();
+            return;
+        }
+        if (this == SLOTTED) {
+            SlottedTaskFile.write(tasks, out);
+            out.flush();
+            return;
+        }
+
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        for (Task task : tasks) {
+            writer.write(task.toFileFormat() + "\n");
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,315 @@
+package vinux.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import vinux.VinuxException;
+
+/**
+ * Byte offsets of the pages of a task file, so any page of records can be read
+ * without decoding the records before it. A page holds {@link #PAGE_SIZE} tasks.
+ * The index is saved next to the data file and rebuilt whenever the data file's
+ * size, modification time or the checksum of its first and last pages no longer
+ * match it. The checksum catches a file rewritten within the resolution of its
+ * modification time, or given back an old one, without reading the whole file.
+ */
+public class TaskFileIndex {
+    public static final int PAGE_SIZE = 128;
+
+    private static final int MAGIC = 0x564E5849; // "VNXI"
+    private static final int VERSION = 2;
+    private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+
+    private final TaskFileFormat format;
+    private final long fileSize;
+    private final long modifiedNanos;
+    private final int taskCount;
+    private final long[] pageOffsets;
+    private final long checksum;
+
+    private TaskFileIndex(TaskFileFormat format, long fileSize, long modifiedNanos, int taskCount,
+            long[] pageOffsets, long checksum) {
+        this.format = format;
+        this.fileSize = fileSize;
+        this.modifiedNanos = modifiedNanos;
+        this.taskCount = taskCount;
+        this.pageOffsets = pageOffsets;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Reads the saved index of the data file, or builds and saves a new one if it
+     * is missing or out of date.
+     *
+     * @param dataPath The task file
+     * @param indexPath Where the index is saved
+     * @param backend The backend both files are kept in
+     * @return The index of the data file
+     * @throws VinuxException if the data file cannot be read or is not a valid task file
+     */
+    public static TaskFileIndex load(Path dataPath, Path indexPath, StorageBackend backend) throws VinuxException {
+        try {
+            long fileSize = backend.size(dataPath);
+            long modifiedNanos = backend.lastModified(dataPath);
+
+            TaskFileIndex saved = read(backend, indexPath);
+            if (saved != null && saved.fileSize == fileSize && saved.modifiedNanos == modifiedNanos
+                    && saved.isChecksumMatched(backend, dataPath)) {
+                return saved;
+            }
+
+            TaskFileIndex index = build(backend, dataPath, fileSize, modifiedNanos);
+            try {
+                backend.replace(indexPath, index::write);
+            } catch (IOException ioException) {
+                // The index is only a shortcut; it is rebuilt on the next load
+            }
+            return index;
+        } catch (IOException ioException) {
+            throw new VinuxException("Error indexing tasks: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Returns the saved index, or null if there is none or it cannot be read.
+     */
+    private static TaskFileIndex read(StorageBackend backend, Path indexPath) {
+        if (!backend.exists(indexPath)) {
+            return null;
+        }
+
+        try {
+            ByteBuffer contents = backend.read(indexPath);
+            byte[] bytes = new byte[contents.remaining()];
+            contents.get(bytes);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            TaskFileFormat format = TaskFileFormat.valueOf(in.readUTF());
+            long fileSize = in.readLong();
+            long modifiedNanos = in.readLong();
+            int taskCount = in.readInt();
+            long[] pageOffsets = new long[in.readInt()];
+            for (int i = 0; i < pageOffsets.length; i++) {
+                pageOffsets[i] = in.readLong();
+            }
+            long checksum = in.readLong();
+            return new TaskFileIndex(format, fileSize, modifiedNanos, taskCount, pageOffsets, checksum);
+        } catch (IOException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeUTF(format.name());
+        data.writeLong(fileSize);
+        data.writeLong(modifiedNanos);
+        data.writeInt(taskCount);
+        data.writeInt(pageOffsets.length);
+        for (long offset : pageOffsets) {
+            data.writeLong(offset);
+        }
+        data.writeLong(checksum);
+        data.flush();
+    }
+
+    private static TaskFileIndex build(StorageBackend backend, Path dataPath, long fileSize, long modifiedNanos)
+            throws IOException, VinuxException {
+        TaskFileFormat format = TaskFileFormat.detect(backend, dataPath);
+        if (format == TaskFileFormat.SLOTTED) {
+            throw new VinuxException("Slotted task files are not paged");
+        }
+        try (StorageBackend.Source source = backend.open(dataPath)) {
+            TaskFileIndex index = format == TaskFileFormat.BINARY
+                    ? buildBinary(source, fileSize, modifiedNanos)
+                    : buildText(source, fileSize, modifiedNanos);
+            return new TaskFileIndex(format, fileSize, modifiedNanos, index.taskCount, index.pageOffsets,
+                    index.computeChecksum(source));
+        }
+    }
+
+    private boolean isChecksumMatched(StorageBackend backend, Path dataPath) throws IOException {
+        try (StorageBackend.Source source = backend.open(dataPath)) {
+            return computeChecksum(source) == checksum;
+        }
+    }
+
+    /**
+     * Returns the CRC-32 of the bytes up to the end of the first page and of the last
+     * page, as found by this index. Only those two pages are read.
+     */
+    private long computeChecksum(StorageBackend.Source source) throws IOException {
+        CRC32 crc = new CRC32();
+        int pages = pageOffsets.length;
+        addToChecksum(crc, source, 0, pages == 0 ? Math.min(fileSize, SCAN_BUFFER_SIZE) : getPageEnd(0));
+        if (pages > 1) {
+            addToChecksum(crc, source, getPageStart(pages - 1), fileSize);
+        }
+        return crc.getValue();
+    }
+
+    private static void addToChecksum(CRC32 crc, StorageBackend.Source source, long start, long end)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        // A file shorter than the index leaves the rest zeroed, so the checksum differs
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, start + buffer.position()) == -1) {
+                break;
+            }
+        }
+        crc.update(buffer.array());
+    }
+
+    /**
+     * Finds the start of every PAGE_SIZE-th non-blank line, using the same line
+     * rules as {@link TaskFileDecoder} but without decoding anything.
+     */
+    private static TaskFileIndex buildText(StorageBackend.Source source, long fileSize, long modifiedNanos)
+            throws IOException {
+        long[] offsets = new long[16];
+        int count = 0;
+        long lineStart = 0;
+        boolean isBlank = true;
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SCAN_BUFFER_SIZE, fileSize + 1));
+        byte[] bytes = buffer.array();
+        long bufferStart = 0;
+        int read;
+        while ((read = source.read(buffer, bufferStart)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b == '\n' || b == '\r') {
+                    if (!isBlank) {
+                        offsets = addPage(offsets, count, lineStart);
+                        count++;
+                    }
+                    lineStart = bufferStart + i + 1;
+                    isBlank = true;
+                } else if ((b & 0xFF) > ' ') {
+                    isBlank = false;
+                }
+            }
+            bufferStart += read;
+            buffer.clear();
+        }
+        if (!isBlank) {
+            offsets = addPage(offsets, count, lineStart);
+            count++;
+        }
+
+        return new TaskFileIndex(TaskFileFormat.TEXT, fileSize, modifiedNanos, count,
+                Arrays.copyOf(offsets, pageCount(count)), 0);
+    }
+
+    /**
+     * Walks the record headers and lengths of a binary file, refilling the buffer
+     * whenever a record runs past its end.
+     */
+    private static TaskFileIndex buildBinary(StorageBackend.Source source, long fileSize, long modifiedNanos)
+            throws IOException, VinuxException {
+        long[] offsets = new long[16];
+        int count = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SCAN_BUFFER_SIZE, fileSize + 1));
+        long bufferStart = 0;
+        boolean isEndOfInput = false;
+        boolean isHeaderRead = false;
+        while (!isEndOfInput) {
+            isEndOfInput = source.read(buffer, bufferStart + buffer.position()) == -1;
+            buffer.flip();
+            int recordStart = 0;
+            try {
+                if (!isHeaderRead) {
+                    BinaryTaskCodec.readHeader(buffer);
+                    isHeaderRead = true;
+                }
+                while (buffer.hasRemaining()) {
+                    recordStart = buffer.position();
+                    BinaryTaskCodec.skipTask(buffer);
+                    offsets = addPage(offsets, count, bufferStart + recordStart);
+                    count++;
+                }
+                recordStart = buffer.position();
+            } catch (BufferUnderflowException underflowException) {
+                if (isEndOfInput) {
+                    throw new VinuxException("Truncated binary task file");
+                }
+            }
+            // Keep the unfinished record for the next read
+            buffer.position(recordStart);
+            bufferStart += recordStart;
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+        }
+
+        return new TaskFileIndex(TaskFileFormat.BINARY, fileSize, modifiedNanos, count,
+                Arrays.copyOf(offsets, pageCount(count)), 0);
+    }
+
+    private static long[] addPage(long[] offsets, int count, long recordStart) {
+        if (count % PAGE_SIZE != 0) {
+            return offsets;
+        }
+        int page = count / PAGE_SIZE;
+        long[] pages = page < offsets.length ? offsets : Arrays.copyOf(offsets, offsets.length * 2);
+        pages[page] = recordStart;
+        return pages;
+    }
+
+    private static int pageCount(int taskCount) {
+        return (taskCount + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+
+    /**
+     * Returns the format of the indexed file.
+     *
+     * @return The file format
+     */
+    public TaskFileFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the number of tasks in the indexed file.
+     *
+     * @return The task count
+     */
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Returns the offset of the first record of a page.
+     *
+     * @param page The page number (0-based)
+     * @return The byte offset in the file
+     */
+    public long getPageStart(int page) {
+        return pageOffsets[page];
+    }
+
+    /**
+     * Returns the offset just past the last record of a page.
+     *
+     * @param page The page number (0-based)
+     * @return The byte offset in the file
+     */
+    public long getPageEnd(int page) {
+        return page + 1 < pageOffsets.length ? pageOffsets[page + 1] : fileSize;
+    }
+}
@@ -0,0 +1,402 @@
+package vinux.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeMap;
+
+import vinux.VinuxException;
+import vinux.task.Task;
+
+/**
+ * Append-only log of task list mutations.
+ * Each mutation is written as one short line, so recording a change costs
+ * the same no matter how many tasks are in the list.
+ * Format: "ADD TODO ✗ read book", "MARK 3", "UNMARK 3", "DELETE 3" or "CLEAR"
+ * (indices are 0-based). A journal kept next to a binary data file writes added tasks
+ * as "ADDB " followed by the task's {@link BinaryTaskCodec} record in Base64 instead,
+ * so descriptions containing " by ", " from " or " to " come back exactly as they were.
+ * Either kind of ADD record is replayed whatever the data file's format.
+ * A buffered journal keeps records in memory until {@link #flushBuffered()} writes
+ * them from a background thread.
+ *
+ * <p>The journal is split into generations, one file each ("vinux.txt.journal.3").
+ * {@link #rotate()} starts a new generation, so a snapshot of the list taken at that
+ * moment covers every older generation and they can be deleted once it is saved,
+ * while new records keep going to the new file.</p>
+ */
+public class TaskJournal {
+    private static final String ADD = "ADD";
+    private static final String ADD_BINARY = "ADDB";
+    private static final String MARK = "MARK";
+    private static final String UNMARK = "UNMARK";
+    private static final String DELETE = "DELETE";
+    private static final String CLEAR = "CLEAR";
+
+    private final Path journalPath;
+    private final StorageBackend backend;
+    private final boolean isBinary;
+    private final TaskFileDecoder decoder = new TaskFileDecoder();
+    private StringBuilder buffered;
+    private int generation;
+    private int recordCount;
+    private long byteCount;
+
+    /**
+     * Constructs a TaskJournal whose generation files start with the given path.
+     *
+     * @param journalPath The path shared by the journal files, without the generation
+     * @param backend The backend the journal files are kept in
+     * @param format The format of the data file, which decides how added tasks are written
+     */
+    public TaskJournal(String journalPath, StorageBackend backend, TaskFileFormat format) {
+        assert journalPath != null : "Journal path should not be null";
+        this.journalPath = Paths.get(journalPath);
+        this.backend = backend;
+        this.isBinary = format == TaskFileFormat.BINARY;
+    }
+
+    private Path segmentPath(int segmentGeneration) {
+        return Paths.get(journalPath + "." + segmentGeneration);
+    }
+
+    /**
+     * Records that a task was added to the end of the list.
+     *
+     * @param task The task that was added
+     * @throws VinuxException if the record cannot be written
+     */
+    public void appendAdd(Task task) throws VinuxException {
+        if (!isBinary) {
+            append(ADD + " " + task.toFileFormat());
+            return;
+        }
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try {
+            BinaryTaskCodec.writeTask(task, record);
+        } catch (IOException ioException) {
+            throw new VinuxException("Error writing journal: " + ioException.getMessage());
+        }
+        append(ADD_BINARY + " " + Base64.getEncoder().encodeToString(record.toByteArray()));
+    }
+
+    /**
+     * Records that the task at the given index was marked as done.
+     *
+     * @param index The index of the task (0-based)
+     * @throws VinuxException if the record cannot be written
+     */
+    public void appendMark(int index) throws VinuxException {
+        append(MARK + " " + index);
+    }
+
+    /**
+     * Records that the task at the given index was marked as not done.
+     *
+     * @param index The index of the task (0-based)
+     * @throws VinuxException if the record cannot be written
+     */
+    public void appendUnmark(int index) throws VinuxException {
+        append(UNMARK + " " + index);
+    }
+
+    /**
+     * Records that the task at the given index was deleted.
+     *
+     * @param index The index of the task (0-based)
+     * @throws VinuxException if the record cannot be written
+     */
+    public void appendDelete(int index) throws VinuxException {
+        append(DELETE + " " + index);
+    }
+
+    /**
+     * Records that the tasks at the given indexes were all marked as done or not done,
+     * writing every record at once.
+     *
+     * @param indexes The indexes of the tasks (0-based)
+     * @param isDone Whether the tasks were marked as done
+     * @throws VinuxException if the records cannot be written
+     */
+    public void appendMarks(BitSet indexes, boolean isDone) throws VinuxException {
+        String kind = isDone ? MARK : UNMARK;
+        StringBuilder records = new StringBuilder();
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            records.append(kind).append(' ').append(i).append('\n');
+        }
+        appendRecords(records, indexes.cardinality());
+    }
+
+    /**
+     * Records that the tasks at the given indexes were all deleted, writing every record
+     * at once. The records run from the last index to the first, so replaying them one
+     * by one deletes the same tasks.
+     *
+     * @param indexes The indexes the tasks had before any was deleted (0-based)
+     * @throws VinuxException if the records cannot be written
+     */
+    public void appendDeletes(BitSet indexes) throws VinuxException {
+        StringBuilder records = new StringBuilder();
+        for (int i = indexes.length() - 1; i >= 0; i = indexes.previousSetBit(i - 1)) {
+            records.append(DELETE).append(' ').append(i).append('\n');
+        }
+        appendRecords(records, indexes.cardinality());
+    }
+
+    /**
+     * Records that all tasks were cleared.
+     *
+     * @throws VinuxException if the record cannot be written
+     */
+    public void appendClear() throws VinuxException {
+        append(CLEAR);
+    }
+
+    private synchronized void append(String record) throws VinuxException {
+        recordCount++;
+        byteCount += record.length() + 1;
+        if (buffered != null) {
+            buffered.append(record).append('\n');
+            return;
+        }
+        writeRecords(generation, record + "\n");
+    }
+
+    private synchronized void appendRecords(CharSequence records, int count) throws VinuxException {
+        recordCount += count;
+        byteCount += records.length();
+        if (buffered != null) {
+            buffered.append(records);
+            return;
+        }
+        writeRecords(generation, records.toString());
+    }
+
+    /**
+     * Starts a new generation. Records appended from now on go to a new file;
+     * buffered records of older generations are dropped, as the caller is about to
+     * snapshot the list they led to.
+     *
+     * @return The new generation, which a snapshot taken now must be saved under
+     */
+    public synchronized int rotate() {
+        generation++;
+        recordCount = 0;
+        byteCount = 0;
+        if (buffered != null) {
+            buffered.setLength(0);
+        }
+        return generation;
+    }
+
+    /**
+     * Returns the number of records that a load would replay.
+     *
+     * @return The records in every generation not yet covered by a snapshot
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the approximate size of the records that a load would replay.
+     *
+     * @return The size in characters of every record not yet covered by a snapshot
+     */
+    public synchronized long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Switches between writing records immediately and keeping them in memory.
+     *
+     * @param isBuffered Whether records are kept until drained
+     */
+    public synchronized void setBuffered(boolean isBuffered) {
+        assert buffered == null || buffered.length() == 0 : "Buffered records should be drained first";
+        buffered = isBuffered ? new StringBuilder() : null;
+    }
+
+    /**
+     * Writes every buffered record to the file of the generation it belongs to,
+     * leaving the buffer empty.
+     *
+     * @throws VinuxException if the records cannot be written
+     */
+    public void flushBuffered() throws VinuxException {
+        String records;
+        int recordGeneration;
+        synchronized (this) {
+            assert buffered != null : "Journal should be buffered";
+            records = buffered.toString();
+            recordGeneration = generation;
+            buffered.setLength(0);
+        }
+        // If a rotation slips in here the records land in an older generation, which
+        // the snapshot taken at that rotation already covers.
+        writeRecords(recordGeneration, records);
+    }
+
+    private void writeRecords(int recordGeneration, String records) throws VinuxException {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            backend.append(segmentPath(recordGeneration), records.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ioException) {
+            throw new VinuxException("Error writing journal: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Applies every record in every generation from {@code firstGeneration} on, in order,
+     * to the given tasks. Appends then continue in the newest generation found.
+     *
+     * The task carried by an ADD record is decoded like a line of the text data file.
+     *
+     * @param tasks The tasks loaded from the snapshot
+     * @param firstGeneration The generation the snapshot was saved under
+     * @return The number of records applied
+     * @throws VinuxException if the journal cannot be read or is corrupted
+     */
+    public synchronized int replay(List<Task> tasks, int firstGeneration) throws VinuxException {
+        TreeMap<Integer, Path> segments = listSegments();
+        generation = segments.isEmpty() ? firstGeneration : Math.max(firstGeneration, segments.lastKey());
+        recordCount = 0;
+        byteCount = 0;
+        for (Path segment : segments.tailMap(firstGeneration).values()) {
+            for (String record : readRecords(segment)) {
+                try {
+                    applyRecord(tasks, record);
+                } catch (RuntimeException runtimeException) {
+                    // e.g. a lazily loaded list failing to read its file, which must not stop startup
+                    throw new VinuxException("Corrupted journal record: " + record + " ("
+                            + runtimeException.getMessage() + ")");
+                }
+                recordCount++;
+                byteCount += record.length() + 1;
+            }
+        }
+        return recordCount;
+    }
+
+    /**
+     * Reads the complete records of a generation file. A last record without its line
+     * break was cut short by a crash mid-append; it is dropped from the file, so records
+     * appended from now on start on a line of their own.
+     */
+    private List<String> readRecords(Path segment) throws VinuxException {
+        try {
+            List<String> records = new ArrayList<>();
+            ByteBuffer bytes = backend.read(segment);
+            int end = bytes.limit();
+            while (end > bytes.position() && bytes.get(end - 1) != '\n') {
+                end--;
+            }
+            if (end < bytes.limit()) {
+                backend.truncate(segment, end);
+                bytes.limit(end);
+            }
+            String contents = StandardCharsets.UTF_8.decode(bytes).toString();
+            for (String line : contents.lines().toList()) {
+                if (!line.isEmpty()) {
+                    records.add(line);
+                }
+            }
+            return records;
+        } catch (IOException ioException) {
+            throw new VinuxException("Error reading journal: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Finds the generation files.
+     * A journal from before generations existed is taken as generation 0.
+     */
+    private TreeMap<Integer, Path> listSegments() throws VinuxException {
+        TreeMap<Integer, Path> segments = new TreeMap<>();
+        Path directory = journalPath.toAbsolutePath().getParent();
+        String prefix = journalPath.getFileName() + ".";
+        try {
+            if (backend.exists(journalPath)) {
+                backend.move(journalPath, segmentPath(0));
+            }
+            for (Path file : backend.list(directory, prefix)) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(Integer.parseInt(name.substring(prefix.length())), file);
+                } catch (NumberFormatException formatException) {
+                    // Not a generation file, e.g. a leftover temporary file
+                }
+            }
+            return segments;
+        } catch (IOException ioException) {
+            throw new VinuxException("Error reading journal: " + ioException.getMessage());
+        }
+    }
+
+    private void applyRecord(List<Task> tasks, String record) throws VinuxException {
+        int spaceIndex = record.indexOf(' ');
+        String operation = spaceIndex == -1 ? record : record.substring(0, spaceIndex);
+        String argument = spaceIndex == -1 ? "" : record.substring(spaceIndex + 1);
+
+        switch (operation) {
+        case ADD:
+            byte[] line = argument.getBytes(StandardCharsets.UTF_8);
+            tasks.add(decoder.decodeLine(ByteBuffer.wrap(line), 0, line.length));
+            break;
+        case ADD_BINARY:
+            tasks.add(BinaryTaskCodec.readTask(ByteBuffer.wrap(Base64.getDecoder().decode(argument))));
+            break;
+        case MARK:
+            tasks.get(parseIndex(tasks, argument, record)).markAsDone();
+            break;
+        case UNMARK:
+            tasks.get(parseIndex(tasks, argument, record)).markAsNotDone();
+            break;
+        case DELETE:
+            tasks.remove(parseIndex(tasks, argument, record));
+            break;
+        case CLEAR:
+            tasks.clear();
+            break;
+        default:
+            throw new VinuxException("Corrupted journal record: " + record);
+        }
+    }
+
+    private int parseIndex(List<Task> tasks, String argument, String record) throws VinuxException {
+        try {
+            int index = Integer.parseInt(argument);
+            if (index < 0 || index >= tasks.size()) {
+                throw new VinuxException("Corrupted journal record: " + record);
+            }
+            return index;
+        } catch (NumberFormatException formatException) {
+            throw new VinuxException("Corrupted journal record: " + record);
+        }
+    }
+
+    /**
+     * Deletes every generation older than the given one, once a snapshot covers them.
+     *
+     * @param snapshotGeneration The generation the snapshot was saved under
+     * @throws VinuxException if a journal file cannot be deleted
+     */
+    public void deleteBefore(int snapshotGeneration) throws VinuxException {
+        try {
+            for (Path segment : listSegments().headMap(snapshotGeneration).values()) {
+                backend.delete(segment);
+            }
+        } catch (IOException ioException) {
+            throw new VinuxException("Error deleting journal: " + ioException.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package vinux.storage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import vinux.VinuxException;
+
+/**
+ * Runs saves on a background thread so commands never wait for the disk.
+ * Callers mark a save action as dirty after each mutation; however many times an
+ * action is marked while the thread is busy or waiting, it runs once per flush.
+ */
+public class WriteBehindSaver {
+    /** How long the thread waits after the first mutation so a burst is saved together. */
+    private static final long DEFAULT_COALESCE_MILLIS = 20;
+
+    /**
+     * A save that can be deferred and coalesced.
+     */
+    public interface SaveAction {
+        void save() throws VinuxException;
+    }
+
+    private final long coalesceMillis;
+    private final Set<SaveAction> dirtyActions = new LinkedHashSet<>();
+    private final Thread thread;
+    private boolean isSaving;
+    private boolean isFlushRequested;
+    private boolean isClosed;
+    private VinuxException lastError;
+
+    /**
+     * Constructs and starts a WriteBehindSaver with the default coalescing delay.
+     */
+    public WriteBehindSaver() {
+        this(DEFAULT_COALESCE_MILLIS);
+    }
+
+    /**
+     * Constructs and starts a WriteBehindSaver.
+     *
+     * @param coalesceMillis How long to wait for more mutations before saving
+     */
+    public WriteBehindSaver(long coalesceMillis) {
+        assert coalesceMillis >= 0 : "Coalescing delay should not be negative";
+        this.coalesceMillis = coalesceMillis;
+        this.thread = new Thread(this::runLoop, "vinux-write-behind");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Schedules the action to run on the background thread.
+     * Reports, once, any error from an earlier background save.
+     *
+     * @param action The save to run
+     * @throws VinuxException if an earlier background save failed
+     */
+    public synchronized void markDirty(SaveAction action) throws VinuxException {
+        assert !isClosed : "Saver should not be used after it is closed";
+        dirtyActions.add(action);
+        notifyAll();
+        throwLastError();
+    }
+
+    /**
+     * Blocks until every action marked so far has been saved.
+     *
+     * @throws VinuxException if a background save failed
+     */
+    public synchronized void flush() throws VinuxException {
+        isFlushRequested = true;
+        notifyAll();
+        while (!dirtyActions.isEmpty() || isSaving) {
+            try {
+                wait();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new VinuxException("Interrupted while saving");
+            }
+        }
+        isFlushRequested = false;
+        throwLastError();
+    }
+
+    /**
+     * Saves everything still pending and stops the background thread.
+     *
+     * @throws VinuxException if a background save failed
+     */
+    public void close() throws VinuxException {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                isClosed = true;
+                notifyAll();
+            }
+        }
+    }
+
+    private void throwLastError() throws VinuxException {
+        if (lastError != null) {
+            VinuxException error = lastError;
+            lastError = null;
+            throw new VinuxException("Error saving in the background: " + error.getMessage());
+        }
+    }
+
+    private void runLoop() {
+        while (true) {
+            List<SaveAction> actions;
+            synchronized (this) {
+                while (dirtyActions.isEmpty() && !isClosed) {
+                    waitQuietly(0);
+                }
+                if (dirtyActions.isEmpty()) {
+                    return;
+                }
+                long deadline = System.currentTimeMillis() + coalesceMillis;
+                long remaining = coalesceMillis;
+                while (remaining > 0 && !isFlushRequested && !isClosed) {
+                    waitQuietly(remaining);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+                actions = new ArrayList<>(dirtyActions);
+                dirtyActions.clear();
+                isFlushRequested = false;
+                isSaving = true;
+            }
+
+            VinuxException error = runAll(actions);
+
+            synchronized (this) {
+                isSaving = false;
+                if (error != null) {
+                    lastError = error;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private VinuxException runAll(List<SaveAction> actions) {
+        VinuxException error = null;
+        for (SaveAction action : actions) {
+            try {
+                action.save();
+            } catch (VinuxException vinuxException) {
+                error = vinuxException;
+            }
+        }
+        return error;
+    }
+
+    private void waitQuietly(long millis) {
+        try {
+            wait(millis);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -24,6 +24,27 @@ public class Deadline extends Task {
         this.by = by;
     }
 
+    /**
+     * Returns the due date of the task.
+     *
+     * @return The due date
+     */
+    public LocalDate getBy() {
+        return by;
+    }
+
+    /**
+     * Returns a copy of the deadline task.
+     *
+     * @return A new deadline task with the same description, due date and status
+     */
+    @Override
+    public Deadline copy() {
+        Deadline copy = new Deadline(description, by);
+        copy.isDone = isDone;
+        return copy;
+    }
+
     /**
      * Returns the type icon for deadline tasks.
      *
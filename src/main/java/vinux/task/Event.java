@@ -1,11 +1,31 @@
 package vinux.task;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Represents an event task with a start time and end time.
+ *
+ * <p>The times are kept as the user typed them. When they are written as
+ * {@code yyyy-MM-dd}, optionally followed by {@code HH:mm} or {@code HHmm}, the event
+ * also has a structured period, which is what overlap checks use. An end given as a
+ * time alone falls on the start day, or the day after if it would otherwise come
+ * first; an end given as a date alone covers that whole day. The period is read once,
+ * when the event is built from its text; copies, and lists that keep the period, pass
+ * it to the constructor instead.</p>
  */
 public class Event extends Task {
+    private static final Pattern DATE_TIME = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})(?: (\\d{2}):?(\\d{2}))?");
+    private static final Pattern TIME = Pattern.compile("(\\d{2}):?(\\d{2})");
+
     protected String from;
     protected String to;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
 
     /**
      * Constructs an Event task with the given description, start time, and end time.
@@ -18,6 +38,161 @@ public class Event extends Task {
         super(description);
         this.from = from;
         this.to = to;
+        LocalDateTime parsedStart = parseStart(from);
+        LocalDateTime parsedEnd = parsedStart == null ? null : parseEnd(to, parsedStart);
+        boolean hasPeriod = parsedEnd != null && parsedEnd.isAfter(parsedStart);
+        this.start = hasPeriod ? parsedStart : null;
+        this.end = hasPeriod ? parsedEnd : null;
+    }
+
+    /**
+     * Constructs an Event task whose times have already been read, so they are not
+     * parsed again. The period must be the one the other constructor would find for
+     * {@code from} and {@code to}, as kept from an earlier event with the same times.
+     *
+     * @param description The description of the event
+     * @param from The start time of the event
+     * @param to The end time of the event
+     * @param start The structured start, or null if the event has no structured period
+     * @param end The structured end, or null if the event has no structured period
+     */
+    public Event(String description, String from, String to, LocalDateTime start, LocalDateTime end) {
+        super(description);
+        assert (start == null) == (end == null) : "Start and end should both be given or both be null";
+        this.from = from;
+        this.to = to;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Reads a start time written as a date, optionally followed by a time of day.
+     *
+     * @param text The start time as typed
+     * @return The start time, or null if it is free-form text
+     */
+    public static LocalDateTime parseStart(String text) {
+        String trimmed = text.trim();
+        if (!isDateShaped(trimmed)) {
+            return null;
+        }
+        Matcher matcher = DATE_TIME.matcher(trimmed);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.of(number(matcher, 1), number(matcher, 2), number(matcher, 3));
+            return matcher.group(4) == null
+                    ? date.atStartOfDay()
+                    : date.atTime(number(matcher, 4), number(matcher, 5));
+        } catch (DateTimeException dateTimeException) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads an end time written as a date with an optional time of day, or as a time
+     * of day alone, which is taken to be the first such time after the start.
+     *
+     * @param text The end time as typed
+     * @param start The start time it belongs to
+     * @return The end time, or null if it is free-form text
+     */
+    public static LocalDateTime parseEnd(String text, LocalDateTime start) {
+        String trimmed = text.trim();
+        Matcher timeMatcher = isTimeShaped(trimmed) ? TIME.matcher(trimmed) : null;
+        if (timeMatcher != null && timeMatcher.matches()) {
+            try {
+                LocalDateTime end = start.toLocalDate()
+                        .atTime(LocalTime.of(number(timeMatcher, 1), number(timeMatcher, 2)));
+                return end.isAfter(start) ? end : end.plusDays(1);
+            } catch (DateTimeException dateTimeException) {
+                return null;
+            }
+        }
+
+        LocalDateTime end = parseStart(trimmed);
+        if (end != null && trimmed.length() == "yyyy-MM-dd".length()) {
+            // A bare date ends the event at the end of that day
+            return end.plusDays(1);
+        }
+        return end;
+    }
+
+    /**
+     * Checks the length and separators of a date, so free-form text skips the regex.
+     */
+    private static boolean isDateShaped(String text) {
+        int length = text.length();
+        return (length == 10 || length == 15 || length == 16) && text.charAt(4) == '-' && text.charAt(7) == '-';
+    }
+
+    /**
+     * Checks the length and first character of a time of day, for the same reason.
+     */
+    private static boolean isTimeShaped(String text) {
+        return (text.length() == 4 || text.length() == 5) && Character.isDigit(text.charAt(0));
+    }
+
+    private static int number(Matcher matcher, int group) {
+        return Integer.parseInt(matcher.group(group));
+    }
+
+    /**
+     * Checks whether both times could be read, giving the event a structured period.
+     *
+     * @return true if {@link #getStart()} and {@link #getEnd()} are available
+     */
+    public boolean hasPeriod() {
+        return start != null;
+    }
+
+    /**
+     * Returns the structured start of the event.
+     *
+     * @return The start time, or null if the event has no structured period
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the structured end of the event, which is not part of the event itself.
+     *
+     * @return The end time, or null if the event has no structured period
+     */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the start time of the event.
+     *
+     * @return The start time
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the end time of the event.
+     *
+     * @return The end time
+     */
+    public String getTo() {
+        return to;
+    }
+
+    /**
+     * Returns a copy of the event task.
+     *
+     * @return A new event task with the same description, times and status
+     */
+    @Override
+    public Event copy() {
+        Event copy = new Event(description, from, to, start, end);
+        copy.isDone = isDone;
+        return copy;
     }
 
     /**
@@ -60,6 +60,14 @@ public abstract class Task {
         return isDone;
     }
 
+    /**
+     * Returns a new task with the same details and completion status, so that
+     * changing one leaves the other untouched.
+     *
+     * @return A copy of the task
+     */
+    public abstract Task copy();
+
     /**
      * Returns the type icon of the task (to be implemented by subclasses).
      *
@@ -14,6 +14,18 @@ public class Todo extends Task {
         super(description);
     }
 
+    /**
+     * Returns a copy of the todo task.
+     *
+     * @return A new todo task with the same description and status
+     */
+    @Override
+    public Todo copy() {
+        Todo copy = new Todo(description);
+        copy.isDone = isDone;
+        return copy;
+    }
+
     /**
      * Returns the type icon for todo tasks.
      *
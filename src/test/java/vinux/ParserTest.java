@@ -1,9 +1,15 @@
 package vinux;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
 import org.junit.jupiter.api.Test;
 
 import vinux.task.Deadline;
@@ -62,6 +68,56 @@ public class ParserTest {
         assertEquals(2, index); // 3 - 1 = 2 (0-based)
     }
 
+    /**
+     * Tests that lists, ranges and statuses name the right tasks.
+     * POSITIVE CASE: "3,7,9-12" names six tasks; "all done" names only the done ones.
+     */
+    @Test
+    public void parseTaskSelection_listsRangesAndStatus_returnsPositions() throws VinuxException {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 20; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        tasks.markTask(4);
+
+        assertTrue(Parser.isTaskSelection("delete 3,7,9-12", 7));
+        assertFalse(Parser.isTaskSelection("delete 3", 7));
+        BitSet expected = new BitSet();
+        expected.set(2);
+        expected.set(6);
+        expected.set(8, 12);
+        assertEquals(expected, Parser.parseTaskSelection("delete 3, 7,9-12", 7, tasks));
+        assertEquals(BitSet.valueOf(new long[] {1L << 4}), Parser.parseTaskSelection("unmark all done", 7, tasks));
+        assertEquals(20, Parser.parseTaskSelection("mark all", 5, tasks).cardinality());
+        assertEquals(19, Parser.parseTaskSelection("mark all pending", 5, tasks).cardinality());
+    }
+
+    /**
+     * Tests that list options give the part of the list they ask for.
+     * POSITIVE CASE: Pages count from 1, and a start without a size has no limit.
+     */
+    @Test
+    public void parseListCommand_pageOrStart_returnsRange() throws VinuxException {
+        assertArrayEquals(new int[] {0, 0}, Parser.parseListCommand("list"));
+        assertArrayEquals(new int[] {200, 100}, Parser.parseListCommand("list --page 3 --size 100"));
+        assertArrayEquals(new int[] {2 * Parser.DEFAULT_PAGE_SIZE, Parser.DEFAULT_PAGE_SIZE},
+                Parser.parseListCommand("list --page 3"));
+        assertArrayEquals(new int[] {4999, 0}, Parser.parseListCommand("list --from 5000"));
+        assertArrayEquals(new int[] {4999, 10}, Parser.parseListCommand("list --size 10 --from 5000"));
+    }
+
+    /**
+     * Tests that fuzzy find commands give the term and the distance.
+     * POSITIVE CASE: The distance defaults when not given and is split off the term.
+     */
+    @Test
+    public void parseFuzzyFindCommand_termAndDistance_returnsBoth() throws VinuxException {
+        assertEquals("mvie night", Parser.parseFuzzyFindCommand("find~ mvie night"));
+        assertEquals(Parser.DEFAULT_FUZZY_DISTANCE, Parser.parseFuzzyDistance("find~ mvie night"));
+        assertEquals("mvie", Parser.parseFuzzyFindCommand("find~ mvie --distance 1"));
+        assertEquals(1, Parser.parseFuzzyDistance("find~ mvie --distance 1"));
+    }
+
     /**
      * Tests that find command correctly extracts the search keyword.
      * POSITIVE CASE: "find book" should return "book" as keyword.
@@ -72,6 +128,36 @@ public class ParserTest {
         assertEquals("homework", keyword);
     }
 
+    /**
+     * Tests that due commands give the period they ask about.
+     * POSITIVE CASE: One date means everything due by then; two dates bound the period.
+     */
+    @Test
+    public void parseDueCommand_oneOrTwoDates_returnsPeriod() throws VinuxException {
+        LocalDate[] byDate = Parser.parseDueCommand("due 2024-12-31");
+        assertEquals(LocalDate.MIN, byDate[0]);
+        assertEquals(LocalDate.of(2024, 12, 31), byDate[1]);
+
+        LocalDate[] period = Parser.parseDueCommand("due 2024-12-01  2024-12-31");
+        assertEquals(LocalDate.of(2024, 12, 1), period[0]);
+        assertEquals(LocalDate.of(2024, 12, 31), period[1]);
+    }
+
+    /**
+     * Tests that busy and free commands give the period they ask about.
+     * POSITIVE CASE: A date alone means the whole day; an end time alone falls on the start day.
+     */
+    @Test
+    public void parsePeriodCommand_dateOrRange_returnsPeriod() throws VinuxException {
+        LocalDateTime[] day = Parser.parsePeriodCommand("free 2024-12-31");
+        assertEquals(LocalDateTime.of(2024, 12, 31, 0, 0), day[0]);
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), day[1]);
+
+        LocalDateTime[] range = Parser.parsePeriodCommand("busy 2024-12-31 09:00 /to 17:30");
+        assertEquals(LocalDateTime.of(2024, 12, 31, 9, 0), range[0]);
+        assertEquals(LocalDateTime.of(2024, 12, 31, 17, 30), range[1]);
+    }
+
     // ========== NEGATIVE TEST CASES ==========
 
     /**
@@ -158,6 +244,102 @@ public class ParserTest {
         assertTrue(exception.getMessage().contains("valid"));
     }
 
+    /**
+     * Tests that bad selections throw VinuxException.
+     * NEGATIVE CASE: Out-of-range numbers, reversed ranges and empty selections are rejected.
+     */
+    @Test
+    public void parseTaskSelection_invalidSelection_throwsException() {
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("read book"));
+        tasks.addTask(new Todo("return book"));
+
+        VinuxException exception = assertThrows(VinuxException.class, () -> {
+            Parser.parseTaskSelection("mark 1-3", 5, tasks);
+        });
+        assertTrue(exception.getMessage().contains("doesn't exist"));
+        exception = assertThrows(VinuxException.class, () -> Parser.parseTaskSelection("mark 2-1", 5, tasks));
+        assertTrue(exception.getMessage().contains("end after"));
+        assertThrows(VinuxException.class, () -> Parser.parseTaskSelection("mark all done", 5, tasks));
+        assertThrows(VinuxException.class, () -> Parser.parseTaskSelection("mark 1,x", 5, tasks));
+        assertThrows(VinuxException.class, () -> Parser.parseTaskSelection("mark all of them", 5, tasks));
+    }
+
+    /**
+     * Tests that bad list options throw VinuxException.
+     * NEGATIVE CASE: Unknown, repeated, clashing or non-positive options are rejected.
+     */
+    @Test
+    public void parseListCommand_invalidOptions_throwsException() {
+        VinuxException exception = assertThrows(VinuxException.class, () -> {
+            Parser.parseListCommand("list --page 0");
+        });
+        assertTrue(exception.getMessage().contains("start at 1"));
+        assertThrows(VinuxException.class, () -> Parser.parseListCommand("list --page"));
+        assertThrows(VinuxException.class, () -> Parser.parseListCommand("list --page 2 --from 5"));
+        assertThrows(VinuxException.class, () -> Parser.parseListCommand("list --size 5 --size 6"));
+        assertThrows(VinuxException.class, () -> Parser.parseListCommand("list --sort name"));
+    }
+
+    /**
+     * Tests that bad fuzzy find commands throw VinuxException.
+     * NEGATIVE CASE: Missing terms and bad distances are rejected.
+     */
+    @Test
+    public void parseFuzzyFindCommand_invalidOptions_throwsException() {
+        VinuxException exception = assertThrows(VinuxException.class, () -> {
+            Parser.parseFuzzyDistance("find~ mvie --distance 9");
+        });
+        assertTrue(exception.getMessage().contains("too fuzzy"));
+        assertThrows(VinuxException.class, () -> Parser.parseFuzzyFindCommand("find~ --distance 1"));
+        assertThrows(VinuxException.class, () -> Parser.parseFuzzyDistance("find~ mvie --distance"));
+        assertThrows(VinuxException.class, () -> Parser.parseFuzzyDistance("find~ mvie --distance -1"));
+    }
+
+    /**
+     * Tests that the find limit is read after the keyword.
+     * POSITIVE CASE: The keyword keeps its spacing and the limit defaults to no limit.
+     */
+    @Test
+    public void parseFindLimit_validOptions_success() throws VinuxException {
+        assertEquals("file  report", Parser.parseFindCommand("find file  report --limit 10"));
+        assertEquals(10, Parser.parseFindLimit("find file  report --limit 10"));
+        assertEquals("c--", Parser.parseFindCommand("find c--"));
+        assertEquals(Integer.MAX_VALUE, Parser.parseFindLimit("find report"));
+        assertEquals(3, Parser.parseFindLimit("find~ mvie --limit 3 --distance 1"));
+    }
+
+    /**
+     * Tests that only options at the end of a find command are read as options.
+     * POSITIVE CASE: Other words starting with "--" stay part of the keyword.
+     */
+    @Test
+    public void parseFindCommand_dashedWords_keptInKeyword() throws VinuxException {
+        assertEquals("--verbose flag", Parser.parseFindCommand("find --verbose flag"));
+        assertEquals("--verbose flag", Parser.parseFindCommand("find --verbose flag --limit 2"));
+        assertEquals(2, Parser.parseFindLimit("find --verbose flag --limit 2"));
+        assertEquals("report --distance 1", Parser.parseFindCommand("find report --distance 1"));
+        assertEquals("set --limit 5 in config", Parser.parseFindCommand("find set --limit 5 in config"));
+        assertEquals(Integer.MAX_VALUE, Parser.parseFindLimit("find set --limit 5 in config"));
+        assertEquals("mvie --fast 1", Parser.parseFuzzyFindCommand("find~ mvie --fast 1"));
+    }
+
+    /**
+     * Tests that a bad find limit throws VinuxException.
+     * NEGATIVE CASE: Zero, missing limits and options with no keyword are rejected.
+     */
+    @Test
+    public void parseFindLimit_invalidOptions_throwsException() {
+        VinuxException exception = assertThrows(VinuxException.class, () -> {
+            Parser.parseFindLimit("find report --limit 0");
+        });
+        assertTrue(exception.getMessage().contains("limit of 0"));
+        assertThrows(VinuxException.class, () -> Parser.parseFindLimit("find report --limit"));
+        assertThrows(VinuxException.class, () -> Parser.parseFindCommand("find report --limit"));
+        assertThrows(VinuxException.class, () -> Parser.parseFindLimit("find report --limit many"));
+        assertThrows(VinuxException.class, () -> Parser.parseFindCommand("find --limit 3"));
+    }
+
     /**
      * Tests that empty find keyword throws VinuxException.
      * NEGATIVE CASE: Find command without keyword should be rejected.
@@ -169,4 +351,43 @@ public class ParserTest {
         });
         assertTrue(exception.getMessage().contains("empty"));
     }
+
+    /**
+     * Tests that a due period ending before it starts throws VinuxException.
+     * NEGATIVE CASE: Reversed dates and missing dates should be rejected.
+     */
+    @Test
+    public void parseDueCommand_invalidPeriod_throwsException() {
+        VinuxException exception = assertThrows(VinuxException.class, () -> {
+            Parser.parseDueCommand("due 2024-12-31 2024-12-01");
+        });
+        assertTrue(exception.getMessage().contains("end after"));
+        assertThrows(VinuxException.class, () -> Parser.parseDueCommand("due"));
+        assertThrows(VinuxException.class, () -> Parser.parseDueCommand("due friday"));
+    }
+
+    /**
+     * Tests that an event with structured times ending before it starts throws VinuxException.
+     * NEGATIVE CASE: Free-form times are still accepted as typed.
+     */
+    @Test
+    public void parseEventCommand_endBeforeStart_throwsException() throws VinuxException {
+        assertThrows(VinuxException.class, () -> {
+            Parser.parseEventCommand("event trip /from 2024-12-31 /to 2024-12-01");
+        });
+        assertTrue(Parser.parseEventCommand("event trip /from 2024-12-31 10:00 /to 12:00").hasPeriod());
+        assertTrue(!Parser.parseEventCommand("event trip /from Mon /to Sun").hasPeriod());
+    }
+
+    /**
+     * Tests that a busy or free command without a readable period throws VinuxException.
+     * NEGATIVE CASE: Free-form and missing periods should be rejected.
+     */
+    @Test
+    public void parsePeriodCommand_invalidPeriod_throwsException() {
+        assertThrows(VinuxException.class, () -> Parser.parsePeriodCommand("free"));
+        assertThrows(VinuxException.class, () -> Parser.parsePeriodCommand("free tomorrow"));
+        assertThrows(VinuxException.class, () -> Parser.parsePeriodCommand("busy 2024-12-31 09:00"));
+        assertThrows(VinuxException.class, () -> Parser.parsePeriodCommand("busy 2024-12-31 /to 2024-12-30"));
+    }
 }
@@ -1,14 +1,31 @@
 package vinux;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import vinux.storage.MappedFileBackend;
+import vinux.storage.MemoryBackend;
+import vinux.storage.SyncPolicy;
+import vinux.storage.TaskFileFormat;
+import vinux.storage.WriteBehindSaver;
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
 import vinux.task.Todo;
 
 /**
@@ -29,8 +46,12 @@ public class StorageTest {
     @AfterEach
     public void cleanUp() {
         File file = new File(testFilePath);
-        if (file.exists()) {
-            file.delete();
+        // Also removes the journal generations and any snapshot files
+        File[] related = file.getParentFile().listFiles((dir, name) -> name.startsWith(file.getName()));
+        if (related != null) {
+            for (File relatedFile : related) {
+                relatedFile.delete();
+            }
         }
         File dir = new File("./data");
         if (dir.exists() && dir.list().length == 0) {
@@ -64,4 +85,398 @@ public class StorageTest {
         TaskList loadedList = new TaskList(storage.loadTasks());
         assertEquals(0, loadedList.getSize());
     }
+
+    @Test
+    public void testJournal_replaysMutationsOnLoad() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+
+        Task first = new Todo("read book");
+        taskList.addTask(first);
+        journaled.recordAdd(taskList, first);
+        Task second = new Deadline("return book", LocalDate.of(2019, 12, 31));
+        taskList.addTask(second);
+        journaled.recordAdd(taskList, second);
+        taskList.getTask(1).markAsDone();
+        journaled.recordMark(taskList, 1);
+        taskList.deleteTask(0);
+        journaled.recordDelete(taskList, 0);
+
+        assertTrue(new File(testFilePath + ".journal.0").exists());
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(1, loadedList.getSize());
+        assertEquals("return book", loadedList.getTask(0).getDescription());
+        assertTrue(loadedList.getTask(0).isDone());
+    }
+
+    @Test
+    public void testJournal_bulkRecordsReplayOnLoad() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        for (int i = 0; i < 10; i++) {
+            Task task = new Todo("task " + i);
+            taskList.addTask(task);
+            journaled.recordAdd(taskList, task);
+        }
+
+        BitSet marked = new BitSet();
+        marked.set(0, 6);
+        taskList.markTasks(marked);
+        journaled.recordMarks(taskList, marked, true);
+        BitSet deleted = new BitSet();
+        deleted.set(1);
+        deleted.set(3, 5);
+        deleted.set(9);
+        taskList.deleteTasks(deleted);
+        journaled.recordDeletes(taskList, deleted);
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(6, loadedList.getSize());
+        String[] expected = {"task 0", "task 2", "task 5", "task 6", "task 7", "task 8"};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], loadedList.getTask(i).getDescription());
+            assertEquals(i < 3, loadedList.getTask(i).isDone());
+        }
+    }
+
+    @Test
+    public void testJournal_checkpointDiscardsJournal() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+
+        Task task = new Todo("read book");
+        taskList.addTask(task);
+        journaled.recordAdd(taskList, task);
+        journaled.saveTasks(taskList);
+
+        assertFalse(new File(testFilePath + ".journal.0").exists());
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(1, loadedList.getSize());
+    }
+
+    @Test
+    public void testJournal_clearRecord() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+
+        Task task = new Todo("read book");
+        taskList.addTask(task);
+        journaled.recordAdd(taskList, task);
+        taskList.clearTasks();
+        journaled.recordClear(taskList);
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(0, loadedList.getSize());
+    }
+
+    @Test
+    public void testJournal_deletingEveryTask_recordedAsClear() throws IOException, VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        for (int i = 0; i < 3; i++) {
+            Task task = new Todo("task " + i);
+            taskList.addTask(task);
+            journaled.recordAdd(taskList, task);
+        }
+
+        BitSet all = new BitSet();
+        all.set(0, 3);
+        taskList.deleteTasks(all);
+        journaled.recordDeletes(taskList, all);
+
+        String journalContents = Files.readString(Paths.get(testFilePath + ".journal.0"));
+        assertTrue(journalContents.endsWith("CLEAR\n"));
+        assertFalse(journalContents.contains("DELETE"));
+        assertEquals(0, new TaskList(new Storage(testFilePath, true).loadTasks()).getSize());
+    }
+
+    @Test
+    public void testBinaryFormat_saveAndLoad() throws VinuxException {
+        Storage binary = new Storage(testFilePath, false, TaskFileFormat.BINARY);
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Deadline("go by bus", LocalDate.of(2019, 12, 31)));
+
+        binary.saveTasks(taskList);
+        TaskList loadedList = new TaskList(new Storage(testFilePath).loadTasks());
+
+        assertEquals(1, loadedList.getSize());
+        assertEquals("go by bus", loadedList.getTask(0).getDescription());
+    }
+
+    @Test
+    public void testSlottedFormat_migratesAndUpdatesInPlace() throws VinuxException {
+        storage.saveTasks(new TaskList(List.of(new Todo("read book"), new Todo("return book"))));
+        Storage slotted = new Storage(testFilePath, false, TaskFileFormat.SLOTTED);
+        TaskList taskList = new TaskList(slotted.loadTasks());
+
+        taskList.markTask(1);
+        slotted.recordMark(taskList, 1);
+        Task task = new Todo("join club");
+        taskList.addTask(task);
+        slotted.recordAdd(taskList, task);
+        taskList.deleteTask(0);
+        slotted.recordDelete(taskList, 0);
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath).loadTasks());
+        assertEquals(2, loadedList.getSize());
+        assertTrue(loadedList.getTask(0).isDone());
+        assertEquals("join club", loadedList.getTask(1).getDescription());
+    }
+
+    @Test
+    public void testMemoryBackend_journalAndSnapshotStayInMemory() throws VinuxException {
+        MemoryBackend backend = new MemoryBackend();
+        Storage inMemory = new Storage(testFilePath, true, TaskFileFormat.TEXT, backend);
+        inMemory.setCompactionThresholds(10, Long.MAX_VALUE);
+        TaskList taskList = new TaskList(inMemory.loadTasks());
+
+        for (int i = 0; i < 25; i++) {
+            Task task = new Todo("task " + i);
+            taskList.addTask(task);
+            inMemory.recordAdd(taskList, task);
+        }
+        taskList.markTask(3);
+        inMemory.recordMark(taskList, 3);
+        inMemory.close();
+
+        assertFalse(new File(testFilePath).exists());
+        List<Task> loaded = new Storage(testFilePath, true, TaskFileFormat.TEXT, backend).loadTasksLazily();
+        assertEquals(25, loaded.size());
+        assertTrue(loaded.get(3).isDone());
+    }
+
+    @Test
+    public void testMappedBackend_lazyLoad() throws VinuxException {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 300; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        new Storage(testFilePath, false, TaskFileFormat.BINARY).saveTasks(taskList);
+
+        Storage mapped = new Storage(testFilePath, false, TaskFileFormat.BINARY,
+                new MappedFileBackend(SyncPolicy.osManaged()));
+        List<Task> loaded = mapped.loadTasksLazily();
+
+        assertEquals(300, loaded.size());
+        assertEquals("task 299", loaded.get(299).getDescription());
+        mapped.close();
+    }
+
+    @Test
+    public void testWriteBehind_flushPersistsAllMutations() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        WriteBehindSaver saver = new WriteBehindSaver();
+        journaled.useWriteBehind(saver);
+
+        // Enough mutations to cross a checkpoint while records are still buffered
+        for (int i = 0; i < 1500; i++) {
+            Task task = new Todo("task " + i);
+            taskList.addTask(task);
+            journaled.recordAdd(taskList, task);
+        }
+        taskList.getTask(0).markAsDone();
+        journaled.recordMark(taskList, 0);
+        taskList.deleteTask(1);
+        journaled.recordDelete(taskList, 1);
+        saver.close();
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(1499, loadedList.getSize());
+        assertTrue(loadedList.getTask(0).isDone());
+        assertEquals("task 2", loadedList.getTask(1).getDescription());
+        assertEquals("task 1499", loadedList.getTask(1498).getDescription());
+    }
+
+    @Test
+    public void testCompaction_recordThreshold_compactsInBackground() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        journaled.setCompactionThresholds(10, Long.MAX_VALUE);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+
+        for (int i = 0; i < 25; i++) {
+            Task task = new Todo("task " + i);
+            taskList.addTask(task);
+            journaled.recordAdd(taskList, task);
+        }
+        journaled.close();
+
+        assertFalse(new File(testFilePath + ".journal.0").exists());
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(25, loadedList.getSize());
+        assertEquals("task 24", loadedList.getTask(24).getDescription());
+    }
+
+    @Test
+    public void testCompaction_byteThreshold_compactsInBackground() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        journaled.setCompactionThresholds(Integer.MAX_VALUE, 50);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+
+        Task task = new Todo("a description long enough to fill the journal past its size limit on its own");
+        taskList.addTask(task);
+        journaled.recordAdd(taskList, task);
+        journaled.close();
+
+        assertFalse(new File(testFilePath + ".journal.0").exists());
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(1, loadedList.getSize());
+    }
+
+    @Test
+    public void testCompaction_crashAfterSnapshotCommit_rolledForwardOnLoad() throws IOException, VinuxException {
+        new File("./data").mkdir();
+        write(testFilePath, "TODO ✗ first\n");
+        write(testFilePath + ".journal.0", "ADD TODO ✗ second\n");
+        // The snapshot for generation 1 was committed, but the crash came before it was installed
+        write(testFilePath + ".snapshot.1", "TODO ✗ first\nTODO ✗ second\n");
+        write(testFilePath + ".journal.1", "MARK 1\n");
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+
+        assertEquals(2, loadedList.getSize());
+        assertTrue(loadedList.getTask(1).isDone());
+        assertFalse(new File(testFilePath + ".journal.0").exists());
+        assertFalse(new File(testFilePath + ".snapshot.1").exists());
+    }
+
+    @Test
+    public void testLoadTasksLazily_replaysJournalOverFile() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        for (int i = 0; i < 300; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        journaled.saveTasks(taskList);
+        taskList.markTask(250);
+        journaled.recordMark(taskList, 250);
+        taskList.deleteTask(0);
+        journaled.recordDelete(taskList, 0);
+
+        Storage lazy = new Storage(testFilePath, true);
+        TaskList loadedList = new TaskList(lazy.loadTasksLazily());
+
+        assertEquals(299, loadedList.getSize());
+        assertEquals("task 1", loadedList.getTask(0).getDescription());
+        assertTrue(loadedList.getTask(249).isDone());
+        lazy.close();
+    }
+
+    @Test
+    public void testLoadTasksLazily_compaction_listKeepsReadingOldFile() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        for (int i = 0; i < 300; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        journaled.saveTasks(taskList);
+
+        Storage lazy = new Storage(testFilePath, true);
+        lazy.setCompactionThresholds(10, Long.MAX_VALUE);
+        TaskList loadedList = new TaskList(lazy.loadTasksLazily());
+        for (int i = 300; i < 320; i++) {
+            Task task = new Todo("task " + i);
+            loadedList.addTask(task);
+            lazy.recordAdd(loadedList, task);
+        }
+        assertEquals("task 299", loadedList.getTask(299).getDescription());
+        lazy.close();
+
+        assertFalse(new File(testFilePath + ".paged").exists());
+        TaskList reloadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(320, reloadedList.getSize());
+        assertEquals("task 319", reloadedList.getTask(319).getDescription());
+    }
+
+    @Test
+    public void testLoadTasks_crashAfterDataFileMovedAside_movedBack() throws IOException, VinuxException {
+        new File("./data").mkdir();
+        write(testFilePath + ".paged", "TODO ✗ first\n");
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+
+        assertEquals(1, loadedList.getSize());
+        assertFalse(new File(testFilePath + ".paged").exists());
+    }
+
+    @Test
+    public void testJournal_eventWithToInDescription_replaysOnRestart() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        Task event = new Event("go to gym", "2026-10-17 18:00", "19:00");
+        taskList.addTask(event);
+        journaled.recordAdd(taskList, event);
+        journaled.close();
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(event.toString(), loadedList.getTask(0).toString());
+        Storage lazy = new Storage(testFilePath, true);
+        assertEquals(event.toString(), new TaskList(lazy.loadTasksLazily()).getTask(0).toString());
+        lazy.close();
+    }
+
+    @Test
+    public void testJournal_binaryFormat_addRecordsRoundTripAmbiguousText() throws VinuxException {
+        Storage journaled = new Storage(testFilePath, true, TaskFileFormat.BINARY);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        Task deadline = new Deadline("walk by the river by noon", LocalDate.of(2026, 10, 17));
+        Task event = new Event("fly from home to Oslo", "Mon from 9", "to Tue");
+        for (Task task : List.of(deadline, event)) {
+            taskList.addTask(task);
+            journaled.recordAdd(taskList, task);
+        }
+        journaled.close();
+
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true, TaskFileFormat.BINARY).loadTasks());
+        assertEquals(deadline.toString(), loadedList.getTask(0).toString());
+        assertEquals(event.toString(), loadedList.getTask(1).toString());
+    }
+
+    @Test
+    public void testJournal_tornLastRecord_droppedAndAppendsStillReplay() throws IOException, VinuxException {
+        new File("./data").mkdir();
+        write(testFilePath, "TODO ✗ first\n");
+        // The crash came partway through appending "MARK 0\n"
+        write(testFilePath + ".journal.0", "ADD TODO ✗ second\nMAR");
+
+        Storage journaled = new Storage(testFilePath, true);
+        TaskList taskList = new TaskList(journaled.loadTasks());
+        assertEquals(2, taskList.getSize());
+        assertFalse(taskList.getTask(0).isDone());
+
+        taskList.markTask(1);
+        journaled.recordMark(taskList, 1);
+        TaskList loadedList = new TaskList(new Storage(testFilePath, true).loadTasks());
+        assertEquals(2, loadedList.getSize());
+        assertFalse(loadedList.getTask(0).isDone());
+        assertTrue(loadedList.getTask(1).isDone());
+    }
+
+    @Test
+    public void testJournal_failedLoad_neverCompactsOverTheFiles() throws IOException, VinuxException {
+        new File("./data").mkdir();
+        write(testFilePath, "TODO ✗ first\n");
+        write(testFilePath + ".journal.0", "ADD TODO ✗ second\nBOGUS 1\nMARK 0\n");
+
+        Storage journaled = new Storage(testFilePath, true);
+        journaled.setCompactionThresholds(2, Long.MAX_VALUE);
+        assertThrows(VinuxException.class, journaled::loadTasks);
+        TaskList emptyList = new TaskList();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Todo("new " + i);
+            emptyList.addTask(task);
+            journaled.recordAdd(emptyList, task);
+        }
+        assertThrows(VinuxException.class, () -> journaled.saveTasks(emptyList));
+        journaled.close();
+
+        assertEquals("TODO ✗ first\n", Files.readString(Paths.get(testFilePath)));
+        String journalContents = Files.readString(Paths.get(testFilePath + ".journal.0"));
+        assertTrue(journalContents.startsWith("ADD TODO ✗ second\nBOGUS 1\n"));
+    }
+
+    private void write(String path, String content) throws IOException {
+        Files.write(Paths.get(path), content.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -1,12 +1,28 @@
 package vinux;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import vinux.index.ColumnarTaskList;
+import vinux.task.Deadline;
+import vinux.task.Event;
 import vinux.task.Task;
 import vinux.task.Todo;
 
@@ -92,6 +108,54 @@ public class TaskListTest {
         assertTrue(result.contains("return book"));
     }
 
+    /**
+     * Tests that fuzzy finding forgives typos and ranks the closest tasks first.
+     * POSITIVE CASE: "deadlnie" and "mvie" find their words; exact matches come first.
+     */
+    @Test
+    public void findSimilarTasks_typos_rankedByDistance() {
+        taskList.addTask(new Todo("watch mvies"));
+        taskList.addTask(new Todo("watch movie"));
+        taskList.addTask(new Todo("project deadline"));
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Todo("mvie night"));
+
+        assertEquals("Here are the closest matches in your list:\n1.[T][ ] mvie night\n"
+                + "2.[T][ ] watch mvies\n3.[T][ ] watch movie", taskList.findSimilarTasks("mvie", 1));
+        assertEquals("Here are the closest matches in your list:\n1.[T][ ] project deadline",
+                taskList.findSimilarTasks("deadlnie", 2));
+        assertEquals("Here are the closest matches in your list:\n1.[T][ ] watch movie",
+                taskList.findSimilarTasks("wach movei", 2));
+
+        taskList.deleteTask(4);
+        taskList.addTask(new Todo("movie marathon"));
+        assertTrue(taskList.findSimilarTasks("mvie", 1).endsWith("2.[T][ ] watch movie\n3.[T][ ] movie marathon"));
+        assertEquals("No tasks even close to that. Check your spelling?", taskList.findSimilarTasks("xyz", 1));
+    }
+
+    /**
+     * Tests that a find with a limit returns only the first matches in list order.
+     * POSITIVE CASE: The search stops at the limit and says so only when more tasks match.
+     */
+    @Test
+    public void findTasks_withLimit_returnsFirstMatchesOnly() {
+        for (int i = 1; i <= 50; i++) {
+            taskList.addTask(new Todo((i % 2 == 0 ? "file report " : "buy milk ") + i));
+        }
+        taskList.deleteTask(1);
+
+        assertEquals("Here are the matching tasks in your list:\n1.[T][ ] file report 4\n"
+                + "2.[T][ ] file report 6\nStopped after 2 match(es). There are more.",
+                taskList.findTasks("REPORT", 2));
+        assertEquals("Here are the matching tasks in your list:\n1.[T][ ] buy milk 1\n"
+                + "Stopped after 1 match(es). There are more.", taskList.findTasks("k", 1));
+        assertEquals("Here are the matching tasks in your list:\n1.[T][ ] file report 50",
+                taskList.findTasks("report 50", 1));
+        assertEquals("Here are the matching tasks in your list:\n1.[T][ ] file report 50",
+                taskList.findTasks("report 50", 5));
+        assertTrue(taskList.findTasks("report", 100).endsWith("24.[T][ ] file report 50"));
+    }
+
     /**
      * Tests that finding tasks is case-insensitive.
      * POSITIVE CASE: Search for "BOOK" should match tasks with "book".
@@ -105,6 +169,423 @@ public class TaskListTest {
         assertTrue(result.contains("read book"));
     }
 
+    /**
+     * Tests that indexed searches give the same results as scanning every task.
+     * POSITIVE CASE: Partial words, phrases and punctuation match as with String.contains,
+     * across adds, deletes and clears made after the index was built.
+     */
+    @Test
+    public void findTasks_afterMutations_matchesFullScan() {
+        String[] words = {"book", "notebook", "Read", "return", "café", "CAFÉ", "go-to", "x1"};
+        String[] queries = {"book", "ook", "read book", "d boo", "CAFÉ", "go-", "-to", "x", "!", "", " "};
+        List<Task> expected = new ArrayList<>();
+        Random random = new Random(7);
+
+        for (int step = 0; step < 400; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || expected.isEmpty()) {
+                Task task = new Todo(words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]);
+                expected.add(task);
+                taskList.addTask(task);
+            } else if (operation < 9) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                taskList.deleteTask(index);
+            } else if (step % 50 == 0) {
+                expected.clear();
+                taskList.clearTasks();
+            }
+
+            String query = queries[step % queries.length];
+            assertEquals(scanFind(expected, query), taskList.findTasks(query));
+        }
+    }
+
+    private String scanFind(List<Task> tasks, String keyword) {
+        StringBuilder sb = new StringBuilder("Here are the matching tasks in your list:\n");
+        int count = 0;
+        for (Task task : tasks) {
+            if (task.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
+                count++;
+                sb.append(count).append(".").append(task).append("\n");
+            }
+        }
+        return count == 0 ? "No matching tasks found." : sb.toString().trim();
+    }
+
+    /**
+     * Tests that duplicate checks follow adds, deletes and clears.
+     * POSITIVE CASE: A description differing only in case is a duplicate until the
+     * last task with it is gone.
+     */
+    @Test
+    public void hasDuplicate_afterMutations_tracksDescriptions() {
+        taskList.addTask(new Todo("read book"));
+        assertTrue(taskList.hasDuplicate(new Todo("READ BOOK")));
+
+        taskList.addTask(new Todo("Read Book"));
+        taskList.deleteTask(0);
+        assertTrue(taskList.hasDuplicate(new Todo("read book")));
+
+        taskList.deleteTask(0);
+        assertFalse(taskList.hasDuplicate(new Todo("read book")));
+
+        taskList.addTask(new Todo("return book"));
+        taskList.clearTasks();
+        assertFalse(taskList.hasDuplicate(new Todo("return book")));
+    }
+
+    /**
+     * Tests that the summary counts follow adds, deletes, marks and clears.
+     * POSITIVE CASE: Marking a done task again is not counted twice.
+     */
+    @Test
+    public void getTaskSummary_afterMutations_countsExactly() {
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Deadline("return book", LocalDate.of(2026, 1, 1)));
+        taskList.getTaskSummary();
+
+        taskList.addTask(new Event("book fair", "Mon", "Tue"));
+        taskList.markTask(0);
+        taskList.markTask(0);
+        taskList.markTask(2);
+        taskList.unmarkTask(1);
+        assertEquals(summary(1, 1, 1, 2, 3), taskList.getTaskSummary());
+
+        taskList.deleteTask(2);
+        assertEquals(summary(1, 1, 0, 1, 2), taskList.getTaskSummary());
+
+        taskList.clearTasks();
+        taskList.addTask(new Todo("read again"));
+        assertEquals(summary(1, 0, 0, 0, 1), taskList.getTaskSummary());
+    }
+
+    private String summary(int todos, int deadlines, int events, int done, int total) {
+        return "Task summary:\n  Todos: " + todos + "\n  Deadlines: " + deadlines + "\n  Events: " + events
+                + "\n  Completed: " + done + "/" + total;
+    }
+
+    /**
+     * Tests that bulk changes hit exactly the chosen tasks and keep searches and counts right.
+     * POSITIVE CASE: Deleting every other task of many leaves the rest in order.
+     */
+    @Test
+    public void deleteTasks_everyOtherTask_removesOnlyThose() {
+        for (int i = 0; i < 5000; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        assertTrue(taskList.findTasks("task 4999").endsWith("task 4999"));
+        List<Task> before = taskList.getSnapshot();
+        BitSet odd = new BitSet();
+        for (int i = 1; i < 5000; i += 2) {
+            odd.set(i);
+        }
+
+        assertEquals(2500, taskList.markTasks(odd));
+        assertEquals(2500, taskList.deleteTasks(odd));
+
+        assertEquals(2500, taskList.getSize());
+        assertEquals("task 4998", taskList.getTask(2499).getDescription());
+        assertEquals("No matching tasks found.", taskList.findTasks("task 4999"));
+        assertEquals(summary(2500, 0, 0, 0, 2500), taskList.getTaskSummary());
+        assertEquals(5000, before.size());
+        assertFalse(before.get(1).isDone());
+        assertEquals(2500, taskList.getSnapshot().size());
+
+        BitSet all = taskList.findPositionsByStatus(false);
+        assertEquals(2500, taskList.markTasks(all));
+        assertEquals(summary(2500, 0, 0, 2500, 2500), taskList.getTaskSummary());
+        assertTrue(taskList.getSnapshot().get(2499).isDone());
+    }
+
+    /**
+     * Tests that a page holds only the tasks asked for, with or without snapshots kept.
+     * POSITIVE CASE: Pages are cut short at the end of the list and empty past it.
+     */
+    @Test
+    public void getPage_anyStart_returnsOnlyThatPage() {
+        for (int i = 0; i < 250; i++) {
+            taskList.addTask(new Todo("task " + i));
+        }
+        List<Task> page = taskList.getPage(100, 100);
+        assertEquals(100, page.size());
+        assertEquals("task 100", page.get(0).getDescription());
+
+        taskList.getSnapshot();
+        taskList.deleteTask(0);
+        List<Task> lastPage = taskList.getPage(200, 100);
+        assertEquals(49, lastPage.size());
+        assertEquals("task 249", lastPage.get(48).getDescription());
+        assertTrue(taskList.getPage(249, 100).isEmpty());
+    }
+
+    /**
+     * Tests that the view follows the list while a snapshot does not.
+     * POSITIVE CASE: Only the snapshot is isolated from later changes, marking included.
+     */
+    @Test
+    public void getTasksView_afterChange_followsListButSnapshotDoesNot() {
+        taskList.addTask(new Todo("read book"));
+        List<Task> view = taskList.getTasksView();
+        List<Task> snapshot = taskList.getSnapshot();
+
+        taskList.addTask(new Todo("return book"));
+        taskList.markTask(0);
+
+        assertEquals(2, view.size());
+        assertEquals("return book", view.get(1).getDescription());
+        assertTrue(view.get(0).isDone());
+        assertEquals(1, snapshot.size());
+        assertFalse(snapshot.get(0).isDone());
+        assertTrue(taskList.getSnapshot().get(0).isDone());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(new Todo("buy book")));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Todo("buy book")));
+    }
+
+    /**
+     * Tests that readers on other threads never see a half-made change while one thread
+     * keeps changing the list, and that no change is lost.
+     * POSITIVE CASE: Every snapshot is in order and stable, and the final list matches a model.
+     */
+    @Test
+    public void getSnapshot_concurrentWriter_noTornReadsOrLostUpdates() throws InterruptedException {
+        List<Integer> modelIds = new ArrayList<>();
+        List<Boolean> modelDone = new ArrayList<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+        Thread writer = new Thread(() -> {
+            Random random = new Random(20);
+            for (int id = 0; id < 20000; id++) {
+                taskList.addTask(new Todo("task " + id));
+                modelIds.add(id);
+                modelDone.add(false);
+                int choice = random.nextInt(4);
+                if (choice == 0) {
+                    int index = random.nextInt(modelIds.size());
+                    taskList.deleteTask(index);
+                    modelIds.remove(index);
+                    modelDone.remove(index);
+                } else if (choice == 1) {
+                    // Tasks are only ever marked, so a reader must never see one unmarked again
+                    int index = random.nextInt(modelIds.size());
+                    taskList.markTask(index);
+                    modelDone.set(index, true);
+                }
+            }
+            isWriting.set(false);
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(new Thread(() -> {
+                Set<Integer> seenDone = new HashSet<>();
+                while (isWriting.get()) {
+                    List<Task> snapshot = taskList.getSnapshot();
+                    int size = snapshot.size();
+                    int previousId = -1;
+                    int count = 0;
+                    for (Task task : snapshot) {
+                        int id = Integer.parseInt(task.getDescription().substring("task ".length()));
+                        if (id <= previousId) {
+                            failures.add("Out of order: " + id + " after " + previousId);
+                        }
+                        if (task.isDone()) {
+                            seenDone.add(id);
+                        } else if (seenDone.contains(id)) {
+                            failures.add("Marked task seen unmarked: " + id);
+                        }
+                        previousId = id;
+                        count++;
+                    }
+                    if (count != size || snapshot.size() != size) {
+                        failures.add("Snapshot changed while read: " + size + " then " + count);
+                    }
+                    String found = taskList.findTasks("task");
+                    if (!found.startsWith("Here are the matching tasks") && !found.equals("No matching tasks found.")) {
+                        failures.add("Unexpected search result: " + found);
+                    }
+                }
+            }));
+        }
+
+        writer.setUncaughtExceptionHandler((thread, exception) -> failures.add(exception.toString()));
+        for (Thread reader : readers) {
+            reader.setUncaughtExceptionHandler((thread, exception) -> failures.add(exception.toString()));
+            reader.start();
+        }
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), String.valueOf(failures.peek()));
+        List<Task> finalTasks = taskList.getSnapshot();
+        assertEquals(modelIds.size(), finalTasks.size());
+        int doneCount = 0;
+        for (int i = 0; i < modelIds.size(); i++) {
+            assertEquals("task " + modelIds.get(i), finalTasks.get(i).getDescription());
+            assertEquals(modelDone.get(i), finalTasks.get(i).isDone());
+            doneCount += modelDone.get(i) ? 1 : 0;
+        }
+        assertEquals(summary(modelIds.size(), 0, 0, doneCount, modelIds.size()), taskList.getTaskSummary());
+    }
+
+    /**
+     * Tests that changes made from several threads at once are all kept.
+     * POSITIVE CASE: Concurrent adds all end up in the list and its snapshot.
+     */
+    @Test
+    public void addTask_concurrentWriters_loseNothing() throws InterruptedException {
+        taskList.getSnapshot();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int writerId = w;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 2500; i++) {
+                    taskList.addTask(new Todo("writer " + writerId + " task " + i));
+                }
+            }));
+        }
+
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        List<Task> snapshot = taskList.getSnapshot();
+        assertEquals(10000, snapshot.size());
+        assertEquals(10000, new HashSet<>(snapshot.stream().map(Task::getDescription).toList()).size());
+        assertEquals(summary(10000, 0, 0, 0, 10000), taskList.getTaskSummary());
+    }
+
+    /**
+     * Tests that every task is visited in order with its index.
+     * POSITIVE CASE: Indexes count up from 0.
+     */
+    @Test
+    public void forEachTask_multipleTasks_visitsInOrder() {
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Todo("return book"));
+        StringBuilder visited = new StringBuilder();
+
+        taskList.forEachTask((task, index) -> visited.append(index).append(task.getDescription()).append(";"));
+
+        assertEquals("0read book;1return book;", visited.toString());
+    }
+
+    /**
+     * Tests that due date queries follow adds, deletes and clears.
+     * POSITIVE CASE: Deadlines come out by due date, numbered as in the list.
+     */
+    @Test
+    public void findDueTasks_afterMutations_listsDeadlinesInPeriod() {
+        taskList.addTask(new Deadline("pay rent", LocalDate.of(2026, 3, 1)));
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Deadline("file taxes", LocalDate.of(2026, 1, 15)));
+        assertEquals("Here are the deadlines due in that period:\n"
+                + "3.[D][ ] file taxes (by: Jan 15 2026)\n"
+                + "1.[D][ ] pay rent (by: Mar 01 2026)",
+                taskList.findDueTasks(LocalDate.MIN, LocalDate.of(2026, 3, 1)));
+
+        taskList.deleteTask(0);
+        taskList.addTask(new Deadline("renew passport", LocalDate.of(2026, 2, 1)));
+        assertEquals("Here are the deadlines due in that period:\n"
+                + "3.[D][ ] renew passport (by: Feb 01 2026)",
+                taskList.findDueTasks(LocalDate.of(2026, 1, 16), LocalDate.of(2026, 12, 31)));
+
+        taskList.clearTasks();
+        assertEquals("Nothing is due in that period. Enjoy it while it lasts.",
+                taskList.findDueTasks(LocalDate.MIN, LocalDate.MAX));
+    }
+
+    /**
+     * Tests that only unfinished deadlines from before today are overdue.
+     * POSITIVE CASE: Done deadlines and deadlines due today are left out.
+     */
+    @Test
+    public void findOverdueTasks_mixedDeadlines_listsUnfinishedPastOnes() {
+        LocalDate today = LocalDate.of(2026, 6, 1);
+        taskList.addTask(new Deadline("pay rent", today.minusDays(3)));
+        taskList.addTask(new Deadline("file taxes", today.minusDays(1)));
+        taskList.addTask(new Deadline("renew passport", today));
+        taskList.markTask(0);
+
+        assertEquals("These are overdue. Just saying:\n"
+                + "2.[D][ ] file taxes (by: May 31 2026)", taskList.findOverdueTasks(today));
+    }
+
+    /**
+     * Tests that schedule queries follow adds and deletes and skip free-form events.
+     * POSITIVE CASE: Back-to-back events neither clash nor leave a gap.
+     */
+    @Test
+    public void scheduleQueries_structuredEvents_findOverlapsAndGaps() {
+        taskList.addTask(new Event("standup", "2026-10-20 09:00", "09:30"));
+        taskList.addTask(new Event("review", "2026-10-20 09:30", "11:00"));
+        taskList.addTask(new Event("lunch", "Tue noon", "1pm"));
+        taskList.addTask(new Event("workshop", "2026-10-20 10:00", "12:00"));
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 20, 8, 0);
+        LocalDateTime noon = LocalDateTime.of(2026, 10, 20, 13, 0);
+
+        assertEquals("These events clash:\n"
+                + "2.[E][ ] review (from: 2026-10-20 09:30 to: 11:00)\n"
+                + "  clashes with 4.[E][ ] workshop (from: 2026-10-20 10:00 to: 12:00)",
+                taskList.findConflicts());
+        assertEquals("You're free at these times:\n"
+                + "  2026-10-20 08:00 to 2026-10-20 09:00\n"
+                + "  2026-10-20 12:00 to 2026-10-20 13:00", taskList.findFreeSlots(morning, noon));
+        assertEquals(1, taskList.getClashes(new Event("call", "2026-10-20 11:30", "11:45")).size());
+
+        taskList.deleteTask(3);
+        assertEquals("No clashes. Your schedule actually makes sense.", taskList.findConflicts());
+        assertEquals("Here are the events in that period:\n"
+                + "2.[E][ ] review (from: 2026-10-20 09:30 to: 11:00)",
+                taskList.findBusyTasks(morning.plusHours(2), noon));
+    }
+
+    /**
+     * Tests that many deletions from the front keep positions and searches exact.
+     * POSITIVE CASE: Searching after more deletions than live tasks rebuilds the indexes.
+     */
+    @Test
+    public void deleteTask_manyFromFront_keepsPositionsAndSearches() {
+        for (int i = 0; i < 3000; i++) {
+            taskList.addTask(new Deadline("task " + i, LocalDate.of(2026, 1, 1).plusDays(i)));
+        }
+        taskList.findTasks("task");
+
+        for (int i = 0; i < 2500; i++) {
+            assertEquals("task " + i, taskList.deleteTask(0).getDescription());
+            if (i % 500 == 0) {
+                assertTrue(taskList.findTasks("task 2999").endsWith("\n1.[D][ ] task 2999 (by: Mar 19 2034)"));
+            }
+        }
+
+        assertEquals("task 2500", taskList.getTask(0).getDescription());
+        assertEquals("Here are the matching tasks in your list:\n1.[D][ ] task 2999 (by: Mar 19 2034)",
+                taskList.findTasks("task 2999"));
+        assertEquals("Here are the deadlines due in that period:\n1.[D][ ] task 2500 (by: Nov 05 2032)",
+                taskList.findDueTasks(LocalDate.MIN, LocalDate.of(2032, 11, 5)));
+    }
+
+    /**
+     * Tests that a list kept in columns keeps marks, which are written back to it.
+     * POSITIVE CASE: Marked tasks stay marked when read again.
+     */
+    @Test
+    public void markTask_columnarList_keepsChange() {
+        TaskList columnar = new TaskList(new ColumnarTaskList(List.of(new Todo("read book"),
+                new Deadline("return book", LocalDate.of(2026, 1, 1)))));
+
+        columnar.markTask(1);
+        columnar.deleteTask(0);
+
+        assertTrue(columnar.getTask(0).isDone());
+        assertEquals("Here are the matching tasks in your list:\n1.[D][X] return book (by: Jan 01 2026)",
+                columnar.findTasks("book"));
+    }
+
     /**
      * Tests that empty task list has size 0.
      * POSITIVE CASE: New TaskList should be empty.
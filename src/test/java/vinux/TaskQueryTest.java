@@ -0,0 +1,236 @@
+package vinux;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Test class for {@link TaskQuery}.
+ * Tests compiling find queries and running them against a {@link TaskList}.
+ */
+public class TaskQueryTest {
+
+    private TaskList taskList;
+
+    @BeforeEach
+    public void setUp() throws VinuxException {
+        taskList = new TaskList();
+        taskList.addTask(new Todo("write report"));
+        taskList.addTask(new Deadline("submit report", LocalDate.parse("2026-11-20")));
+        taskList.addTask(new Deadline("pay rent", LocalDate.parse("2026-12-01")));
+        taskList.addTask(new Event("urgent meeting", "Mon 2pm", "4pm"));
+        taskList.addTask(new Todo("urgent: buy milk"));
+        taskList.markTask(1);
+    }
+
+    private String find(String query) throws VinuxException {
+        return taskList.findTasks(TaskQuery.compile(query), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Tests that only text with an operator or a field is taken as a query.
+     * POSITIVE CASE: Plain keywords, lowercase "and" and unknown fields stay keywords.
+     */
+    @Test
+    public void isQuery_operatorsAndFields_detected() {
+        assertTrue(TaskQuery.isQuery("report AND NOT done"));
+        assertTrue(TaskQuery.isQuery("type:D before:2026-12-01"));
+        assertTrue(TaskQuery.isQuery("(NOT done)"));
+        assertFalse(TaskQuery.isQuery("bread and butter"));
+        assertFalse(TaskQuery.isQuery("re:meeting notes"));
+        assertFalse(TaskQuery.isQuery("done"));
+        assertTrue(TaskQuery.isQuery("\"report due\""));
+        assertTrue(TaskQuery.isQuery("(report)"));
+        assertFalse(TaskQuery.isQuery("f(x) notes"));
+    }
+
+    /**
+     * Tests that a find made only of a phrase or a bracket is run as a query.
+     * POSITIVE CASE: The phrase is searched without its quotes and brackets only group.
+     */
+    @Test
+    public void findTasks_phraseOrBracketOnly_matchesText() throws VinuxException {
+        assertTrue(TaskQuery.isQuery("\"it rep\""));
+        assertEquals("Here are the tasks matching that query:\n2.[D][X] submit report (by: Nov 20 2026)",
+                find("\"it rep\""));
+        assertEquals("Here are the tasks matching that query:\n3.[D][ ] pay rent (by: Dec 01 2026)",
+                find("(rent)"));
+    }
+
+    /**
+     * Tests that a field whose value cannot be read is searched for as a word.
+     * POSITIVE CASE: "on:monday" and "type:X" are plain text, not errors.
+     */
+    @Test
+    public void findTasks_fieldWithBadValue_searchedAsText() throws VinuxException {
+        taskList.addTask(new Todo("meet on:monday with type:X team"));
+
+        assertFalse(TaskQuery.isQuery("meet on:monday"));
+        assertFalse(TaskQuery.isQuery("is:late before:tomorrow"));
+        assertEquals("Here are the tasks matching that query:\n6.[T][ ] meet on:monday with type:X team",
+                find("on:monday AND type:x"));
+        assertEquals("No tasks match that query.", find("is:late OR before:tomorrow"));
+    }
+
+    /**
+     * Tests the example queries against a small list.
+     * POSITIVE CASE: Matches are numbered as in the list.
+     */
+    @Test
+    public void findTasks_exampleQueries_matchAttributesAndWords() throws VinuxException {
+        assertEquals("Here are the tasks matching that query:\n1.[T][ ] write report", find("report AND NOT done"));
+        assertEquals("Here are the tasks matching that query:\n2.[D][X] submit report (by: Nov 20 2026)",
+                find("type:D before:2026-12-01"));
+        assertEquals("Here are the tasks matching that query:\n4.[E][ ] urgent meeting (from: Mon 2pm to: 4pm)\n"
+                + "5.[T][ ] urgent: buy milk", find("type:E OR urgent"));
+        assertEquals("Here are the tasks matching that query:\n3.[D][ ] pay rent (by: Dec 01 2026)",
+                find("type:deadline after:2026-11-20 on:2026-12-01 pending"));
+        assertEquals("Here are the tasks matching that query:\n5.[T][ ] urgent: buy milk",
+                find("\"buy milk\" OR (NOT NOT done AND type:T)"));
+        assertEquals("No tasks match that query.", find("before:2026-11-20 after:2026-11-20"));
+    }
+
+    /**
+     * Tests that a query follows marks and deletions made after its first run.
+     * POSITIVE CASE: The kept bitsets change with the list.
+     */
+    @Test
+    public void findTasks_afterChanges_seesCurrentList() throws VinuxException {
+        assertTrue(find("is:pending type:T").contains("1.[T][ ] write report"));
+
+        taskList.markTask(0);
+        taskList.deleteTask(2);
+        taskList.addTask(new Deadline("file report", LocalDate.parse("2026-11-25")));
+
+        assertEquals("Here are the tasks matching that query:\n1.[T][X] write report\n2.[D][X] submit report "
+                + "(by: Nov 20 2026)", find("report AND done"));
+        assertEquals("Here are the tasks matching that query:\n5.[D][ ] file report (by: Nov 25 2026)",
+                find("type:D NOT done"));
+        assertEquals("Here are the tasks matching that query:\n1.[T][X] write report\n"
+                + "Stopped after 1 match(es). There are more.",
+                taskList.findTasks(TaskQuery.compile("report"), 1));
+    }
+
+    /**
+     * Tests that random queries give the same tasks as checking every task.
+     * POSITIVE CASE: The compiled plan agrees with a direct check on a larger list.
+     */
+    @Test
+    public void evaluate_randomQueries_sameAsCheckingEachTask() throws VinuxException {
+        Random random = new Random(25);
+        String[] words = {"alpha", "beta", "gamma", "delta"};
+        TaskList bigList = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            String description = words[random.nextInt(4)] + " " + words[random.nextInt(4)];
+            Task task = switch (random.nextInt(3)) {
+            case 0 -> new Todo(description);
+            case 1 -> new Deadline(description, LocalDate.parse("2026-01-01").plusDays(random.nextInt(365)));
+            default -> new Event(description, "Mon", "Tue");
+            };
+            bigList.addTask(task);
+            if (random.nextBoolean()) {
+                bigList.markTask(i);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            bigList.deleteTask(random.nextInt(bigList.getSize()));
+        }
+        List<Task> tasks = bigList.getSnapshot();
+
+        Predicate<Task> isDue = task -> task instanceof Deadline deadline
+                && deadline.getBy().isBefore(LocalDate.parse("2026-07-01"));
+        assertMatches(tasks, bigList, "alpha AND NOT done",
+                task -> task.getDescription().contains("alpha") && !task.isDone());
+        assertMatches(tasks, bigList, "type:E OR (beta gamma) OR before:2026-07-01",
+                task -> task instanceof Event || task.getDescription().contains("beta")
+                        && task.getDescription().contains("gamma") || isDue.test(task));
+        assertMatches(tasks, bigList, "NOT (type:T OR delta) pending",
+                task -> !(task instanceof Todo || task.getDescription().contains("delta")) && !task.isDone());
+    }
+
+    private void assertMatches(List<Task> tasks, TaskList list, String query, Predicate<Task> expected)
+            throws VinuxException {
+        StringBuilder sb = new StringBuilder("Here are the tasks matching that query:\n");
+        for (int i = 0; i < tasks.size(); i++) {
+            if (expected.test(tasks.get(i))) {
+                sb.append(i + 1).append(".").append(tasks.get(i)).append("\n");
+            }
+        }
+        assertEquals(sb.toString().trim(), list.findTasks(TaskQuery.compile(query), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Tests that malformed queries throw VinuxException.
+     * NEGATIVE CASE: Dangling operators, unbalanced brackets and quotes, and empty phrases are rejected.
+     */
+    @Test
+    public void compile_malformedQueries_throwsException() {
+        VinuxException exception = assertThrows(VinuxException.class, () -> TaskQuery.compile("report AND"));
+        assertTrue(exception.getMessage().contains("after AND"));
+        assertThrows(VinuxException.class, () -> TaskQuery.compile("OR done"));
+        assertThrows(VinuxException.class, () -> TaskQuery.compile("(report OR done"));
+        assertThrows(VinuxException.class, () -> TaskQuery.compile("report) done"));
+        assertThrows(VinuxException.class, () -> TaskQuery.compile("\"report"));
+        assertThrows(VinuxException.class, () -> TaskQuery.compile("\"\" AND done"));
+    }
+
+    /**
+     * Tests that evaluating a query leaves the bitsets of its source unchanged.
+     * NEGATIVE CASE: Evaluating never changes what the source returns.
+     */
+    @Test
+    public void evaluate_customSource_leavesSourceBitsetsIntact() throws VinuxException {
+        BitSet all = new BitSet();
+        all.set(0, 4);
+        BitSet done = new BitSet();
+        done.set(1);
+        TaskQuery.Source source = new TaskQuery.Source() {
+            @Override
+            public BitSet getAll() {
+                return all;
+            }
+
+            @Override
+            public BitSet getType(char typeIcon) {
+                return all;
+            }
+
+            @Override
+            public BitSet getDone() {
+                return done;
+            }
+
+            @Override
+            public BitSet findDue(LocalDate from, LocalDate to) {
+                return new BitSet();
+            }
+
+            @Override
+            public BitSet findContaining(String text, BitSet within) {
+                return (BitSet) within.clone();
+            }
+        };
+
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(2, 4);
+        assertEquals(expected, TaskQuery.compile("type:T NOT done word").evaluate(source));
+        assertEquals(4, all.cardinality());
+        assertEquals(1, done.cardinality());
+    }
+}
@@ -1,5 +1,7 @@
 package vinux;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
@@ -71,4 +73,30 @@ public class UiTest {
         assertTrue(output.contains("added"));
         assertTrue(output.contains("test task"));
     }
+
+    @Test
+    public void testShowTaskList_streamsEveryTaskAcrossPages() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 1000; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        ui.showTaskList(tasks);
+        String output = outputStream.toString();
+        assertTrue(output.contains("    1.[T][ ] task 0"));
+        assertTrue(output.contains("    1000.[T][ ] task 999"));
+        assertEquals(1002, output.lines().count());
+    }
+
+    @Test
+    public void testShowTaskList_pageShowsOnlyThatPart() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 1000; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        ui.showTaskList(tasks, 300, 5);
+        String output = outputStream.toString();
+        assertTrue(output.contains("    301.[T][ ] task 300"));
+        assertTrue(output.contains("    305.[T][ ] task 304"));
+        assertFalse(output.contains("task 305"));
+    }
 }
@@ -17,8 +17,12 @@ public class VinuxTest {
     @AfterEach
     public void cleanUp() {
         File file = new File("./data/test_vinux.txt");
-        if (file.exists()) {
-            file.delete();
+        // Also removes the index, journal generations and snapshot files written next to it
+        File[] related = file.getParentFile().listFiles((dir, name) -> name.startsWith(file.getName()));
+        if (related != null) {
+            for (File relatedFile : related) {
+                relatedFile.delete();
+            }
         }
     }
 
@@ -26,5 +30,6 @@ public class VinuxTest {
     public void testVinuxCreation() {
         Vinux vinux = new Vinux("./data/test_vinux.txt");
         assertNotNull(vinux);
+        vinux.shutdown();
     }
 }
@@ -0,0 +1,65 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link BkTree}.
+ */
+public class BkTreeTest {
+
+    @Test
+    public void distance_typos_countsEdits() {
+        assertEquals(0, BkTree.distance("movie", "movie"));
+        assertEquals(1, BkTree.distance("mvie", "movie"));
+        assertEquals(2, BkTree.distance("deadlnie", "deadline"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "book"));
+    }
+
+    @Test
+    public void forEachWithin_randomWords_matchesBruteForce() {
+        Random random = new Random(23);
+        BkTree tree = new BkTree();
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String word = randomWord(random);
+            tree.add(word);
+            if (!words.contains(word)) {
+                words.add(word);
+            }
+        }
+        assertEquals(words.size(), tree.size());
+
+        for (int query = 0; query < 200; query++) {
+            String target = randomWord(random);
+            int maxDistance = random.nextInt(4);
+            Map<String, Integer> expected = new HashMap<>();
+            for (String word : words) {
+                int distance = BkTree.distance(target, word);
+                if (distance <= maxDistance) {
+                    expected.put(word, distance);
+                }
+            }
+            Map<String, Integer> found = new HashMap<>();
+            tree.forEachWithin(target, maxDistance, found::put);
+            assertEquals(expected, found);
+        }
+    }
+
+    private String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link ChunkedList}.
+ */
+public class ChunkedListTest {
+
+    @Test
+    public void randomMutations_matchArrayList() {
+        Random random = new Random(18);
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> chunked = new ChunkedList<>();
+        for (int step = 0; step < 20000; step++) {
+            int choice = random.nextInt(10);
+            if (choice < 4 || expected.isEmpty()) {
+                expected.add(step);
+                chunked.add(step);
+            } else if (choice < 6) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, step);
+                chunked.add(index, step);
+            } else if (choice < 9) {
+                // Deleting from the front empties whole chunks
+                int index = random.nextBoolean() ? 0 : random.nextInt(expected.size());
+                assertEquals(expected.remove(index), chunked.remove(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, -step), chunked.set(index, -step));
+            }
+        }
+        assertEquals(expected, chunked);
+
+        for (int i = 0; i < expected.size(); i += 97) {
+            assertEquals(expected.get(i), chunked.get(i));
+        }
+    }
+
+    @Test
+    public void clear_thenReuse_startsOver() {
+        List<String> chunked = new ChunkedList<>(List.of("read book", "return book"));
+        chunked.clear();
+        chunked.add("buy book");
+
+        assertEquals(List.of("buy book"), chunked);
+        assertThrows(IndexOutOfBoundsException.class, () -> chunked.get(1));
+    }
+}
@@ -0,0 +1,122 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Test class for {@link ColumnarTaskList}.
+ */
+public class ColumnarTaskListTest {
+
+    private Task createTask(Random random, int number) {
+        switch (random.nextInt(3)) {
+        case 0:
+            return new Todo("todo " + number + " café");
+        case 1:
+            return new Deadline("deadline " + number, LocalDate.of(2026, 1, 1).plusDays(number));
+        default:
+            return new Event("event " + number, "2026-01-01 09:00", "10:" + (number % 60));
+        }
+    }
+
+    private List<String> render(List<Task> tasks) {
+        List<String> rendered = new ArrayList<>();
+        for (Task task : tasks) {
+            rendered.add(task.toFileFormat());
+        }
+        return rendered;
+    }
+
+    @Test
+    public void randomMutations_matchArrayList() {
+        Random random = new Random(19);
+        List<Task> expected = new ArrayList<>();
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        for (int step = 0; step < 5000; step++) {
+            int choice = random.nextInt(10);
+            if (choice < 5 || expected.isEmpty()) {
+                Task task = createTask(random, step);
+                expected.add(task);
+                columnar.add(task);
+            } else if (choice < 8) {
+                int index = random.nextBoolean() ? 0 : random.nextInt(expected.size());
+                assertEquals(expected.remove(index).toFileFormat(), columnar.remove(index).toFileFormat());
+            } else {
+                int index = random.nextInt(expected.size());
+                Task task = random.nextBoolean() ? columnar.get(index) : createTask(random, step);
+                task.markAsDone();
+                expected.set(index, task);
+                columnar.set(index, task);
+            }
+        }
+        assertEquals(render(expected), render(columnar));
+    }
+
+    @Test
+    public void get_changedWithoutSet_notKept() {
+        ColumnarTaskList columnar = new ColumnarTaskList(List.of(new Todo("read book")));
+
+        columnar.get(0).markAsDone();
+        assertFalse(columnar.get(0).isDone());
+
+        Task task = columnar.get(0);
+        task.markAsDone();
+        columnar.set(0, task);
+        assertTrue(columnar.get(0).isDone());
+    }
+
+    @Test
+    public void get_events_keepPeriodWithoutParsing() {
+        ColumnarTaskList columnar = new ColumnarTaskList(List.of(
+                new Event("party", "2026-10-20 22:00", "02:00"),
+                new Event("fair", "1969-12-31", "1970-01-01"),
+                new Event("meeting", "Mon 2pm", "4pm")));
+
+        Event party = (Event) columnar.get(0);
+        assertEquals(LocalDateTime.of(2026, 10, 20, 22, 0), party.getStart());
+        assertEquals(LocalDateTime.of(2026, 10, 21, 2, 0), party.getEnd());
+        assertEquals(LocalDateTime.of(1970, 1, 2, 0, 0), ((Event) columnar.get(1)).getEnd());
+        assertFalse(((Event) columnar.get(2)).hasPeriod());
+    }
+
+    @Test
+    public void freeze_laterChanges_notSeen() {
+        Random random = new Random(6);
+        ColumnarTaskList columnar = new ColumnarTaskList();
+        for (int i = 0; i < 100; i++) {
+            columnar.add(createTask(random, i));
+        }
+        List<String> expected = render(columnar);
+
+        List<Task> frozen = columnar.freeze();
+        Task replacement = new Todo("replaced");
+        replacement.markAsDone();
+        columnar.set(3, replacement);
+        for (int i = 0; i < 60; i++) {
+            columnar.remove(0); // compacts the columns along the way
+        }
+        columnar.add(createTask(random, 100));
+        assertEquals(expected, render(frozen));
+
+        List<Task> frozenAgain = columnar.freeze();
+        List<String> expectedAgain = render(columnar);
+        columnar.clear();
+        columnar.add(new Todo("fresh start"));
+        assertEquals(expectedAgain, render(frozenAgain));
+        assertEquals(expected, render(frozen));
+    }
+}
@@ -0,0 +1,50 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link DeadlineIndex}.
+ */
+public class DeadlineIndexTest {
+
+    private List<Integer> due(DeadlineIndex index, LocalDate from, LocalDate to) {
+        List<Integer> sequences = new ArrayList<>();
+        index.forEachDue(from, to, sequences::add);
+        return sequences;
+    }
+
+    @Test
+    public void forEachDue_period_visitsByDateThenSequence() {
+        DeadlineIndex index = new DeadlineIndex();
+        LocalDate day = LocalDate.of(2026, 1, 10);
+        index.add(0, day.plusDays(2));
+        index.add(1, day);
+        index.add(2, day.plusDays(2));
+        index.add(3, day.plusDays(5));
+
+        assertEquals(List.of(1, 0, 2), due(index, day, day.plusDays(2)));
+        assertEquals(List.of(3), due(index, day.plusDays(3), LocalDate.MAX));
+        assertEquals(List.of(), due(index, LocalDate.MIN, day.minusDays(1)));
+    }
+
+    @Test
+    public void remove_deletedDeadline_noLongerDue() {
+        DeadlineIndex index = new DeadlineIndex();
+        LocalDate day = LocalDate.of(2026, 1, 10);
+        index.add(0, day);
+        index.add(1, day);
+
+        index.remove(0, day);
+        assertEquals(List.of(1), due(index, day, day));
+
+        index.remove(1, day);
+        index.add(2, day.plusDays(1));
+        assertEquals(List.of(2), due(index, LocalDate.MIN, LocalDate.MAX));
+    }
+}
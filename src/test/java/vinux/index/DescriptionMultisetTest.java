@@ -0,0 +1,39 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link DescriptionMultiset}.
+ */
+public class DescriptionMultisetTest {
+
+    @Test
+    public void fold_agreesWithEqualsIgnoreCase() {
+        String[] samples = {"read book", "READ BOOK", "Read Book!", "σ", "Σ", "ς", "ß", "SS", "İ", "i", "ı", "I",
+            "ǅ", "ǆ", "Ǆ", "𐐀", "𐐨", "ｂｏｏｋ", "ＢＯＯＫ", "µ", "μ", "Μ", "K", "K", "k"};
+        for (String first : samples) {
+            for (String second : samples) {
+                assertEquals(first.equalsIgnoreCase(second),
+                        DescriptionMultiset.fold(first).equals(DescriptionMultiset.fold(second)),
+                        first + " / " + second);
+            }
+        }
+    }
+
+    @Test
+    public void remove_oneOfTwoCopies_stillContained() {
+        DescriptionMultiset descriptions = new DescriptionMultiset();
+        descriptions.add("read book");
+        descriptions.add("Read Book");
+
+        descriptions.remove("READ BOOK");
+        assertTrue(descriptions.contains("read BOOK"));
+
+        descriptions.remove("read book");
+        assertFalse(descriptions.contains("read book"));
+    }
+}
@@ -0,0 +1,78 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link IntervalTree}.
+ */
+public class IntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private List<Integer> overlapping(IntervalTree tree, int from, int to) {
+        List<Integer> sequences = new ArrayList<>();
+        tree.forEachOverlapping(BASE.plusMinutes(from), BASE.plusMinutes(to), sequences::add);
+        sequences.sort(null);
+        return sequences;
+    }
+
+    @Test
+    public void forEachOverlapping_touchingPeriods_excluded() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(BASE, BASE.plusMinutes(30), 0);
+        tree.add(BASE.plusMinutes(30), BASE.plusMinutes(60), 1);
+
+        assertEquals(List.of(0), overlapping(tree, 0, 30));
+        assertEquals(List.of(0, 1), overlapping(tree, 29, 31));
+        assertEquals(List.of(), overlapping(tree, 60, 90));
+    }
+
+    @Test
+    public void randomMutations_matchBruteForce() {
+        Random random = new Random(17);
+        IntervalTree tree = new IntervalTree();
+        List<int[]> live = new ArrayList<>();
+        for (int sequence = 0; sequence < 2000; sequence++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                int[] removed = live.remove(random.nextInt(live.size()));
+                tree.remove(BASE.plusMinutes(removed[0]), removed[2]);
+            }
+            int start = random.nextInt(5000);
+            int[] period = {start, start + 1 + random.nextInt(60), sequence};
+            tree.add(BASE.plusMinutes(period[0]), BASE.plusMinutes(period[1]), sequence);
+            live.add(period);
+        }
+        assertEquals(live.size(), tree.size());
+
+        for (int query = 0; query < 200; query++) {
+            int from = random.nextInt(5000);
+            int to = from + 1 + random.nextInt(100);
+            List<Integer> expected = new ArrayList<>();
+            for (int[] period : live) {
+                if (period[0] < to && period[1] > from) {
+                    expected.add(period[2]);
+                }
+            }
+            expected.sort(null);
+            assertEquals(expected, overlapping(tree, from, to));
+        }
+
+        int[] clashCount = {0};
+        tree.forEachClash((first, second) -> clashCount[0]++);
+        int expectedClashes = 0;
+        for (int i = 0; i < live.size(); i++) {
+            for (int j = i + 1; j < live.size(); j++) {
+                if (live.get(i)[0] < live.get(j)[1] && live.get(j)[0] < live.get(i)[1]) {
+                    expectedClashes++;
+                }
+            }
+        }
+        assertEquals(expectedClashes, clashCount[0]);
+    }
+}
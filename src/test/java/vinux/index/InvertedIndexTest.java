@@ -0,0 +1,73 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link InvertedIndex}.
+ */
+public class InvertedIndexTest {
+
+    private List<Integer> toList(PostingList list) {
+        Integer[] values = new Integer[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            values[i] = list.get(i);
+        }
+        return List.of(values);
+    }
+
+    @Test
+    public void tokenize_splitsOnNonWordCharacters() {
+        assertEquals(Set.of("go", "to", "café", "x1"), InvertedIndex.tokenize("go-to café, x1 go"));
+        assertEquals(Set.of(), InvertedIndex.tokenize(" -- "));
+    }
+
+    @Test
+    public void candidates_partialWords_includeLongerWords() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(0, "read book");
+        index.add(1, "buy notebook");
+        index.add(2, "return library card");
+
+        assertEquals(List.of(0, 1), toList(index.candidates("book")));
+        assertEquals(List.of(0), toList(index.candidates("d boo")));
+        assertEquals(List.of(), toList(index.candidates("pen")));
+        assertNull(index.candidates("--"));
+    }
+
+    @Test
+    public void remove_lastTaskWithWord_dropsWord() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(0, "read book");
+        index.add(1, "read notes");
+
+        index.remove(0, "read book");
+
+        assertEquals(List.of(1), toList(index.lookup("read")));
+        assertEquals(List.of(), toList(index.lookup("book")));
+        assertEquals(2, index.getWordCount());
+    }
+
+    @Test
+    public void forEachSimilar_misspeltWord_findsCloseWordsOnly() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(0, "watch movie");
+        index.add(1, "move desk");
+        index.add(2, "read book");
+        index.add(3, "watch another movie");
+        index.remove(1, "move desk");
+
+        Map<List<Integer>, Integer> found = new HashMap<>();
+        index.forEachSimilar("mvie", 1, (postings, distance) -> found.put(toList(postings), distance));
+
+        // "move" is 2 edits away and its only task is gone
+        assertEquals(Map.of(List.of(0, 3), 1), found);
+    }
+}
@@ -0,0 +1,55 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link RankedSlots}.
+ */
+public class RankedSlotsTest {
+
+    @Test
+    public void addAndRemove_ranksMatchLiveSlots() {
+        Random random = new Random(18);
+        RankedSlots slots = new RankedSlots(40);
+        List<Integer> live = new ArrayList<>();
+        for (int slot = 0; slot < 40; slot++) {
+            live.add(slot);
+        }
+        for (int step = 0; step < 5000; step++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                live.add(slots.add());
+            } else {
+                slots.remove(live.remove(random.nextInt(live.size())));
+            }
+        }
+
+        assertEquals(live.size(), slots.size());
+        for (int rank = 0; rank < live.size(); rank++) {
+            assertEquals(live.get(rank).intValue(), slots.select(rank));
+            assertEquals(rank, slots.rank(live.get(rank)));
+        }
+    }
+
+    @Test
+    public void clear_numbersFromZeroAgain() {
+        RankedSlots slots = new RankedSlots();
+        slots.add();
+        slots.add();
+        slots.remove(0);
+        assertFalse(slots.isLive(0));
+        assertTrue(slots.isLive(1));
+
+        slots.clear();
+
+        assertEquals(0, slots.add());
+        assertEquals(1, slots.size());
+    }
+}
@@ -0,0 +1,64 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link SnapshotList}.
+ */
+public class SnapshotListTest {
+
+    @Test
+    public void randomChanges_matchArrayListAndLeaveOldVersionsIntact() {
+        Random random = new Random(20);
+        List<Integer> expected = new ArrayList<>();
+        SnapshotList<Integer> current = SnapshotList.empty();
+        List<SnapshotList<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> expectedVersions = new ArrayList<>();
+        for (int step = 0; step < 20000; step++) {
+            int choice = random.nextInt(10);
+            if (choice < 5 || expected.isEmpty()) {
+                expected.add(step);
+                current = current.withAdded(step);
+            } else if (choice < 8) {
+                // Deleting from the front empties whole segments
+                int index = random.nextBoolean() ? 0 : random.nextInt(expected.size());
+                expected.remove(index);
+                current = current.withRemoved(index);
+            } else {
+                int index = random.nextInt(expected.size());
+                expected.set(index, -step);
+                current = current.withSet(index, -step);
+            }
+            if (step % 1000 == 0) {
+                versions.add(current);
+                expectedVersions.add(new ArrayList<>(expected));
+            }
+        }
+        assertEquals(expected, current);
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expectedVersions.get(i), versions.get(i));
+        }
+    }
+
+    @Test
+    public void of_manyElements_fillsSegments() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < SnapshotList.SEGMENT_CAPACITY * 3 + 5; i++) {
+            expected.add(i);
+        }
+        SnapshotList<Integer> snapshot = SnapshotList.of(expected);
+
+        assertEquals(expected, snapshot);
+        assertEquals(expected.subList(1, expected.size()), snapshot.withRemoved(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(expected.size()));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(-1));
+    }
+}
@@ -0,0 +1,102 @@
+package vinux.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link TrigramIndex} and {@link PostingList}.
+ */
+public class TrigramIndexTest {
+
+    private List<Integer> toList(PostingList list) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            values.add(list.get(i));
+        }
+        return values;
+    }
+
+    @Test
+    public void candidates_substringInsideWord_found() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "buy apples");
+        index.add(1, "apply for leave");
+        index.add(2, "read book");
+
+        assertEquals(List.of(0, 1), toList(index.candidates("ppl")));
+        assertEquals(List.of(0), toList(index.candidates("apples")));
+        assertEquals(List.of(), toList(index.candidates("xyz")));
+        assertNull(index.candidates("pp"));
+    }
+
+    @Test
+    public void remove_deletedTask_noLongerCandidate() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(0, "buy apples");
+        index.add(1, "buy pears");
+
+        index.remove(0, "buy apples");
+
+        assertEquals(List.of(1), toList(index.candidates("buy")));
+        assertEquals(List.of(), toList(index.candidates("ppl")));
+    }
+
+    @Test
+    public void intersect_skewedSizes_sameAsMerge() {
+        PostingList small = new PostingList();
+        PostingList large = new PostingList();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            large.add(i * 3);
+        }
+        for (int i = 0; i < 50; i++) {
+            small.add(i * 200 + 1);
+            if ((i * 200 + 1) % 3 == 0) {
+                expected.add(i * 200 + 1);
+            }
+        }
+
+        assertEquals(expected, toList(small.intersect(large)));
+        assertEquals(expected, toList(large.intersect(small)));
+    }
+
+    @Test
+    public void forEachCandidate_sameAsCandidatesAndStopsWhenAsked() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 3000; i++) {
+            index.add(i, (i % 7 == 0 ? "report " : "note ") + (i % 5 == 0 ? "weekly" : "daily"));
+        }
+        for (String query : List.of("report", "weekly", "rt we", "ort dai", "monthly")) {
+            List<Integer> lazy = new ArrayList<>();
+            assertTrue(index.forEachCandidate(query, lazy::add));
+            assertEquals(toList(index.candidates(query)), lazy);
+        }
+
+        List<Integer> firstThree = new ArrayList<>();
+        index.forEachCandidate("rt we", sequence -> firstThree.add(sequence) && firstThree.size() < 3);
+        assertEquals(List.of(0, 35, 70), firstThree);
+        assertFalse(index.forEachCandidate("re", sequence -> true));
+    }
+
+    @Test
+    public void seek_fromAnyPosition_findsFirstNotSmaller() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i * 2);
+        }
+
+        assertEquals(0, list.seek(0, 0));
+        assertEquals(6, list.seek(11, 0));
+        assertEquals(6, list.seek(12, 3));
+        assertEquals(500, list.seek(999, 100));
+        assertEquals(20, list.seek(3, 20));
+        assertEquals(1000, list.seek(5000, 0));
+    }
+}
@@ -0,0 +1,105 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import vinux.VinuxException;
+import vinux.task.Deadline;
+import vinux.task.Event;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Test class for {@link BinaryTaskCodec} and {@link TaskFileConverter}.
+ */
+public class BinaryTaskCodecTest {
+
+    private List<Task> sampleTasks() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        Task deadline = new Deadline("go by bus", LocalDate.of(2019, 12, 31));
+        deadline.markAsDone();
+        tasks.add(deadline);
+        tasks.add(new Event("go to gym", "Mon 6pm", "7pm"));
+        tasks.add(new Deadline("history essay", LocalDate.of(1969, 7, 20)));
+        return tasks;
+    }
+
+    private byte[] encode(List<Task> tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTaskCodec.write(tasks, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void writeAndRead_allTaskTypes_roundTrip() throws IOException, VinuxException {
+        List<Task> tasks = sampleTasks();
+
+        List<Task> decoded = BinaryTaskCodec.read(ByteBuffer.wrap(encode(tasks)));
+
+        assertEquals(tasks.size(), decoded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), decoded.get(i).toString());
+        }
+    }
+
+    @Test
+    public void write_smallerThanTextFormat() throws IOException {
+        List<Task> tasks = sampleTasks();
+        int textLength = 0;
+        for (Task task : tasks) {
+            textLength += (task.toFileFormat() + "\n").getBytes("UTF-8").length;
+        }
+
+        assertTrue(encode(tasks).length < textLength);
+    }
+
+    @Test
+    public void read_wrongVersion_throwsException() throws IOException {
+        byte[] bytes = encode(sampleTasks());
+        bytes[4] = 99;
+
+        assertThrows(VinuxException.class, () -> BinaryTaskCodec.read(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void read_truncatedRecord_throwsException() throws IOException {
+        byte[] bytes = encode(sampleTasks());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+
+        assertThrows(VinuxException.class, () -> BinaryTaskCodec.read(ByteBuffer.wrap(truncated)));
+    }
+
+    @Test
+    public void convert_textToBinaryAndBack_preservesTasks() throws IOException, VinuxException {
+        Path text = Files.createTempFile("vinux", ".txt");
+        Path binary = Files.createTempFile("vinux", ".bin");
+        Path textAgain = Files.createTempFile("vinux", ".txt");
+        try {
+            Files.writeString(text, "TODO ✓ read book\nDEADLINE ✗ return book by 2019-12-31\n");
+
+            TaskFileConverter.convert(text, binary, TaskFileFormat.BINARY);
+            assertEquals(TaskFileFormat.BINARY, TaskFileFormat.detect(new FileBackend(SyncPolicy.osManaged()), binary));
+            TaskFileConverter.convert(binary, textAgain, TaskFileFormat.TEXT);
+
+            assertEquals(Files.readString(text), Files.readString(textAgain));
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(textAgain);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link DurableWriter}.
+ */
+public class DurableWriterTest {
+
+    private Path directory;
+    private Path target;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vinux");
+        target = directory.resolve("tasks.txt");
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(directory.resolve("tasks.txt.tmp"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void replace_everyCommand_writesContentWithoutTempFile() throws IOException {
+        DurableWriter writer = new DurableWriter(SyncPolicy.everyCommand());
+        Files.writeString(target, "old");
+
+        writer.replace(target, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("new", Files.readString(target));
+        assertFalse(Files.exists(directory.resolve("tasks.txt.tmp")));
+    }
+
+    @Test
+    public void replace_failingContent_keepsOldFile() throws IOException {
+        DurableWriter writer = new DurableWriter(SyncPolicy.osManaged());
+        Files.writeString(target, "old");
+
+        assertThrows(IOException.class, () -> writer.replace(target, out -> {
+            out.write("half".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("old", Files.readString(target));
+    }
+
+    @Test
+    public void append_groupCommit_appendsInOrder() throws IOException {
+        DurableWriter writer = new DurableWriter(SyncPolicy.groupCommit(10));
+
+        writer.append(target, "a\n".getBytes(StandardCharsets.UTF_8));
+        writer.append(target, "b\n".getBytes(StandardCharsets.UTF_8));
+        writer.close();
+
+        assertEquals("a\nb\n", Files.readString(target));
+    }
+}
@@ -0,0 +1,227 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import vinux.VinuxException;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Test class for {@link PagedTaskList} and {@link TaskFileIndex}.
+ *
+ * <p>Checks that a lazily loaded list behaves like the fully loaded one.</p>
+ */
+public class PagedTaskListTest {
+    private Path directory;
+    private Path dataPath;
+    private Path indexPath;
+    private final StorageBackend backend = new FileBackend(SyncPolicy.osManaged());
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vinux-paged");
+        dataPath = directory.resolve("tasks.txt");
+        indexPath = directory.resolve("tasks.txt.index");
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Todo("task " + i);
+            if (i % 3 == 0) {
+                task.markAsDone();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private void writeFile(List<Task> tasks, TaskFileFormat format) throws IOException {
+        try (OutputStream out = Files.newOutputStream(dataPath)) {
+            format.write(tasks, out);
+        }
+    }
+
+    private PagedTaskList open(int cachedPages) throws VinuxException {
+        return new PagedTaskList(backend, dataPath, TaskFileIndex.load(dataPath, indexPath, backend), cachedPages);
+    }
+
+    private void assertSameTasks(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    @Test
+    public void get_textFile_matchesEagerLoad() throws IOException, VinuxException {
+        List<Task> tasks = createTasks(1000);
+        writeFile(tasks, TaskFileFormat.TEXT);
+
+        try (PagedTaskList paged = open(2)) {
+            assertSameTasks(tasks, paged);
+        }
+    }
+
+    @Test
+    public void get_binaryFile_matchesEagerLoad() throws IOException, VinuxException {
+        List<Task> tasks = createTasks(1000);
+        writeFile(tasks, TaskFileFormat.BINARY);
+
+        try (PagedTaskList paged = open(2)) {
+            assertSameTasks(tasks, paged);
+        }
+    }
+
+    @Test
+    public void get_blankLinesAndCrlf_skipped() throws IOException, VinuxException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            content.append("TODO ✗ task ").append(i).append(i % 7 == 0 ? "\r\n\r\n" : "\n");
+        }
+        Files.write(dataPath, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        try (PagedTaskList paged = open(1)) {
+            assertEquals(300, paged.size());
+            assertEquals("task 299", paged.get(299).getDescription());
+            assertEquals("task 128", paged.get(128).getDescription());
+        }
+    }
+
+    @Test
+    public void load_savedIndex_reusedUntilFileChanges() throws IOException, VinuxException {
+        writeFile(createTasks(300), TaskFileFormat.TEXT);
+        open(1).close();
+        assertTrue(Files.exists(indexPath));
+
+        writeFile(createTasks(10), TaskFileFormat.TEXT);
+        try (PagedTaskList paged = open(1)) {
+            assertEquals(10, paged.size());
+        }
+    }
+
+    @Test
+    public void load_sameSizeAndTime_changedContents_rebuilt() throws IOException, VinuxException {
+        writeFile(createTasks(300), TaskFileFormat.TEXT);
+        long size = Files.size(dataPath);
+        FileTime modified = Files.getLastModifiedTime(dataPath);
+        open(1).close();
+
+        // Two short last tasks become one long one, keeping the size and modification time
+        List<Task> tasks = createTasks(298);
+        tasks.add(new Todo(""));
+        writeFile(tasks, TaskFileFormat.TEXT);
+        tasks.set(298, new Todo("x".repeat((int) (size - Files.size(dataPath)))));
+        writeFile(tasks, TaskFileFormat.TEXT);
+        assertEquals(size, Files.size(dataPath));
+        Files.setLastModifiedTime(dataPath, modified);
+
+        try (PagedTaskList paged = open(1)) {
+            assertEquals(299, paged.size());
+            assertEquals(tasks.get(298).getDescription(), paged.get(298).getDescription());
+        }
+    }
+
+    @Test
+    public void mutations_randomSequence_matchArrayList() throws IOException, VinuxException {
+        List<Task> expected = createTasks(1000);
+        writeFile(expected, TaskFileFormat.TEXT);
+        Random random = new Random(42);
+
+        try (PagedTaskList paged = open(2)) {
+            for (int step = 0; step < 2000; step++) {
+                int operation = random.nextInt(3);
+                if (operation == 0 || expected.isEmpty()) {
+                    Task task = new Todo("added " + step);
+                    expected.add(task);
+                    paged.add(task);
+                } else if (operation == 1) {
+                    int index = random.nextInt(expected.size());
+                    expected.remove(index);
+                    paged.remove(index);
+                } else {
+                    int index = random.nextInt(expected.size());
+                    expected.get(index).markAsDone();
+                    Task task = paged.get(index);
+                    task.markAsDone();
+                    paged.set(index, task);
+                }
+            }
+            assertSameTasks(expected, paged);
+        }
+    }
+
+    @Test
+    public void markAsDone_pageEvicted_changeKept() throws IOException, VinuxException {
+        writeFile(createTasks(1000), TaskFileFormat.TEXT);
+
+        try (PagedTaskList paged = open(1)) {
+            paged.get(1).markAsDone();
+            paged.get(999); // evicts the first page
+
+            assertTrue(paged.get(1).isDone());
+            assertFalse(paged.get(2).isDone());
+        }
+    }
+
+    @Test
+    public void clear_afterLoad_empty() throws IOException, VinuxException {
+        writeFile(createTasks(300), TaskFileFormat.TEXT);
+
+        try (PagedTaskList paged = open(1)) {
+            paged.clear();
+            paged.add(new Todo("fresh"));
+
+            assertEquals(1, paged.size());
+            assertEquals("fresh", paged.get(0).getDescription());
+        }
+    }
+
+    @Test
+    public void freeze_laterChanges_notSeen() throws IOException, VinuxException {
+        writeFile(createTasks(1000), TaskFileFormat.TEXT);
+
+        try (PagedTaskList paged = open(2)) {
+            paged.get(1).markAsDone(); // changed on a cached page only
+            paged.remove(5);
+            paged.add(new Todo("added"));
+            List<Task> expected = new ArrayList<>(paged);
+
+            List<Task> frozen = paged.freeze();
+            paged.remove(0);
+            paged.set(10, new Todo("replaced"));
+            paged.add(new Todo("added later"));
+            paged.get(999); // evicts the pages read so far
+
+            assertSameTasks(expected, frozen);
+            assertTrue(frozen.get(1).isDone());
+        }
+    }
+}
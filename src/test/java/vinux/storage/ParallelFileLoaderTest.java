@@ -0,0 +1,99 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import vinux.VinuxException;
+import vinux.task.Task;
+
+/**
+ * Test class for {@link ParallelFileLoader}.
+ *
+ * <p>Uses tiny chunks so that small files are split many times.</p>
+ */
+public class ParallelFileLoaderTest {
+    private static final ParallelFileLoader.ChunkParser<Task> TASK_PARSER =
+            (chunk, tasks) -> new TaskFileDecoder().decodeLines(chunk, 0, chunk.limit(), true, tasks);
+
+    private final StorageBackend backend = new FileBackend(SyncPolicy.osManaged());
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("vinux-parallel", ".txt");
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private String createContent(int count) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(i % 2 == 0 ? "TODO ✓ café " : "DEADLINE ✗ return book ").append(i);
+            content.append(i % 2 == 0 ? "" : " by 2019-12-31");
+            content.append(i % 5 == 0 ? "\r\n" : "\n");
+            if (i % 11 == 0) {
+                content.append("\n");
+            }
+        }
+        return content.toString();
+    }
+
+    @Test
+    public void load_smallChunks_sameAsSingleChunk() throws IOException, VinuxException {
+        Files.write(file, createContent(2000).getBytes(StandardCharsets.UTF_8));
+
+        List<Task> sequential = ParallelFileLoader.load(backend, file, TASK_PARSER, Long.MAX_VALUE, false);
+        List<Task> parallel = ParallelFileLoader.load(backend, file, TASK_PARSER, 97, true);
+
+        assertEquals(2000, sequential.size());
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).toString(), parallel.get(i).toString());
+        }
+    }
+
+    @Test
+    public void load_chunksSeeWholeLines() throws IOException, VinuxException {
+        Files.write(file, "alpha\nbeta\r\ngamma\rdelta".getBytes(StandardCharsets.UTF_8));
+        ParallelFileLoader.ChunkParser<String> lineParser = (ByteBuffer chunk, List<String> lines) -> {
+            String text = new String(chunk.array(), 0, chunk.limit(), StandardCharsets.UTF_8);
+            for (String line : text.lines().toList()) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        };
+
+        assertEquals(List.of("alpha", "beta", "gamma", "delta"), ParallelFileLoader.load(backend, file, lineParser, 1, true));
+    }
+
+    @Test
+    public void load_invalidLine_reportsFirstInFileOrder() throws IOException {
+        String content = createContent(500) + "NOTE ✗ first bad\n" + createContent(500) + "SKETCH ✗ second bad\n";
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+
+        VinuxException exception = assertThrows(VinuxException.class, () ->
+                ParallelFileLoader.load(backend, file, TASK_PARSER, 64, true));
+        assertEquals("Unknown task type: NOTE", exception.getMessage());
+    }
+
+    @Test
+    public void load_emptyFile_empty() throws VinuxException {
+        assertEquals(new ArrayList<Task>(), ParallelFileLoader.load(backend, file, TASK_PARSER));
+    }
+}
@@ -0,0 +1,145 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import vinux.VinuxException;
+import vinux.task.Task;
+import vinux.task.Todo;
+
+/**
+ * Test class for {@link SlottedTaskFile}.
+ */
+public class SlottedTaskFileTest {
+    private Path file;
+    private final StorageBackend backend = new FileBackend(SyncPolicy.osManaged());
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("vinux-slotted", ".bin");
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        return tasks;
+    }
+
+    private SlottedTaskFile open(List<Task> tasks) throws VinuxException {
+        SlottedTaskFile slotted = new SlottedTaskFile(file, backend);
+        slotted.rewrite(tasks);
+        return slotted;
+    }
+
+    private List<Task> reload() throws VinuxException {
+        return new SlottedTaskFile(file, backend).load();
+    }
+
+    @Test
+    public void writeStatus_onlyStatusByteChanges() throws IOException, VinuxException {
+        SlottedTaskFile slotted = open(createTasks(3));
+        long size = Files.size(file);
+
+        slotted.writeStatus(1, true);
+
+        assertEquals(size, Files.size(file));
+        List<Task> loaded = reload();
+        assertFalse(loaded.get(0).isDone());
+        assertTrue(loaded.get(1).isDone());
+
+        slotted.writeStatus(1, false);
+        assertFalse(reload().get(1).isDone());
+    }
+
+    @Test
+    public void delete_leavesTombstone() throws IOException, VinuxException {
+        SlottedTaskFile slotted = open(createTasks(3));
+        long size = Files.size(file);
+
+        slotted.delete(1);
+        slotted.writeStatus(1, true);
+
+        assertEquals(size, Files.size(file));
+        List<Task> loaded = reload();
+        assertEquals(2, loaded.size());
+        assertEquals("task 2", loaded.get(1).getDescription());
+        assertTrue(loaded.get(1).isDone());
+    }
+
+    @Test
+    public void append_longDescription_spansSlots() throws VinuxException {
+        SlottedTaskFile slotted = open(createTasks(1));
+        String description = "x".repeat(SlottedTaskFile.SLOT_SIZE * 3);
+
+        slotted.append(new Todo(description));
+        slotted.append(new Todo("after"));
+        slotted.writeStatus(2, true);
+
+        List<Task> loaded = reload();
+        assertEquals(3, loaded.size());
+        assertEquals(description, loaded.get(1).getDescription());
+        assertTrue(loaded.get(2).isDone());
+    }
+
+    @Test
+    public void load_tornAppend_dropped() throws IOException, VinuxException {
+        open(createTasks(2));
+        long size = Files.size(file);
+        Files.write(file, new byte[] {1, 0, 1, 0}, StandardOpenOption.APPEND);
+
+        List<Task> loaded = reload();
+
+        assertEquals(2, loaded.size());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void rewrite_manyTombstones_reclaimsSpace() throws IOException, VinuxException {
+        SlottedTaskFile slotted = open(createTasks(2000));
+        long size = Files.size(file);
+        List<Task> remaining = createTasks(2000);
+        while (!slotted.isRewriteDue()) {
+            slotted.delete(0);
+            remaining.remove(0);
+        }
+
+        slotted.rewrite(remaining);
+
+        assertTrue(Files.size(file) < size / 2);
+        assertEquals(remaining.size(), reload().size());
+    }
+
+    @Test
+    public void taskFileFormat_detectsAndReadsSlotted() throws IOException, VinuxException {
+        List<Task> tasks = createTasks(5);
+        tasks.get(3).markAsDone();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            TaskFileFormat.SLOTTED.write(tasks, out);
+        }
+
+        assertEquals(TaskFileFormat.SLOTTED, TaskFileFormat.detect(backend, file));
+        List<Task> loaded = TaskFileFormat.SLOTTED.read(backend, file);
+        assertEquals(5, loaded.size());
+        assertTrue(loaded.get(3).isDone());
+    }
+}
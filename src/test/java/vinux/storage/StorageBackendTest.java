@@ -0,0 +1,132 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import vinux.VinuxException;
+
+/**
+ * Test class for {@link StorageBackend} and its implementations.
+ *
+ * <p>Every test runs against each backend, which must all behave the same.</p>
+ */
+public class StorageBackendTest {
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vinux-backend");
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private List<StorageBackend> createBackends() {
+        return List.of(new FileBackend(SyncPolicy.osManaged()), new MappedFileBackend(SyncPolicy.osManaged()),
+                new MemoryBackend());
+    }
+
+    private String readString(StorageBackend backend, Path path) throws IOException {
+        return StandardCharsets.UTF_8.decode(backend.read(path)).toString();
+    }
+
+    @Test
+    public void replaceAndAppend_readBack() throws IOException {
+        for (StorageBackend backend : createBackends()) {
+            Path file = directory.resolve("tasks.txt");
+            assertFalse(backend.exists(file));
+
+            backend.replace(file, out -> out.write("alpha\n".getBytes(StandardCharsets.UTF_8)));
+            backend.append(file, "beta\n".getBytes(StandardCharsets.UTF_8));
+            backend.writeAt(file, 0, new byte[] {'A'});
+
+            assertTrue(backend.exists(file));
+            assertEquals(11, backend.size(file));
+            assertEquals("Alpha\nbeta\n", readString(backend, file));
+            backend.delete(file);
+        }
+    }
+
+    @Test
+    public void open_positionalReads() throws IOException {
+        for (StorageBackend backend : createBackends()) {
+            Path file = directory.resolve("tasks.txt");
+            backend.replace(file, out -> out.write("0123456789".getBytes(StandardCharsets.UTF_8)));
+
+            try (StorageBackend.Source source = backend.open(file)) {
+                ByteBuffer buffer = ByteBuffer.allocate(4);
+                assertEquals(10, source.size());
+                assertEquals(4, source.read(buffer, 3));
+                assertEquals("3456", new String(buffer.array(), StandardCharsets.UTF_8));
+                buffer.clear();
+                assertEquals(2, source.read(buffer, 8));
+                buffer.clear();
+                assertEquals(-1, source.read(buffer, 10));
+            }
+            backend.delete(file);
+        }
+    }
+
+    @Test
+    public void moveTruncateAndList() throws IOException {
+        for (StorageBackend backend : createBackends()) {
+            Path first = directory.resolve("tasks.txt.snapshot.1");
+            Path second = directory.resolve("tasks.txt.snapshot.2");
+            backend.replace(first, out -> out.write("snapshot".getBytes(StandardCharsets.UTF_8)));
+            backend.move(first, second);
+            backend.truncate(second, 4);
+
+            assertFalse(backend.exists(first));
+            assertEquals("snap", readString(backend, second));
+            assertEquals(List.of(second.getFileName()),
+                    backend.list(directory, "tasks.txt.snapshot.").stream().map(Path::getFileName).toList());
+            assertEquals(List.of(), backend.list(directory.resolve("missing"), ""));
+            backend.delete(second);
+        }
+    }
+
+    @Test
+    public void read_missingFile_throws() {
+        for (StorageBackend backend : createBackends()) {
+            assertThrows(IOException.class, () -> backend.read(directory.resolve("missing.txt")));
+        }
+    }
+
+    @Test
+    public void memoryBackend_neverTouchesDisk() throws IOException {
+        StorageBackend backend = new MemoryBackend();
+        Path file = directory.resolve("tasks.txt");
+
+        backend.replace(file, out -> out.write(1));
+
+        assertTrue(backend.exists(file));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void create_unknownName_throws() throws VinuxException {
+        assertTrue(StorageBackend.create("mmap", SyncPolicy.osManaged()) instanceof MappedFileBackend);
+        assertThrows(VinuxException.class, () -> StorageBackend.create("tape", SyncPolicy.osManaged()));
+    }
+}
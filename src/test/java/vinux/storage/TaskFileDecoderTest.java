@@ -0,0 +1,86 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import vinux.VinuxException;
+import vinux.task.Task;
+
+/**
+ * Test class for {@link TaskFileDecoder}.
+ *
+ * <p>Checks that the byte-level decoder accepts the same file grammar as Storage.</p>
+ */
+public class TaskFileDecoderTest {
+
+    private List<Task> decode(String content) throws VinuxException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        List<Task> tasks = new ArrayList<>();
+        new TaskFileDecoder().decodeLines(ByteBuffer.wrap(bytes), 0, bytes.length, true, tasks);
+        return tasks;
+    }
+
+    @Test
+    public void decodeLines_allTaskTypes_decodedInOrder() throws VinuxException {
+        List<Task> tasks = decode("TODO ✓ read book\n"
+                + "DEADLINE ✗ return book by 2019-12-31\n"
+                + "EVENT ✓ project meeting from Mon 2pm to 4pm\n");
+
+        assertEquals(3, tasks.size());
+        assertEquals("[T][X] read book", tasks.get(0).toString());
+        assertEquals("[D][ ] return book (by: Dec 31 2019)", tasks.get(1).toString());
+        assertEquals("[E][X] project meeting (from: Mon 2pm to: 4pm)", tasks.get(2).toString());
+    }
+
+    @Test
+    public void decodeLines_blankLinesAndCrlf_skipped() throws VinuxException {
+        List<Task> tasks = decode("TODO ✗ café run\r\n   \r\n\nTODO ✓ last line without newline");
+
+        assertEquals(2, tasks.size());
+        assertEquals("café run", tasks.get(0).getDescription());
+        assertFalse(tasks.get(0).isDone());
+        assertTrue(tasks.get(1).isDone());
+    }
+
+    @Test
+    public void decodeLines_incompleteLastLine_notConsumed() throws VinuxException {
+        byte[] bytes = "TODO ✗ one\nTODO ✗ tw".getBytes(StandardCharsets.UTF_8);
+        List<Task> tasks = new ArrayList<>();
+
+        int consumed = new TaskFileDecoder().decodeLines(ByteBuffer.wrap(bytes), 0, bytes.length, false, tasks);
+
+        assertEquals(1, tasks.size());
+        assertEquals("TODO ✗ one\n".getBytes(StandardCharsets.UTF_8).length, consumed);
+    }
+
+    @Test
+    public void decodeLines_eventDescriptionContainsTo_decoded() throws VinuxException {
+        List<Task> tasks = decode("EVENT ✗ go to gym from 6pm to 7pm");
+        assertEquals("[E][ ] go to gym (from: 6pm to: 7pm)", tasks.get(0).toString());
+    }
+
+    @Test
+    public void decodeLines_invalidDate_throwsException() {
+        assertThrows(VinuxException.class, () -> decode("DEADLINE ✗ return book by 2019-02-30"));
+    }
+
+    @Test
+    public void decodeLines_unknownType_throwsException() {
+        VinuxException exception = assertThrows(VinuxException.class, () -> decode("NOTE ✗ hello"));
+        assertEquals("Unknown task type: NOTE", exception.getMessage());
+    }
+
+    @Test
+    public void decodeLines_missingStatus_throwsException() {
+        assertThrows(VinuxException.class, () -> decode("TODO"));
+    }
+}
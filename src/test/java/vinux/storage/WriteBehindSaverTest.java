@@ -0,0 +1,57 @@
+package vinux.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import vinux.VinuxException;
+
+/**
+ * Test class for {@link WriteBehindSaver}.
+ */
+public class WriteBehindSaverTest {
+
+    @Test
+    public void markDirty_burstOfMutations_coalescedIntoFewSaves() throws VinuxException {
+        WriteBehindSaver saver = new WriteBehindSaver(50);
+        AtomicInteger saveCount = new AtomicInteger();
+        WriteBehindSaver.SaveAction action = saveCount::incrementAndGet;
+
+        for (int i = 0; i < 1000; i++) {
+            saver.markDirty(action);
+        }
+        saver.close();
+
+        assertTrue(saveCount.get() >= 1);
+        assertTrue(saveCount.get() < 10, "Saves were not coalesced: " + saveCount.get());
+    }
+
+    @Test
+    public void flush_waitsForPendingSave() throws VinuxException {
+        WriteBehindSaver saver = new WriteBehindSaver(10_000);
+        AtomicInteger saveCount = new AtomicInteger();
+
+        saver.markDirty(saveCount::incrementAndGet);
+        saver.flush();
+
+        assertEquals(1, saveCount.get());
+        saver.close();
+    }
+
+    @Test
+    public void flush_failedSave_reportsError() throws VinuxException {
+        WriteBehindSaver saver = new WriteBehindSaver(0);
+
+        saver.markDirty(() -> {
+            throw new VinuxException("disk full");
+        });
+
+        VinuxException exception = assertThrows(VinuxException.class, saver::flush);
+        assertTrue(exception.getMessage().contains("disk full"));
+        saver.close();
+    }
+}
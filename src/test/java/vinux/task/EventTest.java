@@ -1,6 +1,11 @@
 package vinux.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
 
 import org.junit.jupiter.api.Test;
 
@@ -49,4 +54,39 @@ public class EventTest {
         event.markAsDone();
         assertEquals("EVENT ✓ meeting from 2pm to 4pm", event.toFileFormat());
     }
+
+    @Test
+    public void testPeriod_structuredTimes() {
+        Event event = new Event("meeting", "2026-10-20 14:00", "1630");
+        assertTrue(event.hasPeriod());
+        assertEquals(LocalDateTime.of(2026, 10, 20, 14, 0), event.getStart());
+        assertEquals(LocalDateTime.of(2026, 10, 20, 16, 30), event.getEnd());
+        assertEquals("[E][ ] meeting (from: 2026-10-20 14:00 to: 1630)", event.toString());
+
+        Event overnight = new Event("party", "2026-10-20 22:00", "02:00");
+        assertEquals(LocalDateTime.of(2026, 10, 21, 2, 0), overnight.getEnd());
+
+        Event allDay = new Event("fair", "2026-10-20", "2026-10-21");
+        assertEquals(LocalDateTime.of(2026, 10, 22, 0, 0), allDay.getEnd());
+    }
+
+    @Test
+    public void testPeriod_freeFormOrReversed_none() {
+        assertFalse(new Event("meeting", "Mon 2pm", "4pm").hasPeriod());
+        assertFalse(new Event("meeting", "2026-10-20 14:00", "later").hasPeriod());
+        assertFalse(new Event("meeting", "2026-10-20", "2026-10-19").hasPeriod());
+        assertNull(new Event("meeting", "2026-13-40", "2026-13-41").getStart());
+    }
+
+    @Test
+    public void testCopy_keepsPeriodAndStatus() {
+        Event event = new Event("party", "2026-10-20 22:00", "02:00");
+        event.markAsDone();
+
+        Event copy = event.copy();
+        assertEquals(event.getStart(), copy.getStart());
+        assertEquals(event.getEnd(), copy.getEnd());
+        assertEquals(event.toFileFormat(), copy.toFileFormat());
+        assertFalse(new Event("meeting", "Mon 2pm", "4pm").copy().hasPeriod());
+    }
 }